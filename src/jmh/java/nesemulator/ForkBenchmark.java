@@ -0,0 +1,58 @@
+package nesemulator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ForkBenchmark {
+
+    private Machine machine;
+
+    @Setup
+    public void setUp() {
+        // An MMC1 board with CHR RAM, counting in zero page with rendering on
+        var prg = new byte[0x40000];
+        int[] program = {
+                0xA9, 0x1E, // LDA #$1E
+                0x8D, 0x01, 0x20, // STA $2001
+                0xE8, // INX
+                0x86, 0x10, // STX $10
+                0x4C, 0x05, 0x80, // JMP $8005
+        };
+        for (int i = 0; i < program.length; i++) {
+            prg[i] = (byte) program[i];
+        }
+        machine = new Machine();
+        machine.loadCart(new Cart(1, Mirroring.VERTICAL, prg, new byte[0]));
+        machine.getMmu().writeAddress(0x8000, 0x80); // Reset MMC1: bank 0 at $8000
+        machine.getCpu().initialize();
+        machine.runFrame();
+    }
+
+    @Benchmark
+    public Object fork() {
+        return machine.fork();
+    }
+
+    @Benchmark
+    public Object forkAndRunFrame() {
+        var child = machine.fork();
+        child.runFrame();
+        return child;
+    }
+
+    @Benchmark
+    public Object runFrame() {
+        machine.runFrame();
+        return machine;
+    }
+}
@@ -0,0 +1,62 @@
+package nesemulator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class MMUBenchmark {
+
+    private MMU mmu;
+    // Walks addresses so the JIT cannot fold the access into a constant
+    private int index;
+
+    @Setup
+    public void setUp() {
+        Cart cart = new Cart();
+        cart.prgROM = new byte[32 * 1024];
+        cart.boardModel = 0;
+
+        Machine machine = new Machine();
+        machine.loadCart(cart);
+        mmu = machine.getMmu();
+    }
+
+    @Benchmark
+    public int readRAM() {
+        return mmu.readAddress(index++ & 0x07FF);
+    }
+
+    @Benchmark
+    public int readMirroredRAM() {
+        return mmu.readAddress(0x0800 + (index++ & 0x17FF));
+    }
+
+    @Benchmark
+    public void writeRAM() {
+        mmu.writeAddress(index++ & 0x07FF, index);
+    }
+
+    @Benchmark
+    public int readPPUStatus() {
+        return mmu.readAddress(PPU.ADDRESS_PPUSTATUS + ((index++ & 0x3FF) << 3));
+    }
+
+    @Benchmark
+    public void writePPUScroll() {
+        mmu.writeAddress(PPU.ADDRESS_PPUSCROLL + ((index++ & 0x3FF) << 3), index);
+    }
+
+    @Benchmark
+    public int readROM() {
+        return mmu.readAddress(0x8000 + (index++ & 0x7FFF));
+    }
+}
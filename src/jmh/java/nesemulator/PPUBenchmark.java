@@ -0,0 +1,70 @@
+package nesemulator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class PPUBenchmark {
+
+    // A typical instruction length, so frames complete at their usual cadence
+    private static final int CPU_CYCLES_PER_STEP = 3;
+
+    private PPU ppu;
+    private PPU parallelPPU;
+
+    @Setup
+    public void setUp() {
+        ppu = busyFrame();
+        parallelPPU = busyFrame();
+        parallelPPU.setParallelRendering(ForkJoinPool.commonPool());
+    }
+
+    private static PPU busyFrame() {
+        var ppu = new PPU();
+        // A busy frame: varied tiles, attributes and palettes, with 64 sprites showing
+        var random = new Random(42);
+        for (int address = 0x0000; address < 0x2000; address++) {
+            ppu.writeVRAM(address, random.nextInt(0x100));
+        }
+        for (int address = 0x2000; address < 0x3000; address++) {
+            ppu.writeVRAM(address, random.nextInt(0x100));
+        }
+        for (int address = 0x3F00; address < 0x3F20; address++) {
+            ppu.writeVRAM(address, random.nextInt(0x40));
+        }
+        for (int i = 0; i < ppu.oam.length; i++) {
+            ppu.oam[i] = random.nextInt(0xF0);
+        }
+        ppu.mask = (byte) 0b00011110;
+        return ppu;
+    }
+
+    @Benchmark
+    public long executeStep() {
+        ppu.executeStep(CPU_CYCLES_PER_STEP);
+        return ppu.getFrames();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public Object render() {
+        return ppu.render();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public Object renderParallel() {
+        return parallelPPU.render();
+    }
+}
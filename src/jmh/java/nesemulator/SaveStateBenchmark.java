@@ -0,0 +1,61 @@
+package nesemulator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class SaveStateBenchmark {
+
+    private Machine machine;
+    private ByteBuffer buffer;
+    private SaveState saveState;
+    private Path path;
+
+    @Setup
+    public void setUp() throws IOException {
+        machine = new Machine();
+        machine.loadCart(new Cart(1, Mirroring.VERTICAL, new byte[0x40000], new byte[0]));
+        buffer = ByteBuffer.allocateDirect(SaveState.MAX_SIZE);
+        saveState = new SaveState();
+        path = Files.createTempFile("benchmark", ".state");
+        saveState.save(machine, path);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public int writeToBuffer() {
+        buffer.clear();
+        SaveState.write(machine, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public Object saveToFile() throws IOException {
+        saveState.save(machine, path);
+        return path;
+    }
+
+    @Benchmark
+    public Object loadFromFile() throws IOException {
+        saveState.load(machine, path);
+        return machine;
+    }
+}
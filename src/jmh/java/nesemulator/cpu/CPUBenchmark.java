@@ -0,0 +1,87 @@
+package nesemulator.cpu;
+
+import nesemulator.Machine;
+import nesemulator.MMU;
+import nesemulator.Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class CPUBenchmark {
+
+    // Copies a page of RAM forever, touching fetch, absolute indexed loads/stores and branches
+    private static final int[] PROGRAM = {
+            0xA2, 0x00,       // 8000: LDX #$00
+            0xBD, 0x00, 0x02, // 8002: LDA $0200,X
+            0x9D, 0x00, 0x03, // 8005: STA $0300,X
+            0xE8,             // 8008: INX
+            0xD0, 0xF7,       // 8009: BNE $8002
+            0x4C, 0x00, 0x80  // 800B: JMP $8000
+    };
+
+    private static final int BATCH_CYCLES = 1000;
+
+    private Machine machine;
+    private CPU cpu;
+    private Scheduler scheduler;
+    private int batchEvent;
+    private CPU compiledCPU;
+    private Scheduler compiledScheduler;
+    private int compiledBatchEvent;
+
+    @Setup
+    public void setUp() {
+        machine = new Machine();
+        MMU mmu = machine.getMmu();
+        for (int i = 0; i < PROGRAM.length; i++) {
+            mmu.writeAddress(0x8000 + i, PROGRAM[i]);
+        }
+        cpu = machine.getCpu();
+        scheduler = new Scheduler();
+        batchEvent = scheduler.register(cycle -> { });
+
+        var compiledMachine = new Machine();
+        for (int i = 0; i < PROGRAM.length; i++) {
+            compiledMachine.getMmu().writeAddress(0x8000 + i, PROGRAM[i]);
+        }
+        compiledCPU = compiledMachine.getCpu();
+        compiledCPU.setDynarec(true);
+        compiledScheduler = new Scheduler();
+        compiledBatchEvent = compiledScheduler.register(cycle -> { });
+    }
+
+    @Benchmark
+    public int executeStep() {
+        return cpu.executeStep();
+    }
+
+    @Benchmark
+    public int machineStep() {
+        return machine.step();
+    }
+
+    // Runs from cached blocks, with no event due for a thousand cycles
+    @Benchmark
+    public long runUntilNextEvent() {
+        scheduler.schedule(batchEvent, cpu.getCyclesCounter() + BATCH_CYCLES);
+        cpu.runUntilNextEvent(scheduler);
+        return cpu.getCyclesCounter();
+    }
+
+    // The same, once the loop's blocks have been translated to bytecode
+    @Benchmark
+    public long runUntilNextEventCompiled() {
+        compiledScheduler.schedule(compiledBatchEvent, compiledCPU.getCyclesCounter() + BATCH_CYCLES);
+        compiledCPU.runUntilNextEvent(compiledScheduler);
+        return compiledCPU.getCyclesCounter();
+    }
+}
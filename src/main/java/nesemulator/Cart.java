@@ -12,10 +12,25 @@ public class Cart {
 
     static final Logger logger = LoggerFactory.getLogger(Cart.class);
 
-    int boardModel;
+    private static final int HEADER_SIZE = 16;
+    private static final int TRAINER_SIZE = 512;
+
+    int boardModel; // iNES mapper number
+    Mirroring mirroring = Mirroring.HORIZONTAL;
     byte[] prgROM;
     byte[] chrROM;
     byte[] chrRAM; // TODO: Load CHR RAM when adequate
+    private int[] chrData;
+
+    public Cart() {
+    }
+
+    public Cart(int boardModel, Mirroring mirroring, byte[] prgROM, byte[] chrROM) {
+        this.boardModel = boardModel;
+        this.mirroring = mirroring;
+        this.prgROM = prgROM;
+        this.chrROM = chrROM;
+    }
 
     public static Cart fromROMFile(String romFilePath) throws IOException {
         byte[] romFileData = Files.readAllBytes(Path.of(romFilePath));
@@ -25,32 +40,70 @@ public class Cart {
         return new Cart();
     }
 
+    public int getBoardModel() {
+        return boardModel;
+    }
+
+    public Mirroring getMirroring() {
+        return mirroring;
+    }
+
+    public byte[] getPRGROM() {
+        return prgROM;
+    }
+
+    public byte[] getCHRROM() {
+        return chrROM;
+    }
+
+    // CHR ROM widened to ints, so pattern fetches never need to mask sign bits. Built once
+    // and shared by every mapper for this cart, forks included, since nothing writes to it.
+    public synchronized int[] getCHRData() {
+        if (chrData == null && chrROM != null) {
+            chrData = new int[chrROM.length];
+            for (int i = 0; i < chrROM.length; i++) {
+                chrData[i] = chrROM[i] & 0xFF;
+            }
+        }
+        return chrData;
+    }
+
     private static Cart fromNes10ROM(byte[] romFileData) {
         var cart = new Cart();
-        byte[] header = Arrays.copyOfRange(romFileData, 0, 15);
-        int prgROMSize = header[4] * 16 * 1024;
-        int chrROMSize = header[5] * 8 * 1024;
-        parseFlags(cart, header[6]);
+        byte[] header = Arrays.copyOfRange(romFileData, 0, HEADER_SIZE);
+        int prgROMSize = (header[4] & 0xFF) * 16 * 1024;
+        int chrROMSize = (header[5] & 0xFF) * 8 * 1024;
+        parseFlags(cart, header[6], header[7]);
 
         logger.info(String.format("Header flags: %X", header[6]));
+        logger.info("Mapper: {}, mirroring: {}", cart.boardModel, cart.mirroring);
         logger.info("PRG ROM size (bytes): {}", prgROMSize);
         logger.info("CHR ROM size (bytes): {}", chrROMSize);
 
-        int prgStartByte = 16;
+        int prgStartByte = HEADER_SIZE + (hasTrainer(header[6]) ? TRAINER_SIZE : 0);
         int prgEndByte = prgStartByte + prgROMSize;
 
         cart.prgROM = Arrays.copyOfRange(romFileData, prgStartByte, prgEndByte);
 
         if (chrROMSize > 0) {
-            cart.chrROM = Arrays.copyOfRange(romFileData, prgEndByte + 1, prgEndByte + chrROMSize + 1);
+            cart.chrROM = Arrays.copyOfRange(romFileData, prgEndByte, prgEndByte + chrROMSize);
             cart.chrRAM = new byte[0];
         }
 
         return cart;
     }
 
-    private static void parseFlags(Cart cart, byte b) {
-        cart.boardModel = ((b >> 4) & 1) == 0 ? 0 : 1;
+    private static void parseFlags(Cart cart, byte flags6, byte flags7) {
+        cart.boardModel = ((flags6 >> 4) & 0x0F) | (flags7 & 0xF0);
+        if ((flags6 & 0b1000) != 0) {
+            cart.mirroring = Mirroring.FOUR_SCREEN;
+        } else {
+            cart.mirroring = (flags6 & 0b1) == 0 ? Mirroring.HORIZONTAL : Mirroring.VERTICAL;
+        }
+    }
+
+    private static boolean hasTrainer(byte flags6) {
+        return (flags6 & 0b100) != 0;
     }
 
     private static boolean isNes10Format(byte[] fileData) {
@@ -0,0 +1,7 @@
+package nesemulator;
+
+public interface EventHandler {
+
+    // Called once the CPU reaches or passes the cycle the event was scheduled for
+    void handleEvent(long cycle);
+}
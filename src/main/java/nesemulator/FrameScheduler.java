@@ -0,0 +1,81 @@
+package nesemulator;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+// Paces emulation to the console's frame rate. Deadlines are absolute offsets from the
+// start, so oversleeping one frame shortens the next wait instead of accumulating drift.
+public class FrameScheduler {
+
+    public static final double NTSC_FRAME_RATE = 60.0988;
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double frameNanos;
+    private final LongSupplier clock;
+    private final LongConsumer parker;
+
+    private long startNanos;
+    private long deadlineIndex;
+    private long frames;
+    private long lateFrames;
+    private long droppedFrames;
+
+    public FrameScheduler(double frameRate) {
+        this(frameRate, System::nanoTime, LockSupport::parkNanos);
+    }
+
+    FrameScheduler(double frameRate, LongSupplier clock, LongConsumer parker) {
+        this.frameNanos = NANOS_PER_SECOND / frameRate;
+        this.clock = clock;
+        this.parker = parker;
+        start();
+    }
+
+    public void start() {
+        startNanos = clock.getAsLong();
+        deadlineIndex = 0;
+        frames = lateFrames = droppedFrames = 0;
+    }
+
+    // Called once a frame has been emulated and presented; blocks until it is due.
+    // A frame finished after its deadline is late; when the emulator falls more than a
+    // whole frame behind, the missed deadlines are dropped rather than rushed through.
+    public void awaitNextFrame() {
+        frames++;
+        deadlineIndex++;
+        long deadline = deadlineNanos(deadlineIndex);
+        long now = clock.getAsLong();
+        if (now > deadline) {
+            lateFrames++;
+            long missed = (long) ((now - deadline) / frameNanos);
+            if (missed > 0) {
+                droppedFrames += missed;
+                deadlineIndex += missed;
+            }
+            return;
+        }
+        long remaining;
+        while ((remaining = deadline - now) > 0) {
+            parker.accept(remaining);
+            now = clock.getAsLong();
+        }
+    }
+
+    private long deadlineNanos(long index) {
+        return startNanos + Math.round(index * frameNanos);
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public long getLateFrames() {
+        return lateFrames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+}
@@ -1,77 +1,334 @@
 package nesemulator;
 
+import nesemulator.mapper.Mapper;
+
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.function.LongSupplier;
 
 public class MMU {
 
-    private MMU() {
-    }
-
     private static final int INITIAL_CART_PRG_ROM_ADDRESS = 0x8000;
-    private static final int INITIAL_CART_PRG_ROM_MIRROR_ADDRESS = 0xC000;
-    private static final int WHOLE_MEMORY_SIZE = 0x10001;
-    private static final int CPU_RAM_UPPER_LIMIT = 0x1FFF;
+    private static final int PRG_ROM_DUMP_SIZE = 0x8001;
+    private static final int CPU_RAM_SIZE = 0x0800;
     private static final int PPU_PORTS_INITIAL_ADDRESS = 0x2000;
     private static final int PPU_PORTS_UPPER_ADDRESS = 0x3FFF;
-    private static final int PPU_PORTS_COUNT = 0x08;
+    private static final int PPU_PORTS_MASK = 0x07;
+    private static final int CART_SPACE_INITIAL_ADDRESS = 0x4000;
+    private static final int CART_SPACE_SIZE = 0xC000;
+    private static final int IO_PAGES_UPPER_ADDRESS = 0x40FF;
+    private static final int OAM_DMA_SIZE = 0x100;
+    private static final int OAM_DMA_CYCLES = 513;
+
+    // The address space is split into 256-byte pages. Pages backed by memory resolve
+    // with a shift and an index; pages with no backing (I/O, ROM writes) take the slow path.
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_MASK = 0xFF;
+    private static final int PAGE_COUNT = 0x100;
+    private static final int PAGE_SIZE = 0x100;
+    private static final int RAM_PAGES = CPU_RAM_SIZE >> PAGE_SHIFT;
+    private static final int MEMORY_PAGES = RAM_PAGES + (CART_SPACE_SIZE >> PAGE_SHIFT);
+    private static final int IO_MEMORY_PAGE = RAM_PAGES;
+
+    private final PPU ppu;
+    private final byte[][] readPages = new byte[PAGE_COUNT][];
+    private final byte[][] writePages = new byte[PAGE_COUNT][];
+    private final int[] pageOffsets = new int[PAGE_COUNT];
+    private Mapper mapper;
+    private int stallCycles;
+    private LongSupplier clock;
 
-    static int[] memory = new int[WHOLE_MEMORY_SIZE];
+    // Writable memory in pages: the 2 KB of CPU RAM, then $4000-$FFFF (I/O registers, plus
+    // plain RAM wherever the cart does not map anything). A page shared with a fork is mapped
+    // read-only, so the first write to it takes the slow path, which copies it.
+    byte[][] memory;
+    private final boolean[] sharedPages = new boolean[MEMORY_PAGES];
 
-    public static void initialize() {
-        memory = new int[WHOLE_MEMORY_SIZE];
+    // Memory pages the CPU has cached decoded code from are mapped read-only as well, so a
+    // write to them is seen. Each CPU page has a version that changes whenever what it maps
+    // could decode differently, and the generation changes along with any of them.
+    private final boolean[] codePages = new boolean[MEMORY_PAGES];
+    private final int[] codeVersions = new int[PAGE_COUNT];
+    private int codeGeneration;
+
+    public MMU(PPU ppu) {
+        this.ppu = ppu;
+        initialize();
     }
 
-    public static void loadCart(Cart cart) {
-        boolean mirror = false;
-        if (cart.boardModel == 0 && cart.prgROM.length <= 16 * 1024) {
-            mirror = true;
+    // Shares every memory page with the parent, and the parent's mappings of them
+    private MMU(MMU parent, PPU ppu) {
+        this.ppu = ppu;
+        parent.shareMemory();
+        memory = parent.memory.clone();
+        Arrays.fill(sharedPages, true);
+        System.arraycopy(parent.readPages, 0, readPages, 0, PAGE_COUNT);
+        System.arraycopy(parent.writePages, 0, writePages, 0, PAGE_COUNT);
+        System.arraycopy(parent.pageOffsets, 0, pageOffsets, 0, PAGE_COUNT);
+        System.arraycopy(parent.codeVersions, 0, codeVersions, 0, PAGE_COUNT);
+        codeGeneration = parent.codeGeneration;
+        stallCycles = parent.stallCycles;
+        if (parent.mapper != null) {
+            mapper = parent.mapper.fork(this, ppu);
         }
+    }
+
+    // A copy for a forked machine, attached to that machine's PPU
+    MMU fork(PPU ppu) {
+        return new MMU(this, ppu);
+    }
 
-        for (int i = 0; i < cart.prgROM.length; i++) {
-            memory[INITIAL_CART_PRG_ROM_ADDRESS + i] = cart.prgROM[i];
-            if (mirror) {
-                memory[INITIAL_CART_PRG_ROM_MIRROR_ADDRESS + i] = cart.prgROM[i];
+    public void initialize() {
+        mapper = null;
+        stallCycles = 0;
+        memory = new byte[MEMORY_PAGES][PAGE_SIZE];
+        Arrays.fill(sharedPages, false);
+        Arrays.fill(codePages, false);
+        unmapPages(0x0000, 0xFFFF);
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            if (memoryPageOf(page) > IO_MEMORY_PAGE) {
+                mapMemory(page);
             }
         }
+        for (int page = 0; page < RAM_PAGES; page++) {
+            mapMemory(page); //CPU RAM Mirroring
+        }
+    }
+
+    public void loadCart(Cart cart) {
+        mapper = Mapper.forCart(cart);
+        mapper.attach(this, ppu);
+    }
+
+    public Mapper getMapper() {
+        return mapper;
+    }
+
+    // The CPU cycle counter. When set, the PPU is caught up to it before any register
+    // access, so it can otherwise be left behind until its next scheduled event
+    public void attachClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    // CPU cycles spent on DMA since the last call, during which the CPU is halted
+    public int takeStallCycles() {
+        var cycles = stallCycles;
+        stallCycles = 0;
+        return cycles;
+    }
+
+    // Bank mappings are not stored, the mapper's own state restores them
+    public void saveState(ByteBuffer buffer) {
+        for (byte[] page : memory) {
+            buffer.put(page);
+        }
+        buffer.putInt(stallCycles);
     }
 
-    public static int readAddress(int address) {
-        if (address <= CPU_RAM_UPPER_LIMIT) { //CPU RAM Mirroring
-            return memory[address % 2048];
+    public void loadState(ByteBuffer buffer) {
+        for (int page = 0; page < MEMORY_PAGES; page++) {
+            buffer.get(writableMemory(page));
         }
+        stallCycles = buffer.getInt();
+    }
+
+    // Points [address, address + size) at read-only data starting at offset; used by mappers to switch banks
+    public void mapPRG(int address, int size, byte[] data, int offset) {
+        mapPages(address, address + size - 1, data, offset, size, false);
+    }
+
+    public int getCodeVersion(int page) {
+        return codeVersions[page];
+    }
+
+    public int getCodeGeneration() {
+        return codeGeneration;
+    }
+
+    // Whether the CPU page maps cart ROM, rather than memory a store could change
+    public boolean mapsROM(int page) {
+        int memoryPage = memoryPageOf(page);
+        return readPages[page] != null && (memoryPage < 0 || readPages[page] != memory[memoryPage]);
+    }
 
-        if (isPPUAddress(address)) {
-            return PPU.read(getMirroredPPUAddress(address));
+    // Whether code on the CPU page can be cached: it must be backed by memory or ROM, not I/O.
+    // Code in writable memory is write-protected from here on, until the next write to it
+    public boolean protectCode(int page) {
+        if (readPages[page] == null) {
+            return false;
+        }
+        int memoryPage = memoryPageOf(page);
+        if (memoryPage >= 0 && readPages[page] == memory[memoryPage] && !codePages[memoryPage]) {
+            codePages[memoryPage] = true;
+            for (int mirror = 0; mirror < PAGE_COUNT; mirror++) {
+                if (memoryPageOf(mirror) == memoryPage && readPages[mirror] == memory[memoryPage]) {
+                    writePages[mirror] = null;
+                }
+            }
         }
+        return true;
+    }
 
-        return memory[address];
+    public int readAddress(int address) {
+        address &= 0xFFFF;
+        int page = address >>> PAGE_SHIFT;
+        byte[] data = readPages[page];
+        if (data != null) {
+            return data[pageOffsets[page] + (address & PAGE_MASK)] & 0xFF;
+        }
+        return readIO(address);
     }
 
-    public static void writeAddress(int address, int value) {
-        if (isPPUAddress(address)) {
-            PPU.write(getMirroredPPUAddress(address), (byte) value);
+    public void writeAddress(int address, int value) {
+        address &= 0xFFFF;
+        int page = address >>> PAGE_SHIFT;
+        byte[] data = writePages[page];
+        if (data != null) {
+            data[pageOffsets[page] + (address & PAGE_MASK)] = (byte) value;
         } else {
-            if (address <= CPU_RAM_UPPER_LIMIT) { //CPU RAM Mirroring
-                address = address % 2048;
+            writeIO(address, value);
+        }
+    }
+
+    public int[] getPRGROMData() {
+        int[] data = new int[PRG_ROM_DUMP_SIZE];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = readAddress(INITIAL_CART_PRG_ROM_ADDRESS + i);
+        }
+        return data;
+    }
+
+    // Maps [startAddress, endAddress] onto data starting at offset, wrapping every mirrorSize bytes
+    private void mapPages(int startAddress, int endAddress, byte[] data, int offset, int mirrorSize, boolean writable) {
+        for (int page = startAddress >>> PAGE_SHIFT; page <= endAddress >>> PAGE_SHIFT; page++) {
+            int pageOffset = offset + (((page << PAGE_SHIFT) - startAddress) % mirrorSize);
+            // Mappers remap every bank on any register write, most of them unchanged
+            if (readPages[page] != data || pageOffsets[page] != pageOffset) {
+                invalidateCode(page);
+            }
+            readPages[page] = data;
+            writePages[page] = writable ? data : null;
+            pageOffsets[page] = pageOffset;
+        }
+    }
+
+    private void invalidateCode(int page) {
+        codeVersions[page]++;
+        codeGeneration++;
+    }
+
+    // Which memory page backs a CPU page: RAM is mirrored four times, and the PPU ports have none
+    private static int memoryPageOf(int page) {
+        if (page < PPU_PORTS_INITIAL_ADDRESS >>> PAGE_SHIFT) {
+            return page % RAM_PAGES;
+        }
+        if (page <= PPU_PORTS_UPPER_ADDRESS >>> PAGE_SHIFT) {
+            return -1;
+        }
+        return IO_MEMORY_PAGE + page - (CART_SPACE_INITIAL_ADDRESS >>> PAGE_SHIFT);
+    }
+
+    // Maps a CPU page onto its memory page; for CPU RAM, the three mirrors above it too
+    private void mapMemory(int page) {
+        int memoryPage = memoryPageOf(page);
+        for (int mirror = page; mirror < PAGE_COUNT && memoryPageOf(mirror) == memoryPage; mirror += RAM_PAGES) {
+            invalidateCode(mirror);
+            readPages[mirror] = memory[memoryPage];
+            writePages[mirror] = sharedPages[memoryPage] || codePages[memoryPage] ? null : memory[memoryPage];
+            pageOffsets[mirror] = 0;
+        }
+    }
+
+    private void shareMemory() {
+        Arrays.fill(sharedPages, true);
+        for (int page = 0; page < PAGE_COUNT; page++) {
+            int memoryPage = memoryPageOf(page);
+            if (memoryPage >= 0 && writePages[page] == memory[memoryPage]) {
+                writePages[page] = null;
             }
-            memory[address] = value;
         }
     }
 
-    public static int[] getPRGROMData() {
-        return Arrays.copyOfRange(memory, INITIAL_CART_PRG_ROM_ADDRESS, INITIAL_CART_PRG_ROM_ADDRESS + 0x8001);
+    // Copies a memory page still shared with a fork before its first write, invalidates any
+    // code cached from it, and repoints whichever CPU pages mapped it read-only
+    private byte[] writableMemory(int memoryPage) {
+        if (sharedPages[memoryPage] || codePages[memoryPage]) {
+            var original = memory[memoryPage];
+            if (sharedPages[memoryPage]) {
+                memory[memoryPage] = original.clone();
+                sharedPages[memoryPage] = false;
+            }
+            for (int page = 0; page < PAGE_COUNT; page++) {
+                if (memoryPageOf(page) == memoryPage && readPages[page] == original) {
+                    if (codePages[memoryPage]) {
+                        invalidateCode(page);
+                    }
+                    readPages[page] = memory[memoryPage];
+                    writePages[page] = memory[memoryPage];
+                }
+            }
+            codePages[memoryPage] = false;
+        }
+        return memory[memoryPage];
+    }
+
+    private void unmapPages(int startAddress, int endAddress) {
+        for (int page = startAddress >>> PAGE_SHIFT; page <= endAddress >>> PAGE_SHIFT; page++) {
+            invalidateCode(page);
+            readPages[page] = null;
+            writePages[page] = null;
+            pageOffsets[page] = 0;
+        }
+    }
+
+    private int readIO(int address) {
+        if (address <= PPU_PORTS_UPPER_ADDRESS) {
+            syncPPU();
+            return ppu.read(getMirroredPPUAddress(address)) & 0xFF;
+        }
+        if (address <= IO_PAGES_UPPER_ADDRESS) {
+            return memory[IO_MEMORY_PAGE][address & PAGE_MASK] & 0xFF;
+        }
+        return 0; // Nothing mapped for reading here
+    }
+
+    private void writeIO(int address, int value) {
+        int memoryPage = memoryPageOf(address >>> PAGE_SHIFT);
+        if (memoryPage >= 0 && (sharedPages[memoryPage] || codePages[memoryPage]) && readPages[address >>> PAGE_SHIFT] == memory[memoryPage]) {
+            writableMemory(memoryPage)[address & PAGE_MASK] = (byte) value;
+            return;
+        }
+        if (address <= PPU_PORTS_UPPER_ADDRESS) {
+            syncPPU();
+            ppu.write(getMirroredPPUAddress(address), (byte) value);
+            return;
+        }
+        if (address == PPU.ADDRESS_OAMDMA) {
+            writeOAMDMA(value);
+        } else if (address <= IO_PAGES_UPPER_ADDRESS) {
+            writableMemory(IO_MEMORY_PAGE)[address & PAGE_MASK] = (byte) value;
+        } else if (mapper != null) {
+            mapper.writeRegister(address, value);
+        }
+    }
+
+    private void syncPPU() {
+        if (clock != null) {
+            ppu.runUntil(clock.getAsLong());
+        }
     }
 
     private static int getMirroredPPUAddress(int address) {
-        return PPU_PORTS_INITIAL_ADDRESS + (address % PPU_PORTS_COUNT);
+        return PPU_PORTS_INITIAL_ADDRESS + (address & PPU_PORTS_MASK);
     }
 
-    private static boolean isPPUAddress(int address) {
-        if (address == 0x4014) {
-            // TODO: implement treatment for 0x4014
-            throw new RuntimeException(">>>> SPRITE MEMORY MAPPING (DMA) NOT IMPLEMENTED <<<<");
+    // Copies the CPU page $XX00-$XXFF into OAM, starting at the current OAM address
+    private void writeOAMDMA(int page) {
+        var source = (page & 0xFF) << PAGE_SHIFT;
+        for (int i = 0; i < OAM_DMA_SIZE; i++) {
+            ppu.writeOAMData((byte) readAddress(source + i));
         }
-        return address >= PPU_PORTS_INITIAL_ADDRESS && address <= PPU_PORTS_UPPER_ADDRESS;
+        stallCycles += OAM_DMA_CYCLES;
     }
 
 }
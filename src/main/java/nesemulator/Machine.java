@@ -0,0 +1,122 @@
+package nesemulator;
+
+import nesemulator.cpu.CPU;
+
+// A whole console: every piece of emulated state hangs off one of these, so
+// independent machines can live (and run on separate threads) in the same JVM.
+public class Machine {
+
+    private final PPU ppu;
+    private final MMU mmu;
+    private final CPU cpu;
+    private final Scheduler scheduler = new Scheduler();
+    private final int ppuEvent;
+    private final int nmiEvent;
+    private Cart cart;
+
+    public Machine() {
+        ppu = new PPU();
+        mmu = new MMU(ppu);
+        cpu = new CPU(mmu);
+        ppuEvent = scheduler.register(this::syncPPU);
+        nmiEvent = scheduler.register(this::serviceNMI);
+        ppu.attachScheduler(scheduler, nmiEvent);
+        mmu.attachClock(cpu::getCyclesCounter);
+        schedulePPU();
+    }
+
+    // Starts out exactly where the parent is, for exploring alternatives from the same point.
+    // Memory pages are shared copy-on-write, so forking copies little more than the registers
+    // and page tables, and each side later pays only for the pages it writes.
+    private Machine(Machine parent) {
+        ppu = parent.ppu.fork();
+        mmu = parent.mmu.fork(ppu);
+        cpu = parent.cpu.fork(mmu);
+        cart = parent.cart;
+        ppuEvent = scheduler.register(this::syncPPU);
+        nmiEvent = scheduler.register(this::serviceNMI);
+        ppu.attachScheduler(scheduler, nmiEvent);
+        mmu.attachClock(cpu::getCyclesCounter);
+        scheduler.copyDeadlines(parent.scheduler);
+    }
+
+    // Must be called on the thread running this machine; the fork can then run on any thread
+    public Machine fork() {
+        return new Machine(this);
+    }
+
+    public void initialize() {
+        ppu.initialize();
+        mmu.initialize();
+        cpu.initialize();
+        if (cart != null) {
+            mmu.loadCart(cart);
+        }
+        scheduler.reset();
+        schedulePPU();
+    }
+
+    public void loadCart(Cart cart) {
+        this.cart = cart;
+        mmu.loadCart(cart);
+        // The mapper decides whether the PPU must be woken every scanline
+        schedulePPU();
+    }
+
+    // Executes a single instruction, then whatever events it made due
+    public int step() {
+        long start = cpu.getCyclesCounter();
+        cpu.executeStep();
+        scheduler.runDueEvents(cpu.getCyclesCounter());
+        return (int) (cpu.getCyclesCounter() - start);
+    }
+
+    // Runs until the PPU completes a frame, in batches of instructions between events
+    public void runFrame() {
+        long frame = ppu.getFrames();
+        while (ppu.getFrames() == frame) {
+            cpu.runUntilNextEvent(scheduler);
+            scheduler.runDueEvents(cpu.getCyclesCounter());
+        }
+    }
+
+    // The PPU runs behind the CPU and is only caught up here, when vertical blank starts
+    // (or a scanline ends, for mappers counting them), and on register access through the MMU
+    private void syncPPU(long cycle) {
+        ppu.runUntil(cycle);
+        schedulePPU();
+        if (mmu.getMapper() != null && mmu.getMapper().isIRQPending()) {
+            cpu.irq();
+        }
+    }
+
+    private void schedulePPU() {
+        scheduler.schedule(ppuEvent, ppu.getNextEventCycle());
+    }
+
+    private void serviceNMI(long cycle) {
+        if (ppu.pollNMI()) {
+            cpu.nmi();
+        }
+    }
+
+    public CPU getCpu() {
+        return cpu;
+    }
+
+    public MMU getMmu() {
+        return mmu;
+    }
+
+    public PPU getPpu() {
+        return ppu;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public Cart getCart() {
+        return cart;
+    }
+}
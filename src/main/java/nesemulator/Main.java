@@ -1,6 +1,5 @@
 package nesemulator;
 
-import nesemulator.cpu.CPU;
 import nesemulator.cpu.observer.LogCPUObserver;
 import nesemulator.ui.ScreenUI;
 import org.slf4j.Logger;
@@ -9,6 +8,9 @@ import org.slf4j.LoggerFactory;
 import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
 
@@ -17,31 +19,62 @@ public class Main {
     }
 
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
-    private static final int framesPerSecond = 60;
     private static final long cpuTicksPerSecond = 1_789_773; //4194304
-    private static final int kMillisPerFrame = 1000 / framesPerSecond;
-    private static final long cpuTicksPerFrame = cpuTicksPerSecond / framesPerSecond;
+    private static final int PACING_REPORT_INTERVAL_FRAMES = 600;
+
+    private static final long DEFAULT_HEADLESS_FRAMES = 600;
+    private static final int PPU_TRACE_CAPACITY = 4096;
+    private static final int CHECKPOINT_INTERVAL_FRAMES = 600;
+    private static final int REWIND_BUFFER_BYTES = 4 * 1024 * 1024;
+    private static final int REWIND_INTERVAL_FRAMES = 2;
 
     private static String romFileName;
+    private static boolean headless;
+    private static long framesToRun = DEFAULT_HEADLESS_FRAMES;
+    private static PPUTrace ppuTrace;
+    private static boolean parallelRender;
+    private static boolean dynarec;
+    private static Path loadStatePath;
+    private static Path saveStatePath;
+    private static RewindBuffer rewind;
     private static boolean running;
+    private static Machine machine;
 
     public static void main(String[] args) {
         try {
             processArgs(args);
+            if (headless) {
+                System.setProperty("java.awt.headless", "true");
+            }
 
             logger.info("Initializing Hardware...");
-            PPU.initialize();
-            MMU.initialize();
-            CPU.initialize();
+            machine = new Machine();
             if (logger.isDebugEnabled()) {
-                CPU.addObserver(new LogCPUObserver());
+                machine.getCpu().addObserver(new LogCPUObserver());
+            }
+            if (ppuTrace != null) {
+                machine.getPpu().setTrace(ppuTrace);
+            }
+            if (parallelRender) {
+                machine.getPpu().setParallelRendering(ForkJoinPool.commonPool());
+            }
+            if (dynarec) {
+                machine.getCpu().setDynarec(true);
             }
 
             logger.info("Loading {}...", romFileName);
             Cart cart = Cart.fromROMFile(romFileName);
-            MMU.loadCart(cart);
+            machine.loadCart(cart);
+            if (loadStatePath != null) {
+                logger.info("Resuming from {}...", loadStatePath);
+                new SaveState().load(machine, loadStatePath);
+            }
 
-            runEmulator();
+            if (headless) {
+                runHeadless();
+            } else {
+                runEmulator();
+            }
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -52,29 +85,126 @@ public class Main {
             throw new RuntimeException("You must provide a .nes rom path in the arguments");
         }
         romFileName = args[0];
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--headless":
+                    headless = true;
+                    break;
+                case "--frames":
+                    if (i + 1 >= args.length) {
+                        throw new RuntimeException("--frames requires a frame count");
+                    }
+                    framesToRun = Long.parseLong(args[++i]);
+                    break;
+                case "--trace-ppu":
+                    ppuTrace = new PPUTrace(PPU_TRACE_CAPACITY);
+                    break;
+                case "--parallel-render":
+                    parallelRender = true;
+                    break;
+                case "--dynarec":
+                    dynarec = true;
+                    break;
+                case "--rewind":
+                    rewind = new RewindBuffer(REWIND_BUFFER_BYTES, REWIND_INTERVAL_FRAMES);
+                    break;
+                case "--load-state":
+                    if (i + 1 >= args.length) {
+                        throw new RuntimeException("--load-state requires a file path");
+                    }
+                    loadStatePath = Paths.get(args[++i]);
+                    break;
+                case "--save-state":
+                    if (i + 1 >= args.length) {
+                        throw new RuntimeException("--save-state requires a file path");
+                    }
+                    saveStatePath = Paths.get(args[++i]);
+                    break;
+                default:
+                    throw new RuntimeException("Unknown argument: " + args[i]);
+            }
+        }
+    }
+
+    // With --save-state, the machine is checkpointed periodically and once finished,
+    // so an interrupted run can be picked up again with --load-state
+    private static void runHeadless() throws IOException {
+        var cpu = machine.getCpu();
+        var ppu = machine.getPpu();
+        var saveState = new SaveState();
+        long startFrames = ppu.getFrames();
+        long startCycles = cpu.getCyclesCounter();
+        long startInstructions = cpu.getInstructionsCounter();
+
+        long start = System.nanoTime();
+        while (ppu.getFrames() - startFrames < framesToRun) {
+            machine.runFrame();
+            if (rewind != null) {
+                rewind.frameCompleted(machine);
+            }
+            if (saveStatePath != null && (ppu.getFrames() - startFrames) % CHECKPOINT_INTERVAL_FRAMES == 0) {
+                saveState.save(machine, saveStatePath);
+            }
+        }
+        if (saveStatePath != null) {
+            saveState.save(machine, saveStatePath);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        long frames = ppu.getFrames() - startFrames;
+        long cycles = cpu.getCyclesCounter() - startCycles;
+        long instructions = cpu.getInstructionsCounter() - startInstructions;
+        System.out.printf("ROM:          %s%n", romFileName);
+        System.out.printf("Frames:       %d%n", frames);
+        System.out.printf("CPU cycles:   %d%n", cycles);
+        System.out.printf("Instructions: %d%n", instructions);
+        System.out.printf("Wall clock:   %.3f s%n", seconds);
+        System.out.printf("Throughput:   %.1f frames/s, %.2f M instructions/s, %.2f M cycles/s (%.1fx real time)%n",
+                frames / seconds,
+                instructions / seconds / 1_000_000,
+                cycles / seconds / 1_000_000,
+                cycles / seconds / cpuTicksPerSecond);
+
+        if (rewind != null) {
+            System.out.printf("Rewind:       %d snapshots in %d KB%n", rewind.getSnapshotCount(), rewind.getUsedBytes() / 1024);
+        }
+        if (ppuTrace != null) {
+            System.out.printf("Last %d of %d PPU events:%n", ppuTrace.size(), ppuTrace.getTotalRecorded());
+            ppuTrace.dump(System.out);
+        }
     }
 
     private static void runEmulator() {
-        ScreenUI ui = new ScreenUI("NES Emulator - " + romFileName);
+        var ppu = machine.getPpu();
+        ScreenUI ui = new ScreenUI("NES Emulator - " + romFileName, ppu.getOutput());
         ui.setVisible(true);
         ui.pack();
 
-        long clock = 0;
+        var scheduler = new FrameScheduler(FrameScheduler.NTSC_FRAME_RATE);
+        long reportedLate = 0;
+        long reportedDropped = 0;
         running = true;
         while (running) {
-//            logger.debug(String.format("Clock: %d \tFrames: %d\r", clock, PPU.frames));
-
-            var cpuCycles = CPU.executeStep();
-            PPU.executeStep(cpuCycles);
-            clock += cpuCycles;
-
-            if (clock >= cpuTicksPerFrame) {
-                clock -= cpuTicksPerFrame;
-                // read input
-                // render screen
-//                label.setIcon(new ImageIcon(PPU.render()));
-//                label.repaint();
-                ui.updateScreen(PPU.screen);
+            // While rewinding, each frame shown is replayed from a snapshot further back
+            var rewinding = rewind != null && ui.isRewindHeld() && rewind.rewind(machine);
+            // Emulate up to the start of the next vertical blank, when a frame is complete
+            machine.runFrame();
+            if (rewind != null && !rewinding) {
+                rewind.frameCompleted(machine);
+            }
+            // read input
+            // The frame is already published; presentation happens on the EDT
+            ui.frameReady();
+            scheduler.awaitNextFrame();
+
+            if (scheduler.getFrames() % PACING_REPORT_INTERVAL_FRAMES == 0
+                    && (scheduler.getLateFrames() != reportedLate || scheduler.getDroppedFrames() != reportedDropped)) {
+                logger.warn("Frame pacing: {} late and {} dropped frames in the last {}",
+                        scheduler.getLateFrames() - reportedLate, scheduler.getDroppedFrames() - reportedDropped,
+                        PACING_REPORT_INTERVAL_FRAMES);
+                reportedLate = scheduler.getLateFrames();
+                reportedDropped = scheduler.getDroppedFrames();
             }
         }
     }
@@ -0,0 +1,20 @@
+package nesemulator;
+
+// Which of the PPU's internal 1 KB nametable banks each of the four logical nametables uses
+public enum Mirroring {
+    HORIZONTAL(0, 0, 1, 1),
+    VERTICAL(0, 1, 0, 1),
+    SINGLE_SCREEN_LOWER(0, 0, 0, 0),
+    SINGLE_SCREEN_UPPER(1, 1, 1, 1),
+    FOUR_SCREEN(0, 1, 2, 3);
+
+    private final int[] banks;
+
+    Mirroring(int... banks) {
+        this.banks = banks;
+    }
+
+    public int getBank(int nameTable) {
+        return banks[nameTable];
+    }
+}
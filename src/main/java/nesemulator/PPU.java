@@ -1,14 +1,14 @@
 package nesemulator;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import nesemulator.mapper.Mapper;
 
 import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 public class PPU {
 
-    private static final Logger logger = LoggerFactory.getLogger(PPU.class);
-
     public static final int ADDRESS_PPUCTRL = 0x2000;
     public static final int ADDRESS_PPUMASK = 0x2001;
     public static final int ADDRESS_PPUSTATUS = 0x2002;
@@ -20,7 +20,18 @@ public class PPU {
     public static final int ADDRESS_OAMDMA = 0x4014;
 
     private static final int RAM_SIZE = 0x4000;
-    private static final int CPU_CYCLES_PER_FRAME = 1000; //TODO Check
+    private static final int OAM_SIZE = 0x100;
+
+    public static final int SCREEN_WIDTH = 256;
+    public static final int SCREEN_HEIGHT = 240;
+
+    // 3 PPU dots per CPU cycle, 341 dots per scanline, 262 scanlines per frame:
+    // 240 visible, 1 idle, 20 of vertical blank and the pre-render line
+    private static final int DOTS_PER_CPU_CYCLE = 3;
+    private static final int DOTS_PER_SCANLINE = 341;
+    private static final int VBLANK_SCANLINE = 241;
+    private static final int PRE_RENDER_SCANLINE = 261;
+    private static final int SCANLINES_PER_FRAME = 262;
 
     //$0000-$0FFF 	$1000 	Pattern table 0
     //$1000-$1FFF 	$1000 	Pattern table 1
@@ -73,11 +84,14 @@ public class PPU {
     private static final int INTADDR_SPRITE_PALETTE_3_END = 0x3F1F;
     private static final int INTADDR_PALETTE_RAM_END = 0x3F1F;
 
+    private static final int VRAM_PAGE_SHIFT = 10;
+    private static final int VRAM_PAGE_MASK = 0x3FF;
+
     private static final int CONTROL_BIT_NMI_ENABLE = 7;
     private static final int CONTROL_BIT_PPU_MASTER_SLAVE = 6;
-    private static final int CONTROL_BIT_SPRITE_HEIGHT = 5;
-    private static final int CONTROL_BIT_BACKGROUND_TILE_SELECT = 4;
-    private static final int CONTROL_BIT_SPRITE_TILE_SELECT = 3;
+    static final int CONTROL_BIT_SPRITE_HEIGHT = 5;
+    static final int CONTROL_BIT_BACKGROUND_TILE_SELECT = 4;
+    static final int CONTROL_BIT_SPRITE_TILE_SELECT = 3;
     private static final int CONTROL_BIT_INCREMENT_MODE = 2;
     private static final int CONTROL_BIT_NAME_TABLE_ADDRESS_1 = 1;
     private static final int CONTROL_BIT_NAME_TABLE_ADDRESS_2 = 0;
@@ -85,45 +99,135 @@ public class PPU {
     private static final int MASK_BIT_EMPHASIZE_BLUE = 7;
     private static final int MASK_BIT_EMPHASIZE_GREEN = 6;
     private static final int MASK_BIT_EMPHASIZE_RED = 5;
-    private static final int MASK_BIT_SHOW_SPRITES = 4;
-    private static final int MASK_BIT_SHOW_BACKGROUND = 3;
-    private static final int MASK_BIT_SHOW_SPRITES_LEFMOST = 2;
-    private static final int MASK_BIT_SHOW_BACKGROUND_LEFMOST = 1;
+    static final int MASK_BIT_SHOW_SPRITES = 4;
+    static final int MASK_BIT_SHOW_BACKGROUND = 3;
+    static final int MASK_BIT_SHOW_SPRITES_LEFMOST = 2;
+    static final int MASK_BIT_SHOW_BACKGROUND_LEFMOST = 1;
     private static final int MASK_BIT_GREYSCALE = 0;
 
     private static final int STATUS_BIT_VBLANK = 7;
-    private static final int STATUS_SPRITE_0_HIT = 6;
-    private static final int STATUS_SPRITE_OVERFLOW = 5;
-
-    static int[] ram;
-
-    static byte control;
-    static byte oamAddress;
-    static byte mask;
-    static byte status;
-    static byte oamData;
-    static byte scrollX;
-    static byte scrollY;
-    static int address;
-
-    static long frames;
-
-    protected static boolean scrollClean;
-    protected static boolean addressClean;
-    protected static int clock;
-    public static BufferedImage screen;
+    static final int STATUS_SPRITE_0_HIT = 6;
+    static final int STATUS_SPRITE_OVERFLOW = 5;
+
+    // 1 KB pages, any of which may be shared with a forked PPU until one side writes it
+    int[][] ram;
+    private final boolean[] sharedPages = new boolean[RAM_SIZE >> VRAM_PAGE_SHIFT];
+    int[] oam;
+
+    // Pattern tables and nametables are resolved through 1 KB pages, so mappers can
+    // switch CHR banks and mirroring by repointing entries instead of copying data
+    private final int[][] chrPages = new int[8][];
+    private final int[] chrOffsets = new int[8];
+    private final boolean[] chrWritable = new boolean[8];
+    // Decoded rows of whatever each pattern page points at; the renderer only reads these
+    private final int[][] decodedPages = new int[8][];
+    private final PatternCache patternCache;
+    // RAM page each nametable is mirrored onto
+    private final int[] nameTableBanks = new int[4];
+
+    byte control;
+    byte oamAddress;
+    byte mask;
+    byte status;
+    byte oamData;
+    byte scrollX;
+    byte scrollY;
+    int address;
+
+    long frames;
+
+    protected boolean scrollClean;
+    protected boolean addressClean;
+    int scanline;
+    int dot;
+    // CPU cycle the PPU has been advanced to
+    long cycle;
+    private boolean nmiPending;
+    private Mapper mapper;
+    private Scheduler scheduler;
+    private int nmiEvent;
+    private PPUTrace trace;
+
+    // The renderer writes straight into the back image's own pixel array, which is handed
+    // over to presentation when vertical blank starts, so frames are never copied. None of
+    // the buffers down to bandRenderers is machine state: a fork makes its own on first use.
+    private TripleBuffer output;
+    private int[] frameBuffer;
+    // Last completed frame, for the emulation thread; other threads acquire frames from
+    // getOutput(). Null in a fork until it draws its first line.
+    public BufferedImage screen;
+
+    // Each visible line's registers and banks, captured as the line ends
+    private ScanlineState[] lineStates;
+    private ScanlineRenderer renderer;
+    // One renderer per parallel band, by the band's first line, kept from frame to frame
+    private ScanlineRenderer[] bandRenderers;
+    // When set, lines are only captured during the frame and drawn in parallel at vertical blank
+    private ForkJoinPool renderPool;
+
+    public PPU() {
+        patternCache = new PatternCache();
+        createRenderBuffers();
+        initialize();
+    }
 
-    private static long framesRendered;
+    // Starts out in the parent's state, sharing its RAM pages and decoded patterns. Neither
+    // side writes a shared page in place: the first write to it copies the page.
+    private PPU(PPU parent) {
+        patternCache = parent.patternCache.copy();
+        ram = parent.ram.clone();
+        Arrays.fill(sharedPages, true);
+        Arrays.fill(parent.sharedPages, true);
+        oam = parent.oam.clone();
+        System.arraycopy(parent.chrPages, 0, chrPages, 0, chrPages.length);
+        System.arraycopy(parent.chrOffsets, 0, chrOffsets, 0, chrOffsets.length);
+        System.arraycopy(parent.chrWritable, 0, chrWritable, 0, chrWritable.length);
+        System.arraycopy(parent.decodedPages, 0, decodedPages, 0, decodedPages.length);
+        System.arraycopy(parent.nameTableBanks, 0, nameTableBanks, 0, nameTableBanks.length);
+        control = parent.control;
+        oamAddress = parent.oamAddress;
+        mask = parent.mask;
+        status = parent.status;
+        oamData = parent.oamData;
+        scrollX = parent.scrollX;
+        scrollY = parent.scrollY;
+        address = parent.address;
+        frames = parent.frames;
+        scrollClean = parent.scrollClean;
+        addressClean = parent.addressClean;
+        scanline = parent.scanline;
+        dot = parent.dot;
+        cycle = parent.cycle;
+        nmiPending = parent.nmiPending;
+    }
 
-    //- 341 PPU cycles per line;
-    //- 262 lines;
-    //- 60 frames per second.
+    // The mapper, scheduler, trace and render pool are not carried over
+    PPU fork() {
+        return new PPU(this);
+    }
 
-    private PPU() {
+    private void createRenderBuffers() {
+        output = new TripleBuffer(SCREEN_WIDTH, SCREEN_HEIGHT);
+        frameBuffer = output.getBackPixels();
+        screen = output.getPublished();
+        lineStates = new ScanlineState[SCREEN_HEIGHT];
+        for (int line = 0; line < lineStates.length; line++) {
+            lineStates[line] = new ScanlineState();
+        }
+        renderer = new ScanlineRenderer(this);
+        bandRenderers = new ScanlineRenderer[SCREEN_HEIGHT];
     }
 
-    public static void initialize() {
-        ram = new int[RAM_SIZE];
+    public void initialize() {
+        ram = new int[RAM_SIZE >> VRAM_PAGE_SHIFT][VRAM_PAGE_MASK + 1];
+        Arrays.fill(sharedPages, false);
+        oam = new int[OAM_SIZE];
+        mapper = null;
+        patternCache.clear();
+        for (int page = 0; page < chrPages.length; page++) {
+            mapCHR(page << VRAM_PAGE_SHIFT, VRAM_PAGE_MASK + 1, ram[page], 0, true);
+        }
+        setMirroring(Mirroring.FOUR_SCREEN);
         control = (byte) 0b00000000;
         oamAddress = (byte) 0b00000000;
         oamData = (byte) 0b00000000;
@@ -134,32 +238,184 @@ public class PPU {
         address = 0x00;
         scrollClean = true;
         addressClean = true;
+        frames = 0;
+        scanline = 0;
+        dot = 0;
+        cycle = 0;
+        nmiPending = false;
+    }
+
+    // NMIs are scheduled as this event, so they are serviced at the next instruction boundary
+    public void attachScheduler(Scheduler scheduler, int nmiEvent) {
+        this.scheduler = scheduler;
+        this.nmiEvent = nmiEvent;
     }
 
-    private static final int framesPerSecond = 60;
-    private static final long ticksPerSecond = 5_369_318;
-    private static final long ticksPerFrame = ticksPerSecond / framesPerSecond;
+    public void setMapper(Mapper mapper) {
+        this.mapper = mapper;
+    }
+
+    // Memory, registers, latches and timing; bank mappings come back with the mapper's state
+    public void saveState(ByteBuffer buffer) {
+        for (int[] page : ram) {
+            for (int value : page) {
+                buffer.put((byte) value);
+            }
+        }
+        for (int value : oam) {
+            buffer.put((byte) value);
+        }
+        buffer.put(control).put(mask).put(status).put(oamAddress).put(oamData).put(scrollX).put(scrollY);
+        buffer.putShort((short) address);
+        buffer.put((byte) ((scrollClean ? 1 : 0) | (addressClean ? 2 : 0) | (nmiPending ? 4 : 0)));
+        buffer.putShort((short) scanline).putShort((short) dot);
+        buffer.putLong(cycle).putLong(frames);
+    }
 
-    private static int vblankCycles = 0;
-    private static boolean vblanking = false;
-    public static void executeStep(int cpuCycles) {
-        clock += cpuCycles;
-        if (vblanking) {
-            vblankCycles += cpuCycles;
-            if (vblankCycles >= 2273) {
-                unsetVBlank();
+    public void loadState(ByteBuffer buffer) {
+        for (int page = 0; page < ram.length; page++) {
+            var data = writablePage(page);
+            for (int i = 0; i < data.length; i++) {
+                data[i] = buffer.get() & 0xFF;
             }
         }
-        if (clock >= CPU_CYCLES_PER_FRAME) {
-            clock = 0;
-            BufferedImage backBuffer = render();
-            screen = backBuffer;
+        for (int i = 0; i < oam.length; i++) {
+            oam[i] = buffer.get() & 0xFF;
+        }
+        control = buffer.get();
+        mask = buffer.get();
+        status = buffer.get();
+        oamAddress = buffer.get();
+        oamData = buffer.get();
+        scrollX = buffer.get();
+        scrollY = buffer.get();
+        address = buffer.getShort() & 0xFFFF;
+        int flags = buffer.get();
+        scrollClean = (flags & 1) != 0;
+        addressClean = (flags & 2) != 0;
+        nmiPending = (flags & 4) != 0;
+        scanline = buffer.getShort();
+        dot = buffer.getShort();
+        cycle = buffer.getLong();
+        frames = buffer.getLong();
+    }
+
+    // Moves every pattern page on a mapper's CHR RAM over to its fresh copy, along with the
+    // decoded rows, which are copied rather than decoded again
+    public void repointCHR(int[] original, int[] copy) {
+        for (int page = 0; page < chrPages.length; page++) {
+            if (chrPages[page] == original) {
+                chrPages[page] = copy;
+                decodedPages[page] = patternCache.copyDecoded(original, copy);
+            }
+        }
+    }
+
+    // Pattern memory may have been rewritten behind the cache's back, by a state load
+    void refreshPatterns() {
+        patternCache.clear();
+        for (int page = 0; page < chrPages.length; page++) {
+            decodedPages[page] = patternCache.decodedFor(chrPages[page]);
+        }
+    }
+
+    // Records register and VRAM accesses into the given trace; null turns tracing off
+    public void setTrace(PPUTrace trace) {
+        this.trace = trace;
+    }
+
+    // Null draws every line as it ends, on the emulation thread
+    public void setParallelRendering(ForkJoinPool pool) {
+        this.renderPool = pool;
+    }
+
+    // Only ever called by the one task drawing the band, so creating it on first use is safe
+    ScanlineRenderer bandRenderer(int firstLine) {
+        if (bandRenderers[firstLine] == null) {
+            bandRenderers[firstLine] = new ScanlineRenderer(this);
+        }
+        return bandRenderers[firstLine];
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    public void executeStep(int cpuCycles) {
+        cycle += cpuCycles;
+        dot += cpuCycles * DOTS_PER_CPU_CYCLE;
+        while (dot >= DOTS_PER_SCANLINE) {
+            dot -= DOTS_PER_SCANLINE;
+            finishScanline();
+        }
+    }
+
+    // Advances the PPU to the given CPU cycle
+    public void runUntil(long cpuCycle) {
+        if (cpuCycle > cycle) {
+            executeStep((int) (cpuCycle - cycle));
+        }
+    }
+
+    // First CPU cycle at which the current scanline is complete
+    public long getNextScanlineCycle() {
+        return cycle + toCPUCycles(DOTS_PER_SCANLINE - dot);
+    }
+
+    // First CPU cycle at which the PPU must be advanced even if the CPU never touches it:
+    // the start of vertical blank, or the end of every line while a mapper counts scanlines.
+    // Anything else can wait until a register access catches the PPU up.
+    public long getNextEventCycle() {
+        if (mapper != null && mapper.countsScanlines()) {
+            return getNextScanlineCycle();
+        }
+        var position = scanline * DOTS_PER_SCANLINE + dot;
+        var vblankStart = VBLANK_SCANLINE * DOTS_PER_SCANLINE;
+        var dots = position < vblankStart
+                ? vblankStart - position
+                : SCANLINES_PER_FRAME * DOTS_PER_SCANLINE - position + vblankStart;
+        return cycle + toCPUCycles(dots);
+    }
+
+    private static int toCPUCycles(int dots) {
+        return (dots + DOTS_PER_CPU_CYCLE - 1) / DOTS_PER_CPU_CYCLE;
+    }
+
+    // Returns whether an NMI was raised since the last call, clearing it
+    public boolean pollNMI() {
+        var pending = nmiPending;
+        nmiPending = false;
+        return pending;
+    }
+
+    private void finishScanline() {
+        if (scanline < SCREEN_HEIGHT) {
+            renderScanline(scanline);
+        }
+        if (mapper != null && isRenderingEnabled() && (scanline < SCREEN_HEIGHT || scanline == PRE_RENDER_SCANLINE)) {
+            mapper.clockScanline();
+        }
+        scanline++;
+        if (scanline == VBLANK_SCANLINE) {
+            frames++;
+            renderDeferredLines();
+            publishFrame();
             setVBlank();
+            if (isBitSet(control, CONTROL_BIT_NMI_ENABLE)) {
+                raiseNMI();
+            }
+        } else if (scanline == PRE_RENDER_SCANLINE) {
+            unsetVBlank();
+            status &= ~((1 << STATUS_SPRITE_0_HIT) | (1 << STATUS_SPRITE_OVERFLOW));
+        } else if (scanline == SCANLINES_PER_FRAME) {
+            scanline = 0;
         }
     }
 
-    public static void write(int address, byte data) {
-        logger.info(String.format("PPU WRITTEN: $%04X 0x%04X (%s)", address, data, intToByteBinary(data)));
+    public void write(int address, byte data) {
+        if (trace != null) {
+            trace.record(PPUTrace.REGISTER_WRITE, frames, scanline, dot, address, data);
+        }
         switch (address) {
             case ADDRESS_PPUCTRL:
                 writeControl(data);
@@ -182,27 +438,31 @@ public class PPU {
             case ADDRESS_PPUDATA:
                 writePPUData(data);
                 break;
-            case ADDRESS_OAMDMA:
-                writeOAMDMA(data);
             default:
                 throw new UnsupportedOperationException(String.format("You cannot write address $%04X on PPU", address));
         }
     }
 
-    public static byte read(final int address) {
-        logger.info(String.format("PPU READ: $%04X", address));
+    public byte read(final int address) {
+        byte value;
         switch (address) {
             case ADDRESS_PPUSTATUS:
-                return readStatus();
+                value = readStatus();
+                break;
             case ADDRESS_OAMDATA:
-                return oamData;
+                value = oamData;
+                break;
             // TODO case ADDRESS_PPUDATA: writePPUData(data);
             default:
                 throw new UnsupportedOperationException(String.format("You cannot read address $%04X on PPU", address));
         }
+        if (trace != null) {
+            trace.record(PPUTrace.REGISTER_READ, frames, scanline, dot, address, value);
+        }
+        return value;
     }
 
-    public static byte inspect(final int address) {
+    public byte inspect(final int address) {
         switch (address) {
             case ADDRESS_PPUCTRL:
                 return control;
@@ -219,49 +479,118 @@ public class PPU {
         }
     }
 
-    public static BufferedImage render() {
-        framesRendered++;
-        BufferedImage buffer = new BufferedImage(256, 240, BufferedImage.TYPE_3BYTE_BGR);
-        buffer.getGraphics().drawString("NOT REALLY RENDERING: " + framesRendered, 30, 30);
-        buffer.getGraphics().drawString(String.format("Nametable: $%04X", getBaseNameTableAddress()), 30, 60);
-//        logger.info(Arrays.toString(ram));
+    public int inspectVRAM(final int vramAddress) {
+        return readVRAM(vramAddress);
+    }
+
+    // Renders the whole frame from the current state, without waiting for the scanlines to elapse
+    public BufferedImage render() {
+        for (int line = 0; line < SCREEN_HEIGHT; line++) {
+            renderScanline(line);
+        }
+        renderDeferredLines();
+        publishFrame();
+        return screen;
+    }
+
+    // ARGB pixels of the last completed frame, row by row
+    public int[] getScreenPixels() {
+        return getOutput().getPublishedPixels();
+    }
+
+    public TripleBuffer getOutput() {
+        if (output == null) {
+            createRenderBuffers();
+        }
+        return output;
+    }
+
+    private void publishFrame() {
+        getOutput().publish();
+        screen = output.getPublished();
+        frameBuffer = output.getBackPixels();
+    }
 
-        return buffer;
+    private boolean isRenderingEnabled() {
+        return isBitSet(mask, MASK_BIT_SHOW_BACKGROUND) || isBitSet(mask, MASK_BIT_SHOW_SPRITES);
     }
 
-    private static void setVBlank() {
+    // Scanlines are drawn as a batch from the registers as they stand when the line ends,
+    // so mid-line register writes land on the next line instead of the exact dot
+    private void renderScanline(int line) {
+        var state = captureScanline(line);
+        if (renderPool == null || ScanlineRenderer.canHitSprite0(state, line, oam)) {
+            status |= renderer.render(state, line, frameBuffer);
+            state.rendered = true;
+        } else {
+            status |= ScanlineRenderer.spriteOverflow(state, line, oam);
+            state.rendered = false;
+        }
+    }
+
+    private ScanlineState captureScanline(int line) {
+        if (lineStates == null) {
+            createRenderBuffers();
+        }
+        var state = lineStates[line];
+        state.control = control;
+        state.mask = mask;
+        state.scrollX = scrollX;
+        state.scrollY = scrollY;
+        System.arraycopy(decodedPages, 0, state.decodedPages, 0, decodedPages.length);
+        System.arraycopy(chrOffsets, 0, state.chrOffsets, 0, chrOffsets.length);
+        System.arraycopy(nameTableBanks, 0, state.nameTableBanks, 0, nameTableBanks.length);
+        return state;
+    }
+
+    // Draws the lines left for the pool; nametables, palette, pattern RAM and OAM are read
+    // as they stand at vertical blank, only registers and bank mappings are per line
+    private void renderDeferredLines() {
+        if (renderPool != null && lineStates != null) {
+            renderPool.invoke(new ParallelRenderTask(this, lineStates, frameBuffer, 0, SCREEN_HEIGHT));
+        }
+    }
+
+    private void setVBlank() {
         status |= 1 << STATUS_BIT_VBLANK;
     }
 
-    private static void unsetVBlank() {
+    private void unsetVBlank() {
         status &= ~(1 << STATUS_BIT_VBLANK);
     }
 
-    private static byte readStatus() {
-        // TODO: status manipulation by reading this address (reset flags, etc)
+    private byte readStatus() {
         var originalStatus = status;
         unsetVBlank();
+        scrollClean = true;
+        addressClean = true;
         return originalStatus;
     }
 
-    private static void writeControl(byte data) {
-        readStatus();
+    private void writeControl(byte data) {
+        // Enabling NMI while already in vertical blank raises one straight away
+        if (!isBitSet(control, CONTROL_BIT_NMI_ENABLE) && isBitSet(data, CONTROL_BIT_NMI_ENABLE)
+                && isBitSet(status, STATUS_BIT_VBLANK)) {
+            raiseNMI();
+        }
         control = data;
     }
 
-    private static void writeOAMData(byte data) {
-        oamData = data;
-        oamAddress++;
+    private void raiseNMI() {
+        nmiPending = true;
+        if (scheduler != null) {
+            scheduler.schedule(nmiEvent, cycle);
+        }
     }
 
-    private static void writeOAMDMA(byte data) {
-        logger.info("Write OAM DMA");
-        // TODO: write OAM DMA data
-//        oamData = data;
-//        oamAddress++;
+    // Also the target of OAM DMA, which copies a whole CPU page through here
+    void writeOAMData(byte data) {
+        oamData = data;
+        oam[oamAddress & 0xFF] = data & 0xFF;
+        oamAddress++;
     }
 
-    private static void writeScroll(byte data) {
+    private void writeScroll(byte data) {
         if (scrollClean) {
             scrollX = data;
             scrollClean = false;
@@ -271,26 +600,104 @@ public class PPU {
         }
     }
 
-    private static void writeAddress(byte data) {
+    private void writeAddress(byte data) {
         if (addressClean) {
-            logger.info(String.format("[PPU] Upper address set: $%04X", data));
             address = (data << 8) & 0xFF00;
             addressClean = false;
         } else {
-            logger.info(String.format("[PPU] Lower address set: $%04X", data));
             address += data & 0xFF;
             addressClean = true;
         }
     }
 
-    private static void writePPUData(byte data) {
-        logger.info(String.format("[PPU] Data writtern: $%04X", data));
+    private void writePPUData(byte data) {
+        if (trace != null) {
+            trace.record(PPUTrace.VRAM_WRITE, frames, scanline, dot, address, data);
+        }
         int increment = isBitSet(control, CONTROL_BIT_INCREMENT_MODE) ? 32 : 1;
-        ram[address] = data & 0xFF;
+        writeVRAM(address, data & 0xFF);
         address += increment;
     }
 
-    protected static int getBaseNameTableAddress() {
+    public void mapCHR(int chrAddress, int size, int[] data, int offset, boolean writable) {
+        for (int i = 0; i < size >> VRAM_PAGE_SHIFT; i++) {
+            int page = (chrAddress >> VRAM_PAGE_SHIFT) + i;
+            chrPages[page] = data;
+            chrOffsets[page] = offset + (i << VRAM_PAGE_SHIFT);
+            chrWritable[page] = writable;
+            decodedPages[page] = patternCache.decodedFor(data);
+        }
+    }
+
+    public void setMirroring(Mirroring mirroring) {
+        for (int nameTable = 0; nameTable < nameTableBanks.length; nameTable++) {
+            nameTableBanks[nameTable] = (INTADDR_NAME_TABLE_0_START >> VRAM_PAGE_SHIFT) + mirroring.getBank(nameTable);
+        }
+    }
+
+    int readVRAM(int vramAddress) {
+        vramAddress &= 0x3FFF;
+        if (vramAddress <= INTADDR_PATTERN_TABLE_1_END) {
+            int page = vramAddress >> VRAM_PAGE_SHIFT;
+            return chrPages[page][chrOffsets[page] + (vramAddress & VRAM_PAGE_MASK)];
+        }
+        if (vramAddress < INTADDR_PALETTE_RAM_START) {
+            return ram[nameTableBanks[(vramAddress >> VRAM_PAGE_SHIFT) & 0b11]][vramAddress & VRAM_PAGE_MASK];
+        }
+        vramAddress = getPaletteAddress(vramAddress);
+        return ram[vramAddress >> VRAM_PAGE_SHIFT][vramAddress & VRAM_PAGE_MASK];
+    }
+
+    void writeVRAM(int vramAddress, int value) {
+        vramAddress &= 0x3FFF;
+        if (vramAddress <= INTADDR_PATTERN_TABLE_1_END) {
+            int page = vramAddress >> VRAM_PAGE_SHIFT;
+            if (chrWritable[page]) {
+                if (chrPages[page] == ram[page]) {
+                    writablePage(page);
+                } else if (mapper != null) {
+                    mapper.beforeCHRWrite();
+                }
+                var index = chrOffsets[page] + (vramAddress & VRAM_PAGE_MASK);
+                chrPages[page][index] = value;
+                PatternCache.update(decodedPages[page], chrPages[page], index);
+            }
+        } else if (vramAddress < INTADDR_PALETTE_RAM_START) {
+            writablePage(nameTableBanks[(vramAddress >> VRAM_PAGE_SHIFT) & 0b11])[vramAddress & VRAM_PAGE_MASK] = value;
+        } else {
+            vramAddress = getPaletteAddress(vramAddress);
+            writablePage(vramAddress >> VRAM_PAGE_SHIFT)[vramAddress & VRAM_PAGE_MASK] = value;
+        }
+    }
+
+    // Copies a page still shared with a fork before its first write. Pattern pages mapped
+    // onto PPU RAM (when there is no cart) follow the copy, along with their decoded rows.
+    private int[] writablePage(int page) {
+        if (sharedPages[page]) {
+            var original = ram[page];
+            var copy = original.clone();
+            ram[page] = copy;
+            sharedPages[page] = false;
+            for (int chrPage = 0; chrPage < chrPages.length; chrPage++) {
+                if (chrPages[chrPage] == original) {
+                    chrPages[chrPage] = copy;
+                    decodedPages[chrPage] = patternCache.copyDecoded(original, copy);
+                }
+            }
+        }
+        return ram[page];
+    }
+
+    // $3F10/$3F14/$3F18/$3F1C mirror the backdrop entries at $3F00/$3F04/$3F08/$3F0C
+    private static int getPaletteAddress(int vramAddress) {
+        int index = vramAddress & 0x1F;
+        if ((index & 0b10011) == 0b10000) {
+            index &= 0x0F;
+        }
+        return INTADDR_PALETTE_RAM_START + index;
+    }
+
+    protected int getBaseNameTableAddress() {
         switch (control & 0b11) {
             case 0:
                 return INTADDR_NAME_TABLE_0_START;
@@ -306,8 +713,4 @@ public class PPU {
     protected static boolean isBitSet(byte value, int bitIndex) {
         return ((value & 0xff) & (1 << (bitIndex))) > 0;
     }
-
-    private static String intToByteBinary(int value) {
-        return String.format("%8s", Integer.toBinaryString(value & 0xFF)).replace(' ', '0');
-    }
 }
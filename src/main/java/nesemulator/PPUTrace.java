@@ -0,0 +1,99 @@
+package nesemulator;
+
+import java.io.PrintStream;
+
+// Ring buffer of the most recent PPU events. Each event is packed into a single long,
+// so recording is a couple of shifts and an array store; nothing is formatted until dumped.
+public class PPUTrace {
+
+    public static final int REGISTER_WRITE = 0;
+    public static final int REGISTER_READ = 1;
+    public static final int VRAM_WRITE = 2;
+
+    private static final String[] TYPE_NAMES = {"WRITE", "READ", "VRAM"};
+
+    // Record layout, from the lowest bit:
+    // value (8) | address (16) | type (4) | dot (9) | scanline (9) | frame (18, wrapping)
+    private static final int ADDRESS_SHIFT = 8;
+    private static final int TYPE_SHIFT = 24;
+    private static final int DOT_SHIFT = 28;
+    private static final int SCANLINE_SHIFT = 37;
+    private static final int FRAME_SHIFT = 46;
+
+    private final long[] records;
+    private final int mask;
+    private long count;
+
+    public PPUTrace(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(String.format("Trace capacity must be a power of two, got %d", capacity));
+        }
+        records = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    void record(int type, long frame, int scanline, int dot, int address, int value) {
+        records[(int) (count++ & mask)] = (value & 0xFF)
+                | (long) (address & 0xFFFF) << ADDRESS_SHIFT
+                | (long) type << TYPE_SHIFT
+                | (long) dot << DOT_SHIFT
+                | (long) scanline << SCANLINE_SHIFT
+                | frame << FRAME_SHIFT;
+    }
+
+    // Number of events currently held, at most the capacity
+    public int size() {
+        return (int) Math.min(count, records.length);
+    }
+
+    public long getTotalRecorded() {
+        return count;
+    }
+
+    // Events are indexed from the oldest one still held
+    public long get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("No trace record at %d (size %d)", index, size()));
+        }
+        return records[(int) ((count - size() + index) & mask)];
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    public void dump(PrintStream out) {
+        for (int i = 0; i < size(); i++) {
+            out.println(format(get(i)));
+        }
+    }
+
+    public static String format(long record) {
+        return String.format("%5d %3d:%3d %-5s $%04X = $%02X", frameOf(record), scanlineOf(record), dotOf(record),
+                TYPE_NAMES[typeOf(record)], addressOf(record), valueOf(record));
+    }
+
+    public static int valueOf(long record) {
+        return (int) (record & 0xFF);
+    }
+
+    public static int addressOf(long record) {
+        return (int) (record >>> ADDRESS_SHIFT) & 0xFFFF;
+    }
+
+    public static int typeOf(long record) {
+        return (int) (record >>> TYPE_SHIFT) & 0xF;
+    }
+
+    public static int dotOf(long record) {
+        return (int) (record >>> DOT_SHIFT) & 0x1FF;
+    }
+
+    public static int scanlineOf(long record) {
+        return (int) (record >>> SCANLINE_SHIFT) & 0x1FF;
+    }
+
+    public static long frameOf(long record) {
+        return record >>> FRAME_SHIFT;
+    }
+}
@@ -0,0 +1,77 @@
+package nesemulator;
+
+// The 2C02 master palette: palette RAM holds 6-bit indexes into this table
+final class Palette {
+
+    static final int SIZE = 64;
+
+    // PPUMASK bit 0 turns greyscale on, bits 5-7 emphasize red, green and blue
+    private static final int MASK_GREYSCALE = 0b00000001;
+    private static final int MASK_EMPHASIS = 0b11100000;
+    private static final int EMPHASIS_SHIFT = 5;
+    private static final int GREYSCALE_INDEX_MASK = 0x30;
+    // Channels not being emphasized are dimmed by this much
+    private static final double EMPHASIS_ATTENUATION = 0.816328;
+
+    private static final int[] RGB = {
+            0x666666, 0x002A88, 0x1412A7, 0x3B00A4, 0x5C007E, 0x6E0040, 0x6C0600, 0x561D00,
+            0x333500, 0x0B4800, 0x005200, 0x004F08, 0x00404D, 0x000000, 0x000000, 0x000000,
+            0xADADAD, 0x155FD9, 0x4240FF, 0x7527FE, 0xA01ACC, 0xB71E7B, 0xB53120, 0x994E00,
+            0x6B6D00, 0x388700, 0x0C9300, 0x008F32, 0x007C8D, 0x000000, 0x000000, 0x000000,
+            0xFFFEFF, 0x64B0FF, 0x9290FF, 0xC676FF, 0xF36AFF, 0xFE6ECC, 0xFE8170, 0xEA9E22,
+            0xBCBE00, 0x88D800, 0x5CE430, 0x45E082, 0x48CDDE, 0x4F4F4F, 0x000000, 0x000000,
+            0xFFFEFF, 0xC0DFFF, 0xD3D2FF, 0xE8C8FF, 0xFBC2FF, 0xFEC4EA, 0xFECCC5, 0xF7D8A5,
+            0xE4E594, 0xCFEF96, 0xBDF4AB, 0xB3F3CC, 0xB5EBF2, 0xB8B8B8, 0x000000, 0x000000,
+    };
+
+    // One opaque ARGB table per greyscale and emphasis combination, indexed by variant()
+    private static final int[][] VARIANTS = buildVariants();
+
+    private Palette() {
+    }
+
+    // Opaque, so the same pixels suit both TYPE_INT_RGB images and ARGB consumers
+    static int toARGB(int colorIndex) {
+        return VARIANTS[0][colorIndex & (SIZE - 1)];
+    }
+
+    // The ARGB table for the greyscale and emphasis bits of the given PPUMASK value
+    static int[] forMask(int mask) {
+        return VARIANTS[variant(mask)];
+    }
+
+    private static int variant(int mask) {
+        return ((mask & MASK_EMPHASIS) >> (EMPHASIS_SHIFT - 1)) | (mask & MASK_GREYSCALE);
+    }
+
+    private static int[][] buildVariants() {
+        var variants = new int[(MASK_EMPHASIS >> (EMPHASIS_SHIFT - 1)) + 2][SIZE];
+        for (int mask = 0; mask < 0x100; mask += 1 << EMPHASIS_SHIFT) {
+            for (int greyscale = 0; greyscale <= MASK_GREYSCALE; greyscale++) {
+                var table = variants[variant(mask | greyscale)];
+                for (int index = 0; index < SIZE; index++) {
+                    var source = greyscale != 0 ? index & GREYSCALE_INDEX_MASK : index;
+                    table[index] = 0xFF000000 | emphasize(RGB[source], mask >> EMPHASIS_SHIFT);
+                }
+            }
+        }
+        return variants;
+    }
+
+    // Emphasis bits are red, green, blue from the lowest; every channel not emphasized is dimmed
+    private static int emphasize(int rgb, int emphasis) {
+        if (emphasis == 0) {
+            return rgb;
+        }
+        var result = 0;
+        for (int channel = 0; channel < 3; channel++) {
+            var shift = 16 - (channel << 3);
+            var value = (rgb >> shift) & 0xFF;
+            if ((emphasis & (1 << channel)) == 0) {
+                value = (int) Math.round(value * EMPHASIS_ATTENUATION);
+            }
+            result |= value << shift;
+        }
+        return result;
+    }
+}
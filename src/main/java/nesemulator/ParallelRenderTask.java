@@ -0,0 +1,40 @@
+package nesemulator;
+
+import java.util.concurrent.RecursiveAction;
+
+// Draws the lines of a frame that were captured but not drawn during emulation,
+// splitting them into bands that each get their own ScanlineRenderer from the PPU
+@SuppressWarnings("serial") // Fork/join tasks are never serialized, RecursiveAction just happens to be Serializable
+final class ParallelRenderTask extends RecursiveAction {
+    private static final int LINES_PER_BAND = 16;
+
+    private final PPU ppu;
+    private final ScanlineState[] states;
+    private final int[] frameBuffer;
+    private final int from;
+    private final int to;
+
+    ParallelRenderTask(PPU ppu, ScanlineState[] states, int[] frameBuffer, int from, int to) {
+        this.ppu = ppu;
+        this.states = states;
+        this.frameBuffer = frameBuffer;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= LINES_PER_BAND) {
+            var renderer = ppu.bandRenderer(from);
+            for (int line = from; line < to; line++) {
+                if (!states[line].rendered) {
+                    renderer.render(states[line], line, frameBuffer);
+                }
+            }
+            return;
+        }
+        var middle = (from + to) >>> 1;
+        invokeAll(new ParallelRenderTask(ppu, states, frameBuffer, from, middle),
+                new ParallelRenderTask(ppu, states, frameBuffer, middle, to));
+    }
+}
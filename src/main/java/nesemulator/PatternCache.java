@@ -0,0 +1,77 @@
+package nesemulator;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Pattern tables pre-decoded one tile row per int. The low 16 bits hold the row's eight
+// 2-bit pixels, leftmost in the highest pair; the high 16 bits hold the same row mirrored,
+// for horizontally flipped sprites. Each CHR array (ROM, CHR RAM or the PPU's own RAM) is
+// decoded once, when first mapped, so bank switches only repoint at an existing cache.
+final class PatternCache {
+
+    static final int FLIPPED_SHIFT = 16;
+
+    private final Map<int[], int[]> decoded = new IdentityHashMap<>();
+
+    int[] decodedFor(int[] chr) {
+        return decoded.computeIfAbsent(chr, PatternCache::decode);
+    }
+
+    void clear() {
+        decoded.clear();
+    }
+
+    // A cache for a forked PPU, sharing every decoded array with this one
+    PatternCache copy() {
+        var copy = new PatternCache();
+        copy.decoded.putAll(decoded);
+        return copy;
+    }
+
+    // Decoded rows for copy, a fresh copy of chr, without decoding it again
+    int[] copyDecoded(int[] chr, int[] copy) {
+        var rows = decoded.get(copy);
+        if (rows == null) {
+            rows = decodedFor(chr).clone();
+            decoded.put(copy, rows);
+        }
+        return rows;
+    }
+
+    // Index of the decoded row holding the given CHR byte, from either bit plane
+    static int rowIndex(int chrIndex) {
+        return ((chrIndex >> 4) << 3) | (chrIndex & 0b111);
+    }
+
+    // Re-decodes the single row a write to chr[chrIndex] touched
+    static void update(int[] decodedRows, int[] chr, int chrIndex) {
+        var lowPlane = chrIndex & ~0b1000;
+        decodedRows[rowIndex(chrIndex)] = decodeRow(chr[lowPlane], chr[lowPlane + 8]);
+    }
+
+    // Pixel x (0 being leftmost) of a decoded row
+    static int pixel(int row, int x) {
+        return (row >>> ((7 - x) << 1)) & 0b11;
+    }
+
+    private static int[] decode(int[] chr) {
+        var rows = new int[chr.length >> 1];
+        for (int tile = 0; tile + 16 <= chr.length; tile += 16) {
+            for (int row = 0; row < 8; row++) {
+                rows[rowIndex(tile + row)] = decodeRow(chr[tile + row], chr[tile + row + 8]);
+            }
+        }
+        return rows;
+    }
+
+    static int decodeRow(int low, int high) {
+        var normal = 0;
+        var flipped = 0;
+        for (int x = 0; x < 8; x++) {
+            var pixel = ((low >> (7 - x)) & 1) | (((high >> (7 - x)) & 1) << 1);
+            normal |= pixel << ((7 - x) << 1);
+            flipped |= pixel << (x << 1);
+        }
+        return normal | flipped << FLIPPED_SHIFT;
+    }
+}
@@ -0,0 +1,209 @@
+package nesemulator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Rewind history in a fixed amount of memory. Only the newest snapshot is kept whole;
+// every older one is stored as the XOR of it and its successor, run-length encoded.
+// Consecutive states differ in a few hundred bytes at most, so a delta is mostly one
+// long run of zeros. Stepping back XORs the newest delta into the newest snapshot,
+// which turns it into the previous one, and the oldest deltas are dropped to make room.
+public class RewindBuffer {
+
+    private static final int LENGTH_BYTES = 4;
+
+    private final byte[] ring;
+    private final int interval;
+    // Stream positions where each delta starts, oldest first from deltaFirst; the ring index is
+    // position % ring.length. Grows when full, as a delta can be as small as its length field.
+    private long[] deltas = new long[64];
+    private int deltaFirst;
+    private int deltaCount;
+    private long head;
+    private long readPosition;
+
+    private byte[] latest = new byte[SaveState.MAX_SIZE];
+    private ByteBuffer latestView = ByteBuffer.wrap(latest);
+    private int latestLength;
+    private byte[] scratch = new byte[SaveState.MAX_SIZE];
+    private ByteBuffer scratchView = ByteBuffer.wrap(scratch);
+    // Worst case: alternating changed and unchanged bytes, each pair costing a byte per run length
+    private final byte[] encoded = new byte[SaveState.MAX_SIZE * 2 + 16];
+
+    private int framesSinceCapture;
+
+    public RewindBuffer(int capacityBytes, int interval) {
+        this.ring = new byte[capacityBytes];
+        this.interval = interval;
+    }
+
+    // Call once per emulated frame; captures a snapshot every interval frames
+    public void frameCompleted(Machine machine) {
+        if (++framesSinceCapture >= interval) {
+            framesSinceCapture = 0;
+            capture(machine);
+        }
+    }
+
+    public void capture(Machine machine) {
+        scratchView.clear();
+        SaveState.write(machine, scratchView);
+        int length = scratchView.position();
+        if (latestLength == length) {
+            storeDelta(encodeDelta(length));
+        } else {
+            // Different layout (another cart): older history cannot be rebuilt from this one
+            clear();
+        }
+        var swap = latest;
+        latest = scratch;
+        scratch = swap;
+        var swapView = latestView;
+        latestView = scratchView;
+        scratchView = swapView;
+        latestLength = length;
+    }
+
+    // Restores the newest snapshot and forgets it, so each call goes one interval further back.
+    // Returns false once there is nothing left to go back to.
+    public boolean rewind(Machine machine) {
+        if (latestLength == 0) {
+            return false;
+        }
+        latestView.clear();
+        latestView.limit(latestLength);
+        SaveState.read(machine, latestView);
+        framesSinceCapture = 0;
+        if (deltaCount == 0) {
+            latestLength = 0;
+        } else {
+            long start = deltas[deltaIndex(--deltaCount)];
+            applyDelta(start);
+            head = start;
+        }
+        return true;
+    }
+
+    public void clear() {
+        clearDeltas();
+        latestLength = 0;
+        framesSinceCapture = 0;
+    }
+
+    public int getSnapshotCount() {
+        return latestLength == 0 ? 0 : deltaCount + 1;
+    }
+
+    // Bytes of the ring taken by deltas
+    public long getUsedBytes() {
+        return deltaCount == 0 ? 0 : head - deltas[deltaFirst];
+    }
+
+    // Run-length codes latest XOR scratch as (unchanged count, changed count, changed bytes) triples,
+    // skipping unchanged stretches eight bytes at a time
+    private int encodeDelta(int length) {
+        int out = 0;
+        int i = 0;
+        while (i < length) {
+            int unchangedStart = i;
+            while (i + Long.BYTES <= length && latestView.getLong(i) == scratchView.getLong(i)) {
+                i += Long.BYTES;
+            }
+            while (i < length && latest[i] == scratch[i]) {
+                i++;
+            }
+            int changedStart = i;
+            while (i < length && latest[i] != scratch[i]) {
+                i++;
+            }
+            if (i == changedStart) {
+                break; // Unchanged through to the end
+            }
+            out = writeVarint(i - changedStart, writeVarint(changedStart - unchangedStart, out));
+            for (int j = changedStart; j < i; j++) {
+                encoded[out++] = (byte) (latest[j] ^ scratch[j]);
+            }
+        }
+        return out;
+    }
+
+    private int writeVarint(int value, int out) {
+        while (value >= 0x80) {
+            encoded[out++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        encoded[out++] = (byte) value;
+        return out;
+    }
+
+    private void storeDelta(int size) {
+        int recordSize = LENGTH_BYTES + size;
+        if (recordSize > ring.length) {
+            clearDeltas();
+            return;
+        }
+        while (deltaCount > 0 && head + recordSize - deltas[deltaFirst] > ring.length) {
+            deltaFirst = deltaIndex(1);
+            deltaCount--;
+        }
+        if (deltaCount == deltas.length) {
+            // Unwrap into a larger array, oldest first
+            var grown = Arrays.copyOfRange(deltas, deltaFirst, deltaFirst + deltas.length * 2);
+            System.arraycopy(deltas, 0, grown, deltas.length - deltaFirst, deltaFirst);
+            deltas = grown;
+            deltaFirst = 0;
+        }
+        deltas[deltaIndex(deltaCount++)] = head;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            ring[ringIndex(head++)] = (byte) (size >>> shift);
+        }
+        int index = ringIndex(head);
+        int firstPart = Math.min(size, ring.length - index);
+        System.arraycopy(encoded, 0, ring, index, firstPart);
+        System.arraycopy(encoded, firstPart, ring, 0, size - firstPart);
+        head += size;
+    }
+
+    private void applyDelta(long start) {
+        readPosition = start;
+        int size = 0;
+        for (int i = 0; i < LENGTH_BYTES; i++) {
+            size = (size << 8) | (ring[ringIndex(readPosition++)] & 0xFF);
+        }
+        long end = readPosition + size;
+        int offset = 0;
+        while (readPosition < end) {
+            offset += readVarint();
+            int changed = readVarint();
+            for (int i = 0; i < changed; i++) {
+                latest[offset++] ^= ring[ringIndex(readPosition++)];
+            }
+        }
+    }
+
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = ring[ringIndex(readPosition++)];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private void clearDeltas() {
+        deltaFirst = 0;
+        deltaCount = 0;
+        head = 0;
+    }
+
+    // Slot of the delta the given number of places after the oldest
+    private int deltaIndex(int offset) {
+        return (deltaFirst + offset) % deltas.length;
+    }
+
+    private int ringIndex(long position) {
+        return (int) (position % ring.length);
+    }
+}
@@ -0,0 +1,116 @@
+package nesemulator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Snapshots of a whole machine in a flat binary format: a header identifying the format
+// and the cart, then each component's state in a fixed order. Only the cart's mutable
+// parts are stored, so a state can only be loaded into a machine running the same cart.
+public class SaveState {
+
+    public static final int MAGIC = 0x4E455353; // "NESS"
+    public static final int VERSION = 1;
+
+    // Comfortably more than any supported machine needs (about 75 KB with CHR RAM)
+    public static final int MAX_SIZE = 0x20000;
+
+    private static final int NO_CART = -1;
+
+    // Reused between saves, so checkpointing every frame allocates nothing
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_SIZE);
+
+    public static void write(Machine machine, ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putShort((short) VERSION);
+        writeCartIdentity(machine.getCart(), buffer);
+        machine.getCpu().saveState(buffer);
+        machine.getMmu().saveState(buffer);
+        machine.getPpu().saveState(buffer);
+        if (machine.getMmu().getMapper() != null) {
+            machine.getMmu().getMapper().saveState(buffer);
+        }
+        machine.getScheduler().saveState(buffer);
+    }
+
+    public static void read(Machine machine, ByteBuffer buffer) {
+        int magic = buffer.getInt();
+        if (magic != MAGIC) {
+            throw new RuntimeException(String.format("Not a save state (magic $%08X)", magic));
+        }
+        int version = buffer.getShort();
+        if (version != VERSION) {
+            throw new RuntimeException(String.format("Save state version %d is not supported (expected %d)", version, VERSION));
+        }
+        checkCartIdentity(machine.getCart(), buffer);
+        machine.getCpu().loadState(buffer);
+        machine.getMmu().loadState(buffer);
+        machine.getPpu().loadState(buffer);
+        if (machine.getMmu().getMapper() != null) {
+            machine.getMmu().getMapper().loadState(buffer);
+        }
+        machine.getScheduler().loadState(buffer);
+        machine.getPpu().refreshPatterns();
+    }
+
+    // Written to a sibling file first and moved into place, so a crash mid-save
+    // never leaves a truncated state behind
+    public void save(Machine machine, Path path) throws IOException {
+        buffer.clear();
+        write(machine, buffer);
+        buffer.flip();
+        var temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void load(Machine machine, Path path) throws IOException {
+        buffer.clear();
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > MAX_SIZE) {
+                throw new RuntimeException(String.format("%s is too large to be a save state", path));
+            }
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+            }
+        }
+        buffer.flip();
+        read(machine, buffer);
+    }
+
+    private static void writeCartIdentity(Cart cart, ByteBuffer buffer) {
+        if (cart == null) {
+            buffer.putInt(NO_CART).putInt(0).putInt(0);
+            return;
+        }
+        buffer.putInt(cart.getBoardModel());
+        buffer.putInt(cart.getPRGROM().length);
+        buffer.putInt(cart.getCHRROM() == null ? 0 : cart.getCHRROM().length);
+    }
+
+    private static void checkCartIdentity(Cart cart, ByteBuffer buffer) {
+        int boardModel = buffer.getInt();
+        int prgSize = buffer.getInt();
+        int chrSize = buffer.getInt();
+        int expectedBoardModel = cart == null ? NO_CART : cart.getBoardModel();
+        int expectedPRGSize = cart == null ? 0 : cart.getPRGROM().length;
+        int expectedCHRSize = cart == null || cart.getCHRROM() == null ? 0 : cart.getCHRROM().length;
+        if (boardModel != expectedBoardModel || prgSize != expectedPRGSize || chrSize != expectedCHRSize) {
+            throw new RuntimeException(String.format(
+                    "Save state is for mapper %d with %d KB PRG / %d KB CHR, but mapper %d with %d KB PRG / %d KB CHR is loaded",
+                    boardModel, prgSize / 1024, chrSize / 1024,
+                    expectedBoardModel, expectedPRGSize / 1024, expectedCHRSize / 1024));
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package nesemulator;
+
+import java.util.Arrays;
+
+import static nesemulator.PPU.SCREEN_HEIGHT;
+import static nesemulator.PPU.SCREEN_WIDTH;
+import static nesemulator.PPU.isBitSet;
+
+// Draws one scanline from a captured ScanlineState plus the PPU's nametable, palette and
+// OAM contents. Holds its own line buffers, so one instance per thread can draw in parallel.
+final class ScanlineRenderer {
+
+    private static final int PATTERN_TABLE_1_START = 0x1000;
+    private static final int VRAM_PAGE_SHIFT = 10;
+    private static final int VRAM_PAGE_MASK = 0x3FF;
+    private static final int PALETTE_RAM_START = 0x3F00;
+    private static final int PALETTE_PAGE = PALETTE_RAM_START >> VRAM_PAGE_SHIFT;
+    private static final int PALETTE_RAM_SIZE = 0x20;
+
+    private static final int TILES_PER_ROW = 32;
+    private static final int TILE_SIZE = 8;
+    private static final int ATTRIBUTE_TABLE_OFFSET = 0x3C0;
+    private static final int MAX_SPRITES_PER_SCANLINE = 8;
+    private static final int OAM_SIZE = 0x100;
+
+    // Sprite line entries: palette RAM offset in the low 5 bits, plus these flags
+    private static final int SPRITE_PIXEL_BEHIND_BACKGROUND = 0x20;
+    private static final int SPRITE_PIXEL_SPRITE_0 = 0x40;
+
+    private final PPU ppu;
+    private final int[] backgroundLine = new int[SCREEN_WIDTH + TILE_SIZE];
+    private final int[] spriteLine = new int[SCREEN_WIDTH];
+    // Palette RAM resolved to final pixels for the line being drawn
+    private final int[] lineColors = new int[PALETTE_RAM_SIZE];
+
+    ScanlineRenderer(PPU ppu) {
+        this.ppu = ppu;
+    }
+
+    // Draws the line into frameBuffer and returns the PPUSTATUS bits it raised
+    int render(ScanlineState state, int line, int[] frameBuffer) {
+        var mask = state.mask;
+        var showBackground = isBitSet(mask, PPU.MASK_BIT_SHOW_BACKGROUND);
+        var showSprites = isBitSet(mask, PPU.MASK_BIT_SHOW_SPRITES);
+        var leftmostX = isBitSet(mask, PPU.MASK_BIT_SHOW_BACKGROUND_LEFMOST) ? 0 : TILE_SIZE;
+        var spriteLeftmostX = isBitSet(mask, PPU.MASK_BIT_SHOW_SPRITES_LEFMOST) ? 0 : TILE_SIZE;
+        var status = 0;
+
+        if (showBackground) {
+            renderBackgroundLine(state, line);
+            Arrays.fill(backgroundLine, 0, leftmostX, 0);
+        } else {
+            Arrays.fill(backgroundLine, 0);
+        }
+        Arrays.fill(spriteLine, 0);
+        if (showSprites) {
+            status |= renderSpriteLine(state, line);
+            Arrays.fill(spriteLine, 0, spriteLeftmostX, 0);
+        }
+
+        // Greyscale and emphasis only pick which precomputed table palette RAM resolves through
+        var colors = Palette.forMask(mask & 0xFF);
+        var palette = ppu.ram[PALETTE_PAGE];
+        for (int i = 0; i < lineColors.length; i++) {
+            lineColors[i] = colors[palette[(PALETTE_RAM_START & VRAM_PAGE_MASK) + i] & (Palette.SIZE - 1)];
+        }
+
+        var offset = line * SCREEN_WIDTH;
+        for (int x = 0; x < SCREEN_WIDTH; x++) {
+            var background = backgroundLine[x];
+            var sprite = spriteLine[x];
+            var paletteOffset = background;
+            if (sprite != 0) {
+                if (background != 0 && (sprite & SPRITE_PIXEL_SPRITE_0) != 0 && x != SCREEN_WIDTH - 1) {
+                    status |= 1 << PPU.STATUS_SPRITE_0_HIT;
+                }
+                if (background == 0 || (sprite & SPRITE_PIXEL_BEHIND_BACKGROUND) == 0) {
+                    paletteOffset = sprite & 0x1F;
+                }
+            }
+            frameBuffer[offset + x] = lineColors[paletteOffset];
+        }
+        return status;
+    }
+
+    // Whether sprite 0 covers the line while both layers are shown, the only case where
+    // drawing the line has a side effect (sprite 0 hit) the CPU can observe mid-frame
+    static boolean canHitSprite0(ScanlineState state, int line, int[] oam) {
+        var row = line - (oam[0] + 1);
+        return isBitSet(state.mask, PPU.MASK_BIT_SHOW_BACKGROUND) && isBitSet(state.mask, PPU.MASK_BIT_SHOW_SPRITES)
+                && row >= 0 && row < spriteHeight(state);
+    }
+
+    // The sprite overflow bit for the line, without drawing anything
+    static int spriteOverflow(ScanlineState state, int line, int[] oam) {
+        if (!isBitSet(state.mask, PPU.MASK_BIT_SHOW_SPRITES)) {
+            return 0;
+        }
+        var height = spriteHeight(state);
+        var found = 0;
+        for (int sprite = 0; sprite < OAM_SIZE; sprite += 4) {
+            var row = line - (oam[sprite] + 1);
+            if (row >= 0 && row < height && ++found > MAX_SPRITES_PER_SCANLINE) {
+                return 1 << PPU.STATUS_SPRITE_OVERFLOW;
+            }
+        }
+        return 0;
+    }
+
+    private static int spriteHeight(ScanlineState state) {
+        return isBitSet(state.control, PPU.CONTROL_BIT_SPRITE_HEIGHT) ? 16 : 8;
+    }
+
+    // Fills backgroundLine with palette RAM offsets, 0 meaning transparent
+    private void renderBackgroundLine(ScanlineState state, int line) {
+        var control = state.control;
+        var ram = ppu.ram;
+        var baseNameTable = control & 0b11;
+        var y = line + (state.scrollY & 0xFF) + (baseNameTable >> 1) * SCREEN_HEIGHT;
+        var nameTableY = (y / SCREEN_HEIGHT) & 1;
+        y %= SCREEN_HEIGHT;
+        var x = (state.scrollX & 0xFF) + (baseNameTable & 1) * SCREEN_WIDTH;
+        var fineX = x & 0b111;
+        var firstColumn = x >> 3;
+        var row = y >> 3;
+        var patternTable = isBitSet(control, PPU.CONTROL_BIT_BACKGROUND_TILE_SELECT) ? PATTERN_TABLE_1_START : 0;
+
+        // One tile more than the screen width, covering the fine X scroll
+        for (int tile = 0; tile <= TILES_PER_ROW; tile++) {
+            var column = (firstColumn + tile) & 0x3F;
+            var nameTable = ram[state.nameTableBanks[(nameTableY << 1) | (column >> 5)]];
+            column &= 0x1F;
+            var tileIndex = nameTable[row * TILES_PER_ROW + column];
+            var attribute = nameTable[ATTRIBUTE_TABLE_OFFSET + (row >> 2) * 8 + (column >> 2)];
+            var palette = (attribute >> (((row & 0b10) << 1) | (column & 0b10))) & 0b11;
+            var pattern = readPatternRow(state, patternTable + tileIndex * 16 + (y & 0b111));
+            var start = tile * TILE_SIZE;
+            var attributeBits = palette << 2;
+            for (int i = 0; i < TILE_SIZE; i++) {
+                var pixel = PatternCache.pixel(pattern, i);
+                backgroundLine[start + i] = pixel == 0 ? 0 : attributeBits | pixel;
+            }
+        }
+        if (fineX != 0) {
+            System.arraycopy(backgroundLine, fineX, backgroundLine, 0, SCREEN_WIDTH);
+        }
+    }
+
+    // Fills spriteLine with the frontmost opaque sprite pixel; lower OAM indexes win
+    private int renderSpriteLine(ScanlineState state, int line) {
+        var oam = ppu.oam;
+        var height = spriteHeight(state);
+        var patternTable = isBitSet(state.control, PPU.CONTROL_BIT_SPRITE_TILE_SELECT) ? PATTERN_TABLE_1_START : 0;
+        var found = 0;
+        for (int sprite = 0; sprite < OAM_SIZE; sprite += 4) {
+            var row = line - (oam[sprite] + 1);
+            if (row < 0 || row >= height) {
+                continue;
+            }
+            if (found == MAX_SPRITES_PER_SCANLINE) {
+                return 1 << PPU.STATUS_SPRITE_OVERFLOW;
+            }
+            found++;
+
+            var tileIndex = oam[sprite + 1];
+            var attributes = oam[sprite + 2];
+            var left = oam[sprite + 3];
+            if ((attributes & 0x80) != 0) {
+                row = height - 1 - row;
+            }
+            int patternAddress;
+            if (height == 16) {
+                patternAddress = (tileIndex & 1) * PATTERN_TABLE_1_START + (tileIndex & 0xFE) * 16
+                        + (row & 0b1000) * 2 + (row & 0b111);
+            } else {
+                patternAddress = patternTable + tileIndex * 16 + row;
+            }
+            var pattern = readPatternRow(state, patternAddress);
+            if ((attributes & 0x40) != 0) {
+                pattern >>>= PatternCache.FLIPPED_SHIFT;
+            }
+            var flags = 0x10 | ((attributes & 0b11) << 2)
+                    | ((attributes & 0x20) != 0 ? SPRITE_PIXEL_BEHIND_BACKGROUND : 0)
+                    | (sprite == 0 ? SPRITE_PIXEL_SPRITE_0 : 0);
+            for (int i = 0; i < TILE_SIZE && left + i < SCREEN_WIDTH; i++) {
+                var pixel = PatternCache.pixel(pattern, i);
+                if (pixel != 0 && spriteLine[left + i] == 0) {
+                    spriteLine[left + i] = flags | pixel;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Decoded tile row containing the given pattern table address (in the low bit plane)
+    private static int readPatternRow(ScanlineState state, int vramAddress) {
+        int page = vramAddress >> VRAM_PAGE_SHIFT;
+        return state.decodedPages[page][PatternCache.rowIndex(state.chrOffsets[page] + (vramAddress & VRAM_PAGE_MASK))];
+    }
+}
@@ -0,0 +1,16 @@
+package nesemulator;
+
+// The registers and bank mappings a scanline is drawn with, captured when the line ends
+// so it can be drawn later, on another thread, after the CPU has moved on
+final class ScanlineState {
+
+    byte control;
+    byte mask;
+    byte scrollX;
+    byte scrollY;
+    final int[][] decodedPages = new int[8][];
+    final int[] chrOffsets = new int[8];
+    final int[] nameTableBanks = new int[4];
+    // Whether the line was already drawn during emulation
+    boolean rendered;
+}
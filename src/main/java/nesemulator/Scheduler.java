@@ -0,0 +1,106 @@
+package nesemulator;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+// Timestamp-ordered events on the CPU cycle clock. Components schedule the cycle at which
+// they next need attention, and the CPU runs uninterrupted until the earliest of them.
+public class Scheduler {
+
+    public static final long NEVER = Long.MAX_VALUE;
+
+    private long[] deadlines = new long[0];
+    private EventHandler[] handlers = new EventHandler[0];
+    private long nextEventCycle = NEVER;
+
+    // Returns the id used to schedule the new event
+    public int register(EventHandler handler) {
+        int event = handlers.length;
+        handlers = Arrays.copyOf(handlers, event + 1);
+        deadlines = Arrays.copyOf(deadlines, event + 1);
+        handlers[event] = handler;
+        deadlines[event] = NEVER;
+        return event;
+    }
+
+    public void schedule(int event, long cycle) {
+        deadlines[event] = cycle;
+        if (cycle < nextEventCycle) {
+            nextEventCycle = cycle;
+        } else {
+            updateNextEventCycle();
+        }
+    }
+
+    public void cancel(int event) {
+        deadlines[event] = NEVER;
+        updateNextEventCycle();
+    }
+
+    public void reset() {
+        Arrays.fill(deadlines, NEVER);
+        nextEventCycle = NEVER;
+    }
+
+    // Takes over another scheduler's deadlines; both must have the same events registered
+    public void copyDeadlines(Scheduler other) {
+        System.arraycopy(other.deadlines, 0, deadlines, 0, deadlines.length);
+        nextEventCycle = other.nextEventCycle;
+    }
+
+    public void saveState(ByteBuffer buffer) {
+        buffer.putInt(deadlines.length);
+        for (long deadline : deadlines) {
+            buffer.putLong(deadline);
+        }
+    }
+
+    public void loadState(ByteBuffer buffer) {
+        int count = buffer.getInt();
+        if (count != deadlines.length) {
+            throw new RuntimeException(String.format("Saved state has %d scheduler events, expected %d", count, deadlines.length));
+        }
+        for (int event = 0; event < count; event++) {
+            deadlines[event] = buffer.getLong();
+        }
+        updateNextEventCycle();
+    }
+
+    public long getNextEventCycle() {
+        return nextEventCycle;
+    }
+
+    public long getDeadline(int event) {
+        return deadlines[event];
+    }
+
+    // Fires every event due at or before the given cycle, earliest first. Handlers may
+    // schedule further events, which fire in the same call if they are already due.
+    public void runDueEvents(long cycle) {
+        while (nextEventCycle <= cycle) {
+            int event = earliestEvent();
+            long deadline = deadlines[event];
+            deadlines[event] = NEVER;
+            updateNextEventCycle();
+            handlers[event].handleEvent(deadline);
+        }
+    }
+
+    private int earliestEvent() {
+        int earliest = 0;
+        for (int event = 1; event < deadlines.length; event++) {
+            if (deadlines[event] < deadlines[earliest]) {
+                earliest = event;
+            }
+        }
+        return earliest;
+    }
+
+    private void updateNextEventCycle() {
+        long next = NEVER;
+        for (long deadline : deadlines) {
+            next = Math.min(next, deadline);
+        }
+        nextEventCycle = next;
+    }
+}
@@ -0,0 +1,67 @@
+package nesemulator;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lock-free handoff of completed frames from the emulation thread to the presentation thread.
+// Each side owns one buffer outright, and the third sits in a shared slot they swap with.
+// The writer never waits for a slow reader, and the reader always gets the newest frame.
+public class TripleBuffer {
+
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100;
+
+    private final BufferedImage[] images = new BufferedImage[3];
+    private final int[][] pixels = new int[3][];
+
+    // Index of the buffer in the shared slot, with FRESH set while it holds an unread frame
+    private final AtomicInteger shared = new AtomicInteger(1);
+
+    // Writer side
+    private int back = 0;
+    private int published = 2;
+
+    // Reader side
+    private int front = 2;
+
+    public TripleBuffer(int width, int height) {
+        for (int i = 0; i < images.length; i++) {
+            images[i] = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            pixels[i] = ((DataBufferInt) images[i].getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    // Writer: the pixels to draw the next frame into
+    public int[] getBackPixels() {
+        return pixels[back];
+    }
+
+    // Writer: hands the back buffer over as the newest frame and takes the shared one in exchange
+    public void publish() {
+        published = back;
+        back = shared.getAndSet(published | FRESH) & INDEX_MASK;
+    }
+
+    // Writer: the last published frame, which stays intact until the next publish
+    public BufferedImage getPublished() {
+        return images[published];
+    }
+
+    public int[] getPublishedPixels() {
+        return pixels[published];
+    }
+
+    // Reader: whether a frame was published since the last acquire
+    public boolean hasFreshFrame() {
+        return (shared.get() & FRESH) != 0;
+    }
+
+    // Reader: the newest published frame, which the writer will not touch until the next acquire
+    public BufferedImage acquire() {
+        if (hasFreshFrame()) {
+            front = shared.getAndSet(front) & INDEX_MASK;
+        }
+        return images[front];
+    }
+}
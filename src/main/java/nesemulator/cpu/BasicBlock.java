@@ -0,0 +1,29 @@
+package nesemulator.cpu;
+
+// A straight run of instructions decoded once: each one's handler and operand bytes, the low
+// byte first. It ends at the first branch, jump or return, or at the end of its page, and holds
+// while the page's code version in the MMU is the one it was decoded at. Only blocks decoded
+// from ROM are compiled: code in RAM is rewritten far more often, each time defining a class.
+final class BasicBlock {
+
+    final int address;
+    final int[] opcodes;
+    final OpcodeHandler[] handlers;
+    final int[] operands;
+    final int version;
+    final boolean fromROM;
+
+    // Runs so far, until the block is hot enough to compile
+    int executions;
+    CompiledBlock compiled;
+
+    BasicBlock(int address, int[] opcodes, OpcodeHandler[] handlers, int[] operands, int version,
+               boolean fromROM) {
+        this.address = address;
+        this.opcodes = opcodes;
+        this.handlers = handlers;
+        this.operands = operands;
+        this.version = version;
+        this.fromROM = fromROM;
+    }
+}
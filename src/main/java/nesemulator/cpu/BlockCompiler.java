@@ -0,0 +1,636 @@
+package nesemulator.cpu;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static nesemulator.cpu.ClassBuilder.*;
+
+// Translates hot basic blocks to JVM classes, so HotSpot compiles the guest code itself.
+// A, X, Y and P live in locals for the whole block. N and Z are kept lazily as the CPU keeps
+// them, as the last result that set them, and only folded into P when a comparison changes P
+// or a branch tests them before the block has set them itself. A pending result is passed
+// between the CPU and the block as such, either way. Instructions with no translation here
+// call their interpreter handler, with the registers written back.
+//
+// The generated code stops where the interpreter would: the event deadline is checked after
+// every instruction, and re-read after any access that may reach I/O; a store that switches
+// banks or overwrites cached code ends the block. Before such an access, the cycle counter
+// is written back so the PPU catches up to the right cycle.
+final class BlockCompiler {
+
+    private static final String CPU_DESCRIPTOR = "Lnesemulator/cpu/CPU;";
+    private static final String MMU_CLASS = "nesemulator/MMU";
+    private static final String SCHEDULER_CLASS = "nesemulator/Scheduler";
+    private static final String BASE_CLASS = "nesemulator/cpu/CompiledBlock";
+    private static final String RUN_DESCRIPTOR = "(Lnesemulator/cpu/CPU;Lnesemulator/MMU;Lnesemulator/Scheduler;)V";
+
+    // Locals of the generated run(cpu, mmu, scheduler)
+    private static final int CPU_LOCAL = 1;
+    private static final int MMU_LOCAL = 2;
+    private static final int SCHEDULER_LOCAL = 3;
+    private static final int A = 4;
+    private static final int X = 5;
+    private static final int Y = 6;
+    private static final int P = 7;
+    // The last value N and Z were set from, or -1 once P holds them
+    private static final int NZ = 8;
+    private static final int GENERATION = 9;
+    private static final int CYCLES = 10;
+    private static final int DEADLINE = 12;
+    private static final int VALUE = 14;
+    private static final int NEXT_PC = 15;
+    private static final int EXECUTED = 16;
+    private static final int MAX_LOCALS = 17;
+    private static final int MAX_STACK = 8;
+
+    private static final int FLAG_CARRY = 1 << CPU.STATUS_FLAG_CARRY;
+    private static final int FLAG_ZERO = 1 << CPU.STATUS_FLAG_ZERO;
+    private static final int FLAG_INTERRUPT = 1 << CPU.STATUS_FLAG_INTERRUPT;
+    private static final int FLAG_DECIMAL = 1 << CPU.STATUS_FLAG_DECIMAL;
+    private static final int FLAG_NEGATIVE = 1 << CPU.STATUS_FLAG_NEGATIVE;
+
+    // N and Z are in P, in the NZ local as a result P has yet to take them from, or, as the CPU
+    // left them, in either one
+    private static final int NZ_IN_P = 0;
+    private static final int NZ_PENDING = 1;
+    private static final int NZ_EITHER = 2;
+
+    // Nothing below this reaches I/O: CPU RAM and its mirrors
+    private static final int RAM_END = 0x2000;
+    private static final int MAX_INDEX = 0xFF;
+
+    private static final AtomicInteger classCount = new AtomicInteger();
+
+    private final BasicBlock block;
+    private final ClassBuilder builder = new ClassBuilder();
+    private final ClassBuilder.Code code = builder.new Code();
+    private final ClassBuilder.Label exit = builder.newLabel();
+    // Where N and Z are at this point of the code
+    private int nzState;
+
+    private BlockCompiler(BasicBlock block) {
+        this.block = block;
+    }
+
+    static CompiledBlock compile(BasicBlock block) {
+        return new BlockCompiler(block).define();
+    }
+
+    private CompiledBlock define() {
+        emitPrologue();
+        int address = block.address;
+        int count = block.opcodes.length;
+        for (int i = 0; i < count; i++) {
+            int next = address + Opcode.lengthOf(block.opcodes[i]);
+            emitInstruction(block.opcodes[i], block.operands[i], address, next, i + 1, i == count - 1);
+            address = next;
+        }
+        code.iconst(count);
+        code.local(ISTORE, EXECUTED);
+        emitEpilogue();
+
+        var name = String.format("nesemulator/cpu/CompiledBlock$%04X_%d", block.address, classCount.incrementAndGet());
+        var bytes = builder.build(name, BASE_CLASS, "run", RUN_DESCRIPTOR, code, MAX_STACK, MAX_LOCALS);
+        try {
+            var type = new BlockLoader().define(name.replace('/', '.'), bytes);
+            return (CompiledBlock) type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(String.format("Could not define the block compiled at $%04X", block.address), e);
+        }
+    }
+
+    private void emitPrologue() {
+        loadRegisters();
+        code.local(ALOAD, MMU_LOCAL);
+        code.invoke(INVOKEVIRTUAL, MMU_CLASS, "getCodeGeneration", "()I");
+        code.local(ISTORE, GENERATION);
+        code.local(ALOAD, CPU_LOCAL);
+        getField("cyclesCounter", "J");
+        code.local(LSTORE, CYCLES);
+        reloadDeadline();
+    }
+
+    // Every way out lands here with NEXT_PC and EXECUTED set
+    private void emitEpilogue() {
+        code.bind(exit);
+        storeRegisters();
+        code.local(ALOAD, CPU_LOCAL);
+        code.local(ILOAD, NEXT_PC);
+        setField("pc", "I");
+        syncCycles();
+        code.local(ALOAD, CPU_LOCAL);
+        code.op(DUP);
+        getField("instructionsCounter", "J");
+        code.local(ILOAD, EXECUTED);
+        code.op(I2L);
+        code.op(LADD);
+        setField("instructionsCounter", "J");
+        code.op(RETURN);
+    }
+
+    // Cycle counts are the ones the interpreter's handlers return
+    private void emitInstruction(int opcode, int operand, int address, int next, int executed, boolean last) {
+        int low = operand & 0xFF;
+        switch (Opcode.fromCode(opcode)) {
+            case LDA_IMMEDIATE:
+                setRegister(A, low);
+                finish(2, next, executed, last);
+                break;
+            case LDX_IMMEDIATE:
+                setRegister(X, low);
+                finish(2, next, executed, last);
+                break;
+            case LDY_IMMEDIATE:
+                setRegister(Y, low);
+                finish(2, next, executed, last);
+                break;
+            case ORA_IMMEDIATE:
+                code.local(ILOAD, A);
+                code.iconst(low);
+                code.op(IOR);
+                resultTo(A);
+                finish(2, next, executed, last);
+                break;
+            case LDA_ZERO_PAGE:
+                load(A, low, -1, 2, next, executed, last);
+                break;
+            case LDA_ABSOLUTE:
+                load(A, operand, -1, 4, next, executed, last);
+                break;
+            case LDA_ABSOLUTE_X:
+                load(A, operand, X, 4, next, executed, last);
+                break;
+            case LDA_ABSOLUTE_Y:
+                load(A, operand, Y, 4, next, executed, last);
+                break;
+            case STA_ZERO_PAGE:
+                store(A, low, -1, 3, next, executed, last);
+                break;
+            case STX_ZERO_PAGE:
+                store(X, low, -1, 3, next, executed, last);
+                break;
+            case STY_ZERO_PAGE:
+                store(Y, low, -1, 3, next, executed, last);
+                break;
+            case STA_ZERO_PAGE_X:
+                store(A, low, X, 4, next, executed, last);
+                break;
+            case STA_ABSOLUTE:
+                store(A, operand, -1, 4, next, executed, last);
+                break;
+            case STX_ABSOLUTE:
+                store(X, operand, -1, 4, next, executed, last);
+                break;
+            case STY_ABSOLUTE:
+                store(Y, operand, -1, 4, next, executed, last);
+                break;
+            case STA_ABSOLUTE_X:
+                store(A, operand, X, 5, next, executed, last);
+                break;
+            case STA_ABSOLUTE_Y:
+                store(A, operand, Y, 5, next, executed, last);
+                break;
+            case TXA:
+                transfer(X, A, next, executed, last);
+                break;
+            case TYA:
+                transfer(Y, A, next, executed, last);
+                break;
+            case TAY:
+                transfer(A, Y, next, executed, last);
+                break;
+            case TXS:
+                code.local(ALOAD, CPU_LOCAL);
+                code.local(ILOAD, X);
+                setField("s", "I");
+                finish(2, next, executed, last);
+                break;
+            case INX:
+                step(X, 1, next, executed, last);
+                break;
+            case INY:
+                step(Y, 1, next, executed, last);
+                break;
+            case DEX:
+                step(X, -1, next, executed, last);
+                break;
+            case DEY:
+                step(Y, -1, next, executed, last);
+                break;
+            case CLC:
+                changeFlags(~FLAG_CARRY, 0, next, executed, last);
+                break;
+            case CLD:
+                changeFlags(~FLAG_DECIMAL, 0, next, executed, last);
+                break;
+            case SEI:
+                changeFlags(-1, FLAG_INTERRUPT, next, executed, last);
+                break;
+            case CMP_IMMEDIATE:
+                code.local(ILOAD, A);
+                code.iconst(low);
+                compare(2, false, next, executed, last);
+                break;
+            case CPY_IMMEDIATE:
+                code.local(ILOAD, Y);
+                code.iconst(low);
+                compare(2, false, next, executed, last);
+                break;
+            case CMP_ABSOLUTE_X:
+                code.local(ILOAD, A);
+                read(operand, X);
+                compare(4, reachesIO(operand, X), next, executed, last);
+                break;
+            case NOP_1A:
+            case NOP_3A:
+            case NOP_5A:
+            case NOP_7A:
+            case NOP_DA:
+            case NOP_EA:
+            case NOP_FA:
+                finish(2, next, executed, last);
+                break;
+            case NOP_ABSOLUTE:
+            case NOP_ABSOLUTE_X_1C:
+            case NOP_ABSOLUTE_X_3C:
+            case NOP_ABSOLUTE_X_5C:
+            case NOP_ABSOLUTE_X_7C:
+            case NOP_ABSOLUTE_X_DC:
+            case NOP_ABSOLUTE_X_FC:
+                finish(4, next, executed, last);
+                break;
+            case JMP_ABSOLUTE:
+                code.iconst(operand);
+                code.local(ISTORE, NEXT_PC);
+                addCycles(3);
+                break;
+            case BNE:
+                branchOnZero(false, address, low, next);
+                break;
+            case BEQ:
+                branchOnZero(true, address, low, next);
+                break;
+            case BPL:
+                branchOnNegative(false, address, low, next);
+                break;
+            case BMI:
+                branchOnNegative(true, address, low, next);
+                break;
+            case BCC:
+                code.local(ILOAD, P);
+                code.iconst(FLAG_CARRY);
+                code.op(IAND);
+                branch(IFNE, address, low, next);
+                break;
+            default:
+                callHandler(opcode, operand, address, next, executed, last);
+        }
+    }
+
+    private void setRegister(int register, int value) {
+        code.iconst(value);
+        resultTo(register);
+    }
+
+    // Stores the value on the stack to the register, and keeps it for N and Z
+    private void resultTo(int register) {
+        code.op(DUP);
+        code.local(ISTORE, register);
+        code.local(ISTORE, NZ);
+        nzState = NZ_PENDING;
+    }
+
+    private void transfer(int from, int to, int next, int executed, boolean last) {
+        code.local(ILOAD, from);
+        resultTo(to);
+        finish(2, next, executed, last);
+    }
+
+    private void step(int register, int delta, int next, int executed, boolean last) {
+        code.local(ILOAD, register);
+        code.iconst(delta);
+        code.op(IADD);
+        code.iconst(0xFF);
+        code.op(IAND);
+        resultTo(register);
+        finish(2, next, executed, last);
+    }
+
+    private void changeFlags(int keep, int set, int next, int executed, boolean last) {
+        code.local(ILOAD, P);
+        code.iconst(keep);
+        code.op(IAND);
+        code.iconst(set);
+        code.op(IOR);
+        code.local(ISTORE, P);
+        finish(2, next, executed, last);
+    }
+
+    // The interpreter's comparisons only ever set flags; the register and value are on the stack
+    private void compare(int cycles, boolean io, int next, int executed, boolean last) {
+        code.op(ISUB);
+        code.local(ISTORE, VALUE);
+        settleNZ();
+        var notAbove = builder.newLabel();
+        var notEqual = builder.newLabel();
+        var done = builder.newLabel();
+        code.local(ILOAD, VALUE);
+        code.branch(IFLE, notAbove);
+        orFlags(FLAG_CARRY);
+        code.branch(GOTO, done);
+        code.bind(notAbove);
+        code.local(ILOAD, VALUE);
+        code.branch(IFNE, notEqual);
+        orFlags(FLAG_CARRY | FLAG_ZERO);
+        code.branch(GOTO, done);
+        code.bind(notEqual);
+        orFlags(FLAG_NEGATIVE);
+        code.bind(done);
+        addCycles(cycles);
+        if (io) {
+            reloadDeadline();
+        }
+        checkpoint(next, executed, last);
+    }
+
+    private void orFlags(int flags) {
+        code.local(ILOAD, P);
+        code.iconst(flags);
+        code.op(IOR);
+        code.local(ISTORE, P);
+    }
+
+    private void load(int register, int base, int index, int cycles, int next, int executed, boolean last) {
+        read(base, index);
+        resultTo(register);
+        addCycles(cycles);
+        if (reachesIO(base, index)) {
+            reloadDeadline();
+        }
+        checkpoint(next, executed, last);
+    }
+
+    private void read(int base, int index) {
+        if (reachesIO(base, index)) {
+            syncCycles();
+        }
+        code.local(ALOAD, MMU_LOCAL);
+        address(base, index);
+        code.invoke(INVOKEVIRTUAL, MMU_CLASS, "readAddress", "(I)I");
+    }
+
+    private void store(int register, int base, int index, int cycles, int next, int executed, boolean last) {
+        boolean io = reachesIO(base, index);
+        if (io) {
+            syncCycles();
+        }
+        code.local(ALOAD, MMU_LOCAL);
+        address(base, index);
+        code.local(ILOAD, register);
+        code.invoke(INVOKEVIRTUAL, MMU_CLASS, "writeAddress", "(II)V");
+        addCycles(cycles);
+        if (io) {
+            // Stores to $4014 halt the CPU while OAM DMA runs
+            code.local(LLOAD, CYCLES);
+            code.local(ALOAD, MMU_LOCAL);
+            code.invoke(INVOKEVIRTUAL, MMU_CLASS, "takeStallCycles", "()I");
+            code.op(I2L);
+            code.op(LADD);
+            code.local(LSTORE, CYCLES);
+            reloadDeadline();
+        }
+        if (!last) {
+            checkGeneration(next, executed);
+        }
+        checkpoint(next, executed, last);
+    }
+
+    private void address(int base, int index) {
+        code.iconst(base);
+        if (index >= 0) {
+            code.local(ILOAD, index);
+            code.op(IADD);
+        }
+    }
+
+    private static boolean reachesIO(int base, int index) {
+        return base + (index >= 0 ? MAX_INDEX : 0) >= RAM_END;
+    }
+
+    // Runs the interpreter's handler, with every register written back for it and read again after
+    private void callHandler(int opcode, int operand, int address, int next, int executed, boolean last) {
+        storeRegisters();
+        code.local(ALOAD, CPU_LOCAL);
+        code.iconst(address);
+        setField("pc", "I");
+        syncCycles();
+        code.local(LLOAD, CYCLES);
+        code.local(ALOAD, CPU_LOCAL);
+        code.iconst(opcode);
+        code.iconst(operand);
+        code.invoke(INVOKESTATIC, BASE_CLASS, "executeDecoded", "(" + CPU_DESCRIPTOR + "II)I");
+        code.op(I2L);
+        code.op(LADD);
+        code.local(LSTORE, CYCLES);
+        loadRegisters();
+        if (last) {
+            // Whatever the handler did to the PC, jumps included
+            code.local(ALOAD, CPU_LOCAL);
+            getField("pc", "I");
+            code.local(ISTORE, NEXT_PC);
+            return;
+        }
+        reloadDeadline();
+        checkGeneration(next, executed);
+        checkpoint(next, executed, false);
+    }
+
+    private void branchOnZero(boolean whenSet, int address, int offset, int next) {
+        if (nzState == NZ_EITHER) {
+            settleNZ();
+        }
+        if (nzState == NZ_PENDING) {
+            // Z is set when the pending result is 0
+            code.local(ILOAD, NZ);
+            branch(whenSet ? IFNE : IFEQ, address, offset, next);
+        } else {
+            code.local(ILOAD, P);
+            code.iconst(FLAG_ZERO);
+            code.op(IAND);
+            branch(whenSet ? IFEQ : IFNE, address, offset, next);
+        }
+    }
+
+    private void branchOnNegative(boolean whenSet, int address, int offset, int next) {
+        if (nzState == NZ_EITHER) {
+            settleNZ();
+        }
+        code.local(ILOAD, nzState == NZ_PENDING ? NZ : P);
+        code.iconst(FLAG_NEGATIVE);
+        code.op(IAND);
+        branch(whenSet ? IFEQ : IFNE, address, offset, next);
+    }
+
+    // Ends the block on a conditional branch; notTaken pops the tested value and skips the jump
+    private void branch(int notTaken, int address, int offset, int next) {
+        var skip = builder.newLabel();
+        var done = builder.newLabel();
+        code.branch(notTaken, skip);
+        code.iconst(address + 2 + (byte) offset);
+        code.local(ISTORE, NEXT_PC);
+        addCycles(3);
+        code.branch(GOTO, done);
+        code.bind(skip);
+        code.iconst(next);
+        code.local(ISTORE, NEXT_PC);
+        addCycles(2);
+        code.bind(done);
+    }
+
+    private void finish(int cycles, int next, int executed, boolean last) {
+        addCycles(cycles);
+        checkpoint(next, executed, last);
+    }
+
+    // Where the interpreter would look at the deadline again, leave once it has been reached
+    private void checkpoint(int next, int executed, boolean last) {
+        if (last) {
+            code.iconst(next);
+            code.local(ISTORE, NEXT_PC);
+            return;
+        }
+        var carryOn = builder.newLabel();
+        code.local(LLOAD, CYCLES);
+        code.local(LLOAD, DEADLINE);
+        code.op(LCMP);
+        code.branch(IFLT, carryOn);
+        leave(next, executed);
+        code.bind(carryOn);
+    }
+
+    // Stores may have switched the bank this block came from, or rewritten it
+    private void checkGeneration(int next, int executed) {
+        var carryOn = builder.newLabel();
+        code.local(ALOAD, MMU_LOCAL);
+        code.invoke(INVOKEVIRTUAL, MMU_CLASS, "getCodeGeneration", "()I");
+        code.local(ILOAD, GENERATION);
+        code.branch(IF_ICMPEQ, carryOn);
+        leave(next, executed);
+        code.bind(carryOn);
+    }
+
+    private void leave(int next, int executed) {
+        code.iconst(next);
+        code.local(ISTORE, NEXT_PC);
+        code.iconst(executed);
+        code.local(ISTORE, EXECUTED);
+        code.branch(GOTO, exit);
+    }
+
+    private void addCycles(int cycles) {
+        code.local(LLOAD, CYCLES);
+        code.lconst(cycles);
+        code.op(LADD);
+        code.local(LSTORE, CYCLES);
+    }
+
+    // I/O catches the PPU up to the CPU's cycle counter
+    private void syncCycles() {
+        code.local(ALOAD, CPU_LOCAL);
+        code.local(LLOAD, CYCLES);
+        setField("cyclesCounter", "J");
+    }
+
+    private void reloadDeadline() {
+        code.local(ALOAD, SCHEDULER_LOCAL);
+        code.invoke(INVOKEVIRTUAL, SCHEDULER_CLASS, "getNextEventCycle", "()J");
+        code.local(LSTORE, DEADLINE);
+    }
+
+    // Gives P the N and Z of a pending result, when there is or may be one
+    private void settleNZ() {
+        if (nzState == NZ_PENDING) {
+            foldNZ();
+        } else if (nzState == NZ_EITHER) {
+            var settled = builder.newLabel();
+            code.local(ILOAD, NZ);
+            code.branch(IFLT, settled);
+            foldNZ();
+            code.bind(settled);
+        }
+        nzState = NZ_IN_P;
+    }
+
+    private void foldNZ() {
+        var notZero = builder.newLabel();
+        code.local(ILOAD, P);
+        code.iconst(~(FLAG_ZERO | FLAG_NEGATIVE));
+        code.op(IAND);
+        code.local(ILOAD, NZ);
+        code.iconst(FLAG_NEGATIVE);
+        code.op(IAND);
+        code.op(IOR);
+        code.local(ISTORE, P);
+        code.local(ILOAD, NZ);
+        code.branch(IFNE, notZero);
+        orFlags(FLAG_ZERO);
+        code.bind(notZero);
+        code.iconst(-1);
+        code.local(ISTORE, NZ);
+    }
+
+    // A pending result from the CPU stays pending; whether there is one is only known at run time
+    private void loadRegisters() {
+        loadRegister("a", A);
+        loadRegister("x", X);
+        loadRegister("y", Y);
+        loadRegister("p", P);
+        loadRegister("nz", NZ);
+        nzState = NZ_EITHER;
+    }
+
+    private void storeRegisters() {
+        storeRegister("a", A);
+        storeRegister("x", X);
+        storeRegister("y", Y);
+        storeRegister("p", P);
+        storeRegister("nz", NZ);
+    }
+
+    // The CPU's fields, through CompiledBlock's accessors: the CPU is on the stack, and for a set
+    // the value above it
+    private void getField(String name, String descriptor) {
+        code.invoke(INVOKESTATIC, BASE_CLASS, name, "(" + CPU_DESCRIPTOR + ")" + descriptor);
+    }
+
+    private void setField(String name, String descriptor) {
+        var setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        code.invoke(INVOKESTATIC, BASE_CLASS, setter, "(" + CPU_DESCRIPTOR + descriptor + ")V");
+    }
+
+    private void loadRegister(String name, int local) {
+        code.local(ALOAD, CPU_LOCAL);
+        getField(name, local == P ? "B" : "I");
+        code.local(ISTORE, local);
+    }
+
+    private void storeRegister(String name, int local) {
+        code.local(ALOAD, CPU_LOCAL);
+        code.local(ILOAD, local);
+        if (local == P) {
+            code.op(I2B);
+        }
+        setField(name, local == P ? "B" : "I");
+    }
+
+    // One loader per class, so a class dropped from its cache can be unloaded on its own
+    private static final class BlockLoader extends ClassLoader {
+
+        BlockLoader() {
+            super(CompiledBlock.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -1,15 +1,20 @@
 package nesemulator.cpu;
 
 import nesemulator.MMU;
+import nesemulator.Scheduler;
 import nesemulator.cpu.observer.CPUObserver;
 
-import java.util.ArrayList;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 public class CPU {
 
+    public static final int NMI_ADDRESS_1 = 0xFFFA;
+    public static final int NMI_ADDRESS_2 = 0xFFFB;
     public static final int IRQ_ADDRESS_1 = 0xFFFE;
     public static final int IRQ_ADDRESS_2 = 0xFFFF;
-    static ArrayList<CPUObserver> observers = new ArrayList<>();
+    // Copy-on-write array: cheaper to iterate than a list and empty on the common path
+    CPUObserver[] observers = new CPUObserver[0];
 
     static final int STATUS_FLAG_CARRY = 0;
     static final int STATUS_FLAG_ZERO = 1;
@@ -23,254 +28,464 @@ public class CPU {
     private static final int INITIAL_PC = 0x8000;
     private static final int INITIAL_PROCESSOR_STATUS = 0x34;
     private static final int INITIAL_STACK_POINTER = 0xFF;
+    private static final int INTERRUPT_CYCLES = 7;
+    private static final int NZ_SETTLED = -1;
+    private static final int PAGE_SHIFT = 8;
+    private static final int PAGE_MASK = 0xFF;
+    private static final int PAGE_COUNT = 0x100;
+    private static final int PAGE_SIZE = 0x100;
+    // Runs of a block before the dynamic recompiler translates it
+    private static final int COMPILE_THRESHOLD = 32;
+
+    private final MMU mmu;
+
+    int a;
+    int x;
+    int y;
+    byte p;
+    // The last result N and Z were set from, or NZ_SETTLED once p holds them. Instructions only
+    // store their result here; the bits are worked out when something reads them
+    int nz = NZ_SETTLED;
+    int pc;
+    int s;
+
+    long cyclesCounter;
+    long instructionsCounter;
+
+    // Decoded blocks by start address, one lazily allocated array per page
+    private final BasicBlock[][] blocks = new BasicBlock[PAGE_COUNT][];
+    // Operand bytes of the instruction being run from a block, so its handler needn't read them
+    private int operand;
+    private boolean operandDecoded;
+    private boolean dynarec;
+    private final CompiledBlockCache compiledBlocks;
+
+    // Indexed directly by the raw opcode byte, so dispatch is a single array load
+    private static final OpcodeHandler NOT_IMPLEMENTED = CPU::notImplemented;
+    private static final OpcodeHandler[] handlers = new OpcodeHandler[256];
+    // Opcodes after which execution does not carry on with the next instruction in memory
+    private static final boolean[] blockEnds = new boolean[256];
+
+    static {
+        registerHandlers();
+        for (Opcode opcode : Opcode.values()) {
+            blockEnds[opcode.getValue()] = endsBlock(opcode);
+        }
+    }
+
+    public CPU(MMU mmu) {
+        this(mmu, new CompiledBlockCache(CompiledBlockCache.DEFAULT_CAPACITY));
+    }
+
+    private CPU(MMU mmu, CompiledBlockCache compiledBlocks) {
+        this.mmu = mmu;
+        this.compiledBlocks = compiledBlocks;
+        initialize();
+    }
+
+    // A CPU in the same state, running against a forked machine's MMU; observers are not carried over
+    public CPU fork(MMU mmu) {
+        var child = new CPU(mmu, compiledBlocks);
+        child.a = a;
+        child.x = x;
+        child.y = y;
+        child.p = p;
+        child.nz = nz;
+        child.pc = pc;
+        child.s = s;
+        child.cyclesCounter = cyclesCounter;
+        child.instructionsCounter = instructionsCounter;
+        child.dynarec = dynarec;
+        return child;
+    }
 
-    static int a;
-    static int x;
-    static int y;
-    static byte p;
-    static int pc;
-    static int s;
+    public long getCyclesCounter() {
+        return cyclesCounter;
+    }
+
+    public long getInstructionsCounter() {
+        return instructionsCounter;
+    }
+
+    public int getA() {
+        return a;
+    }
 
-    static int cyclesCounter;
+    public int getX() {
+        return x;
+    }
 
-    private CPU() {
+    public int getY() {
+        return y;
     }
 
-    public static int getCyclesCounter() {
-        return CPU.cyclesCounter;
+    public int getS() {
+        return s;
     }
 
-    public static int getA() {
-        return CPU.a;
+    public int getP() {
+        settleFlags();
+        return p;
     }
 
-    public static int getX() {
-        return CPU.x;
+    public int getPC() {
+        return pc;
     }
 
-    public static int getY() {
-        return CPU.y;
+    // Whether hot blocks are translated to JVM bytecode. Observers see every instruction only
+    // from the interpreter, so blocks run interpreted while there are any
+    public void setDynarec(boolean dynarec) {
+        this.dynarec = dynarec;
     }
 
-    public static int getS() {
-        return CPU.s;
+    public boolean isDynarec() {
+        return dynarec;
     }
 
-    public static int getP() {
-        return CPU.p;
+    public void addObserver(CPUObserver observer) {
+        CPUObserver[] newObservers = Arrays.copyOf(observers, observers.length + 1);
+        newObservers[observers.length] = observer;
+        observers = newObservers;
     }
 
-    public static int getPC() {
-        return CPU.pc;
+    public void removeObserver(CPUObserver observer) {
+        observers = Arrays.stream(observers).filter(o -> o != observer).toArray(CPUObserver[]::new);
     }
 
-    public static void addObserver(CPUObserver observer) {
-        observers.add(observer);
+    private void notifyInstruction(Opcode opcode, int cycles) {
+        notifyInstruction(opcode, cycles, 0, 0);
     }
 
-    public static void removeObserver(CPUObserver observer) {
-        observers.remove(observer);
+    private void notifyInstruction(Opcode opcode, int cycles, int operand) {
+        notifyInstruction(opcode, cycles, operand, 0);
     }
 
-    private static void notifyInstruction(Opcode opcode, int cycles, int... operands) {
-        for (CPUObserver o : observers) {
-            o.notifyCPUInstruction(pc, opcode, cycles, operands);
+    private void notifyInstruction(Opcode opcode, int cycles, int operand1, int operand2) {
+        CPUObserver[] currentObservers = observers;
+        if (currentObservers.length == 0) {
+            return;
+        }
+        for (CPUObserver o : currentObservers) {
+            o.notifyCPUInstruction(pc, opcode, cycles, operand1, operand2);
         }
     }
 
-    public static void initialize() {
+    public void initialize() {
         s = INITIAL_STACK_POINTER; // Stack pointer staring into the abyss
         pc = INITIAL_PC;
         a = x = y = 0x00; // Registers cleanup
         p = INITIAL_PROCESSOR_STATUS;
+        nz = NZ_SETTLED;
         cyclesCounter = 0;
+        instructionsCounter = 0;
     }
 
-    public static int executeStep() {
-        int nextInstruction = signedToUsignedByte(MMU.readAddress(pc));
-        var opcode = Opcode.fromCode(nextInstruction);
-        if (opcode == null) {
-            throw new RuntimeException(String.format("%04X: OpCode $%02X not implemented", pc, nextInstruction));
+    public void saveState(ByteBuffer buffer) {
+        settleFlags();
+        buffer.put((byte) a).put((byte) x).put((byte) y).put(p).put((byte) s);
+        buffer.putShort((short) pc);
+        buffer.putLong(cyclesCounter).putLong(instructionsCounter);
+    }
+
+    public void loadState(ByteBuffer buffer) {
+        a = buffer.get() & 0xFF;
+        x = buffer.get() & 0xFF;
+        y = buffer.get() & 0xFF;
+        p = buffer.get();
+        nz = NZ_SETTLED;
+        s = buffer.get() & 0xFF;
+        pc = buffer.getShort() & 0xFFFF;
+        cyclesCounter = buffer.getLong();
+        instructionsCounter = buffer.getLong();
+    }
+
+    public int executeStep() {
+        int nextInstruction = signedToUsignedByte(mmu.readAddress(pc));
+        // Stores to $4014 halt the CPU while OAM DMA runs
+        int cycles = handlers[nextInstruction].execute(this) + mmu.takeStallCycles();
+        cyclesCounter += cycles;
+        instructionsCounter++;
+        return cycles;
+    }
+
+    // Executes instructions until the scheduler's earliest event is due. The deadline is
+    // re-read after every instruction, so events raised along the way cut the batch short
+    public void runUntilNextEvent(Scheduler scheduler) {
+        while (cyclesCounter < scheduler.getNextEventCycle()) {
+            var block = blockAt(pc);
+            if (block == null) {
+                executeStep();
+            } else if (dynarec && observers.length == 0 && compiledFor(block) != null) {
+                block.compiled.run(this, mmu, scheduler);
+            } else {
+                runBlock(block, scheduler);
+            }
         }
+    }
 
-        var cycles = 0;
-        switch (opcode) {
-            case BRK:
-                cycles = brk();
-                break;
-            case ORA_IMMEDIATE:
-                cycles = oraImmediate();
-                break;
-            case BPL:
-                cycles = bpl();
-                break;
-            case BMI:
-                cycles = bmi();
-                break;
-            case JSR:
-                cycles = jsr();
-                break;
-            case RTS:
-                cycles = rts();
-                break;
-            case PHA:
-                cycles = pha();
-                break;
-            case JMP_ABSOLUTE:
-                cycles = jmpAbsolute();
-                break;
-            case SEI:
-                cycles = sei();
-                break;
-            case STY_ZERO_PAGE:
-                cycles = styZeroPage();
-                break;
-            case STA_ZERO_PAGE:
-                cycles = staZeroPage();
-                break;
-            case STX_ZERO_PAGE:
-                cycles = stxZeroPage();
-                break;
-            case DEY:
-                cycles = dey();
-                break;
-            case INC_ABSOLUTE:
-                cycles = incAbsolute();
-                break;
-            case DEC_ZERO_PAGE:
-                cycles = decZeroPage();
-                break;
-            case TXA:
-                cycles += txa();
-                break;
-            case STA_ABSOLUTE:
-                cycles = staAbsolute();
-                break;
-            case STX_ABSOLUTE:
-                cycles = stxAbsolute();
-                break;
-            case STY_ABSOLUTE:
-                cycles = styAbsolute();
-                break;
-            case BCC:
-                cycles = bcc();
-                break;
-            case STA_INDIRECT_Y:
-                cycles = staIndirectY();
-                break;
-            case STA_ABSOLUTE_X:
-                cycles = staAbsoluteX();
-                break;
-            case STA_ABSOLUTE_Y:
-                cycles = staAbsoluteY();
-                break;
-            case STA_ZERO_PAGE_X:
-                cycles = staZeroPageX();
-                break;
-            case TYA:
-                cycles = tya();
-                break;
-            case TAY:
-                cycles = tay();
-                break;
-            case TXS:
-                cycles = txs();
-                break;
-            case LDY_IMMEDIATE:
-                cycles = ldyImmediate();
-                break;
-            case LDX_IMMEDIATE:
-                cycles = ldxImmediate();
-                break;
-            case LDA_ZERO_PAGE:
-                cycles = ldaZeroPage();
-                break;
-            case LDA_IMMEDIATE:
-                cycles = ldaImmediate();
-                break;
-            case LDA_ABSOLUTE:
-                cycles = ldaAbsolute();
-                break;
-            case LDA_ABSOLUTE_X:
-                cycles = ldaAbsoluteX();
-                break;
-            case LDA_ABSOLUTE_Y:
-                cycles = ldaAbsoluteY();
-                break;
-            case CPY_IMMEDIATE:
-                cycles = cpyImmediate();
-                break;
-            case DEX:
-                cycles = dex();
-                break;
-            case BNE:
-                cycles = bne();
-                break;
-            case BEQ:
-                cycles = beq();
-                break;
-            case CLC:
-                cycles = clc();
-                break;
-            case CLD:
-                cycles = cld();
-                break;
-            case CMP_ABSOLUTE_X:
-                cycles = cmpAbsoluteX();
-                break;
-            case CMP_IMMEDIATE:
-                cycles = cmpImmediate();
-                break;
-            case INX:
-                cycles = inx();
-                break;
-            case INY:
-                cycles = iny();
-                break;
-            case NOP_1A:
-            case NOP_3A:
-            case NOP_5A:
-            case NOP_7A:
-            case NOP_DA:
-            case NOP_EA:
-            case NOP_FA:
-                cycles = nop();
-                break;
-            case NOP_ABSOLUTE:
-                cycles = nopAbsolute();
+    // Runs a block from its start until it ends, an event is due, or a store changes what
+    // some page maps (bank switches, self-modifying code), which may be the rest of this block
+    private void runBlock(BasicBlock block, Scheduler scheduler) {
+        var blockHandlers = block.handlers;
+        var operands = block.operands;
+        int generation = mmu.getCodeGeneration();
+        operandDecoded = true;
+        try {
+            for (int i = 0; i < blockHandlers.length; i++) {
+                operand = operands[i];
+                cyclesCounter += blockHandlers[i].execute(this) + mmu.takeStallCycles();
+                instructionsCounter++;
+                if (cyclesCounter >= scheduler.getNextEventCycle() || mmu.getCodeGeneration() != generation) {
+                    break;
+                }
+            }
+        } finally {
+            operandDecoded = false;
+        }
+    }
+
+    private CompiledBlock compiledFor(BasicBlock block) {
+        if (block.compiled == null && block.fromROM && ++block.executions >= COMPILE_THRESHOLD) {
+            block.compiled = compiledBlocks.compile(block);
+        }
+        return block.compiled;
+    }
+
+    // Runs one instruction whose operand bytes were decoded ahead; compiled blocks call this
+    // for the instructions they have no translation of
+    int executeDecoded(int opcode, int operand) {
+        this.operand = operand;
+        operandDecoded = true;
+        try {
+            return handlers[opcode].execute(this) + mmu.takeStallCycles();
+        } finally {
+            operandDecoded = false;
+        }
+    }
+
+    // The block starting at address, decoded now unless a current one is cached; null when
+    // its first instruction can't be run from a block
+    BasicBlock blockAt(int address) {
+        int page = address >>> PAGE_SHIFT;
+        var pageBlocks = blocks[page];
+        if (pageBlocks != null) {
+            var block = pageBlocks[address & PAGE_MASK];
+            if (block != null && block.version == mmu.getCodeVersion(page)) {
+                return block;
+            }
+        }
+        var block = decodeBlock(address);
+        if (block != null) {
+            if (pageBlocks == null) {
+                pageBlocks = blocks[page] = new BasicBlock[PAGE_SIZE];
+            }
+            pageBlocks[address & PAGE_MASK] = block;
+        }
+        return block;
+    }
+
+    // Blocks stop short of an instruction running into the next page, so each one is only
+    // invalidated through its own page's version
+    private BasicBlock decodeBlock(int address) {
+        int page = address >>> PAGE_SHIFT;
+        if (!mmu.protectCode(page)) {
+            return null;
+        }
+        // The first pass only counts the instructions, so the arrays are allocated at their size.
+        // Code pages are never I/O, so reading the bytes twice has no side effects.
+        int count = 0;
+        int position = address;
+        int offset = address & PAGE_MASK;
+        while (offset < PAGE_SIZE) {
+            int opcode = mmu.readAddress(position);
+            int length = Opcode.lengthOf(opcode);
+            if (handlers[opcode] == NOT_IMPLEMENTED || offset + length > PAGE_SIZE) {
                 break;
-            case NOP_ABSOLUTE_X_1C:
-            case NOP_ABSOLUTE_X_3C:
-            case NOP_ABSOLUTE_X_5C:
-            case NOP_ABSOLUTE_X_7C:
-            case NOP_ABSOLUTE_X_DC:
-            case NOP_ABSOLUTE_X_FC:
-                cycles = nopAbsoluteX();
+            }
+            count++;
+            if (blockEnds[opcode]) {
                 break;
+            }
+            position += length;
+            offset += length;
+        }
+        if (count == 0) {
+            return null;
+        }
+        var opcodes = new int[count];
+        var decodedHandlers = new OpcodeHandler[count];
+        var operands = new int[count];
+        for (int i = 0, next = address; i < count; i++) {
+            int opcode = mmu.readAddress(next);
+            int length = Opcode.lengthOf(opcode);
+            opcodes[i] = opcode;
+            decodedHandlers[i] = handlers[opcode];
+            operands[i] = (length > 1 ? mmu.readAddress(next + 1) : 0)
+                    | (length > 2 ? mmu.readAddress(next + 2) << 8 : 0);
+            next += length;
+        }
+        return new BasicBlock(address, opcodes, decodedHandlers, operands, mmu.getCodeVersion(page),
+                mmu.mapsROM(page));
+    }
+
+    private int operandLow() {
+        return operandDecoded ? operand & 0xFF : mmu.readAddress(pc + 1);
+    }
+
+    private int operandHigh() {
+        return operandDecoded ? operand >>> 8 : mmu.readAddress(pc + 2);
+    }
+
+    // Non-maskable interrupt, raised by the PPU when vertical blank starts
+    public int nmi() {
+        return interrupt(NMI_ADDRESS_1, NMI_ADDRESS_2);
+    }
+
+    // Maskable interrupt request; ignored while the interrupt disable flag is set
+    public int irq() {
+        if (isStatusFlagSet(STATUS_FLAG_INTERRUPT)) {
+            return 0;
+        }
+        return interrupt(IRQ_ADDRESS_1, IRQ_ADDRESS_2);
+    }
+
+    private int interrupt(int vectorAddress1, int vectorAddress2) {
+        settleFlags();
+        push2BytesToStack(pc);
+        pushToStack((p & ~(1 << STATUS_FLAG_BREAK)) | 0b00100000);
+        setStatusFlag(STATUS_FLAG_INTERRUPT);
+        pc = littleEndianToInt(mmu.readAddress(vectorAddress1), mmu.readAddress(vectorAddress2));
+        cyclesCounter += INTERRUPT_CYCLES;
+        return INTERRUPT_CYCLES;
+    }
+
+    private static void register(Opcode opcode, OpcodeHandler handler) {
+        handlers[opcode.getValue()] = handler;
+    }
+
+    private static boolean endsBlock(Opcode opcode) {
+        switch (opcode.getName()) {
+            case "BRK":
+            case "JMP":
+            case "JSR":
+            case "RTS":
+            case "RTI":
+                return true;
             default:
-                throw new RuntimeException(String.format("%04X: OpCode $%02X not implemented", pc, nextInstruction));
+                return opcode.getAddressingMode() == AddressingMode.RELATIVE;
         }
-        cyclesCounter += cycles;
-        return cycles;
     }
 
-    static boolean isStatusFlagSet(int flagIndex) {
+    private static void registerHandlers() {
+        Arrays.fill(handlers, NOT_IMPLEMENTED);
+
+        register(Opcode.BRK, CPU::brk);
+        register(Opcode.ORA_IMMEDIATE, CPU::oraImmediate);
+        register(Opcode.BPL, CPU::bpl);
+        register(Opcode.BMI, CPU::bmi);
+        register(Opcode.JSR, CPU::jsr);
+        register(Opcode.RTS, CPU::rts);
+        register(Opcode.RTI, CPU::rti);
+        register(Opcode.PHA, CPU::pha);
+        register(Opcode.JMP_ABSOLUTE, CPU::jmpAbsolute);
+        register(Opcode.SEI, CPU::sei);
+        register(Opcode.STY_ZERO_PAGE, CPU::styZeroPage);
+        register(Opcode.STA_ZERO_PAGE, CPU::staZeroPage);
+        register(Opcode.STX_ZERO_PAGE, CPU::stxZeroPage);
+        register(Opcode.DEY, CPU::dey);
+        register(Opcode.INC_ABSOLUTE, CPU::incAbsolute);
+        register(Opcode.DEC_ZERO_PAGE, CPU::decZeroPage);
+        register(Opcode.TXA, CPU::txa);
+        register(Opcode.STA_ABSOLUTE, CPU::staAbsolute);
+        register(Opcode.STX_ABSOLUTE, CPU::stxAbsolute);
+        register(Opcode.STY_ABSOLUTE, CPU::styAbsolute);
+        register(Opcode.BCC, CPU::bcc);
+        register(Opcode.STA_INDIRECT_Y, CPU::staIndirectY);
+        register(Opcode.STA_ABSOLUTE_X, CPU::staAbsoluteX);
+        register(Opcode.STA_ABSOLUTE_Y, CPU::staAbsoluteY);
+        register(Opcode.STA_ZERO_PAGE_X, CPU::staZeroPageX);
+        register(Opcode.TYA, CPU::tya);
+        register(Opcode.TAY, CPU::tay);
+        register(Opcode.TXS, CPU::txs);
+        register(Opcode.LDY_IMMEDIATE, CPU::ldyImmediate);
+        register(Opcode.LDX_IMMEDIATE, CPU::ldxImmediate);
+        register(Opcode.LDA_ZERO_PAGE, CPU::ldaZeroPage);
+        register(Opcode.LDA_IMMEDIATE, CPU::ldaImmediate);
+        register(Opcode.LDA_ABSOLUTE, CPU::ldaAbsolute);
+        register(Opcode.LDA_ABSOLUTE_X, CPU::ldaAbsoluteX);
+        register(Opcode.LDA_ABSOLUTE_Y, CPU::ldaAbsoluteY);
+        register(Opcode.CPY_IMMEDIATE, CPU::cpyImmediate);
+        register(Opcode.DEX, CPU::dex);
+        register(Opcode.BNE, CPU::bne);
+        register(Opcode.BEQ, CPU::beq);
+        register(Opcode.CLC, CPU::clc);
+        register(Opcode.CLD, CPU::cld);
+        register(Opcode.CMP_ABSOLUTE_X, CPU::cmpAbsoluteX);
+        register(Opcode.CMP_IMMEDIATE, CPU::cmpImmediate);
+        register(Opcode.INX, CPU::inx);
+        register(Opcode.INY, CPU::iny);
+
+        register(Opcode.NOP_1A, CPU::nop);
+        register(Opcode.NOP_3A, CPU::nop);
+        register(Opcode.NOP_5A, CPU::nop);
+        register(Opcode.NOP_7A, CPU::nop);
+        register(Opcode.NOP_DA, CPU::nop);
+        register(Opcode.NOP_EA, CPU::nop);
+        register(Opcode.NOP_FA, CPU::nop);
+        register(Opcode.NOP_ABSOLUTE, CPU::nopAbsolute);
+        register(Opcode.NOP_ABSOLUTE_X_1C, CPU::nopAbsoluteX);
+        register(Opcode.NOP_ABSOLUTE_X_3C, CPU::nopAbsoluteX);
+        register(Opcode.NOP_ABSOLUTE_X_5C, CPU::nopAbsoluteX);
+        register(Opcode.NOP_ABSOLUTE_X_7C, CPU::nopAbsoluteX);
+        register(Opcode.NOP_ABSOLUTE_X_DC, CPU::nopAbsoluteX);
+        register(Opcode.NOP_ABSOLUTE_X_FC, CPU::nopAbsoluteX);
+    }
+
+    private int notImplemented() {
+        int opcode = signedToUsignedByte(mmu.readAddress(pc));
+        throw new RuntimeException(String.format("%04X: OpCode $%02X not implemented", pc, opcode));
+    }
+
+    boolean isStatusFlagSet(int flagIndex) {
+        if (nz != NZ_SETTLED) {
+            if (flagIndex == STATUS_FLAG_ZERO) {
+                return nz == 0;
+            }
+            if (flagIndex == STATUS_FLAG_NEGATIVE) {
+                return (nz & 0x80) != 0;
+            }
+        }
         return (p & (1 << (flagIndex))) > 0;
     }
 
-    static void setStatusFlag(int flagIndex) {
+    void setStatusFlag(int flagIndex) {
+        if (flagIndex == STATUS_FLAG_ZERO || flagIndex == STATUS_FLAG_NEGATIVE) {
+            settleFlags();
+        }
         p |= 1 << flagIndex;
     }
 
-    static void unsetStatusFlag(int flagIndex) {
+    void unsetStatusFlag(int flagIndex) {
+        if (flagIndex == STATUS_FLAG_ZERO || flagIndex == STATUS_FLAG_NEGATIVE) {
+            settleFlags();
+        }
         p &= ~(1 << flagIndex);
     }
 
-    static int bmi() {
+    // Works a pending result's N and Z into p, for whatever reads or changes p as a whole
+    void settleFlags() {
+        if (nz != NZ_SETTLED) {
+            p = (byte) ((p & ~(1 << STATUS_FLAG_ZERO | 1 << STATUS_FLAG_NEGATIVE))
+                    | (nz == 0 ? 1 << STATUS_FLAG_ZERO : 0) | (nz & 1 << STATUS_FLAG_NEGATIVE));
+            nz = NZ_SETTLED;
+        }
+    }
+
+    int bmi() {
         // TODO: Cycles: +2 if to a new page
         var cycles = 2;
         var offset = 2;
-        final byte value = (byte) MMU.readAddress(pc + 1);
+        final byte value = (byte) operandLow();
         if (isStatusFlagSet(STATUS_FLAG_NEGATIVE)) {
             cycles += 1;
             offset += value;
@@ -283,11 +498,11 @@ public class CPU {
         return cycles;
     }
 
-    static int bcc() {
+    int bcc() {
         // TODO: Cycles: +2 if to a new page
         var cycles = 2;
         var offset = 2;
-        final int value = MMU.readAddress(pc + 1);
+        final byte value = (byte) operandLow();
         if (!isStatusFlagSet(STATUS_FLAG_CARRY)) {
             cycles += 1;
             offset += value;
@@ -300,11 +515,11 @@ public class CPU {
         return cycles;
     }
 
-    static int bpl() {
+    int bpl() {
         // TODO: Cycles: +2 if to a new page
         var cycles = 2;
         var offset = 2;
-        final int value = MMU.readAddress(pc + 1);
+        final byte value = (byte) operandLow();
         if (!isStatusFlagSet(STATUS_FLAG_NEGATIVE)) {
             cycles += 1;
             offset += value;
@@ -317,7 +532,7 @@ public class CPU {
         return cycles;
     }
 
-    static int sei() {
+    int sei() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.SEI, cycles);
@@ -328,23 +543,23 @@ public class CPU {
         return cycles;
     }
 
-    static int ldxImmediate() {
+    int ldxImmediate() {
         final int cycles = 2;
-        int value = MMU.readAddress(pc + 1);
+        int value = operandLow();
 
         notifyInstruction(Opcode.LDX_IMMEDIATE, cycles, value);
 
-        CPU.x = value & 0xff;
+        x = value & 0xff;
         setNonPositiveFlags((byte) x);
         pc += 2;
 
         return cycles;
     }
 
-    static int jmpAbsolute() {
+    int jmpAbsolute() {
         final int cycles = 3;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
         notifyInstruction(Opcode.JMP_ABSOLUTE, cycles, operand1, operand2);
 
@@ -353,7 +568,7 @@ public class CPU {
         return cycles;
     }
 
-    static int pha() {
+    int pha() {
         final int cycles = 3;
 
         notifyInstruction(Opcode.PHA, cycles);
@@ -364,7 +579,7 @@ public class CPU {
         return cycles;
     }
 
-    static int txa() {
+    int txa() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.TXA, cycles);
@@ -376,7 +591,7 @@ public class CPU {
         return cycles;
     }
 
-    static int tya() {
+    int tya() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.TYA, cycles);
@@ -388,54 +603,54 @@ public class CPU {
         return cycles;
     }
 
-    static int ldaAbsolute() {
+    int ldaAbsolute() {
         final int cycles = 4;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.LDA_ABSOLUTE, cycles, operand1, operand2);
 
-        a = MMU.readAddress(address) & 0xff;
+        a = mmu.readAddress(address) & 0xff;
         setNonPositiveFlags((byte) a);
         pc += 3;
 
         return cycles;
     }
 
-    static int ldaAbsoluteX() {
+    int ldaAbsoluteX() {
         final int cycles = 4;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.LDA_ABSOLUTE_X, cycles, operand1, operand2);
 
-        a = MMU.readAddress(address + x) & 0xff;
+        a = mmu.readAddress(address + x) & 0xff;
         setNonPositiveFlags((byte) a);
         pc += 3;
 
         return cycles;
     }
 
-    static int ldaAbsoluteY() {
+    int ldaAbsoluteY() {
         final int cycles = 4;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.LDA_ABSOLUTE_Y, cycles, operand1, operand2);
 
-        a = MMU.readAddress(address + y) & 0xff;
+        a = mmu.readAddress(address + y) & 0xff;
         setNonPositiveFlags((byte) a);
         pc += 3;
 
         return cycles;
     }
 
-    static int ldaImmediate() {
+    int ldaImmediate() {
         final int cycles = 2;
-        int value = MMU.readAddress(pc + 1);
+        int value = operandLow();
 
         notifyInstruction(Opcode.LDA_IMMEDIATE, cycles, value);
 
@@ -446,22 +661,22 @@ public class CPU {
         return cycles;
     }
 
-    static int ldaZeroPage() {
+    int ldaZeroPage() {
         final int cycles = 2;
-        int address = signedToUsignedByte(MMU.readAddress(pc + 1));
+        int address = signedToUsignedByte(operandLow());
 
         notifyInstruction(Opcode.LDA_ZERO_PAGE, cycles, address);
 
-        a = MMU.readAddress(address) & 0xff;
+        a = mmu.readAddress(address) & 0xff;
         setNonPositiveFlags((byte) a);
         pc += 2;
 
         return cycles;
     }
 
-    static int ldyImmediate() {
+    int ldyImmediate() {
         final int cycles = 2;
-        int value = MMU.readAddress(pc + 1);
+        int value = operandLow();
 
         notifyInstruction(Opcode.LDY_IMMEDIATE, cycles, value);
 
@@ -473,143 +688,143 @@ public class CPU {
     }
 
 
-    static int styAbsolute() {
+    int styAbsolute() {
         final int cycles = 4;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int value = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.STY_ABSOLUTE, cycles, operand1, operand2);
 
-        MMU.writeAddress(value, y);
+        mmu.writeAddress(value, y);
         pc += 3;
 
         return cycles;
     }
 
-    static int staAbsolute() {
+    int staAbsolute() {
         final int cycles = 4;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
-        notifyInstruction(Opcode.STA_ABSOLUTE, cycles, address, operand1, operand2);
+        notifyInstruction(Opcode.STA_ABSOLUTE, cycles, operand1, operand2);
 
-        MMU.writeAddress(address, a);
+        mmu.writeAddress(address, a);
         pc += 3;
 
         return cycles;
     }
 
-    static int staAbsoluteX() {
+    int staAbsoluteX() {
         final int cycles = 5;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.STA_ABSOLUTE_X, cycles, operand1, operand2);
 
-        MMU.writeAddress(address + x, a);
+        mmu.writeAddress(address + x, a);
         pc += 3;
 
         return cycles;
     }
 
-    static int staAbsoluteY() {
+    int staAbsoluteY() {
         final int cycles = 5;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.STA_ABSOLUTE_Y, cycles, operand1, operand2);
 
-        MMU.writeAddress(address + y, a);
+        mmu.writeAddress(address + y, a);
         pc += 3;
 
         return cycles;
     }
 
-    static int staIndirectY() {
+    int staIndirectY() {
         //TODO: add 1 cycle if page boundary is crossed
         int cycles = 6;
-        int addressLSB = signedToUsignedByte(MMU.readAddress(pc + 1));
-        int address = littleEndianToInt(MMU.readAddress(addressLSB), MMU.readAddress(addressLSB + 1));
+        int addressLSB = signedToUsignedByte(operandLow());
+        int address = littleEndianToInt(mmu.readAddress(addressLSB), mmu.readAddress(addressLSB + 1));
 
         notifyInstruction(Opcode.STA_INDIRECT_Y, cycles, addressLSB);
 
-        MMU.writeAddress(address + y, a);
+        mmu.writeAddress(address + y, a);
         pc += 2;
 
         return cycles;
     }
 
-    static int styZeroPage() {
+    int styZeroPage() {
         final int cycles = 3;
-        int address = signedToUsignedByte(MMU.readAddress(pc + 1));
+        int address = signedToUsignedByte(operandLow());
 
         notifyInstruction(Opcode.STY_ZERO_PAGE, cycles, address);
 
-        MMU.writeAddress(address, y);
+        mmu.writeAddress(address, y);
         pc += 2;
 
         return cycles;
     }
 
-    static int staZeroPage() {
+    int staZeroPage() {
         final int cycles = 3;
-        int address = signedToUsignedByte(MMU.readAddress(pc + 1));
+        int address = signedToUsignedByte(operandLow());
 
         notifyInstruction(Opcode.STA_ZERO_PAGE, cycles, address);
 
-        MMU.writeAddress(address, a);
+        mmu.writeAddress(address, a);
         pc += 2;
 
         return cycles;
     }
 
-    static int stxAbsolute() {
+    int stxAbsolute() {
         final int cycles = 4;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
-        notifyInstruction(Opcode.STX_ABSOLUTE, cycles, address, operand1, operand2);
+        notifyInstruction(Opcode.STX_ABSOLUTE, cycles, operand1, operand2);
 
-        MMU.writeAddress(address, x);
+        mmu.writeAddress(address, x);
         pc += 3;
 
         return cycles;
     }
 
-    static int stxZeroPage() {
+    int stxZeroPage() {
         final int cycles = 3;
-        int address = signedToUsignedByte(MMU.readAddress(pc + 1));
+        int address = signedToUsignedByte(operandLow());
 
         notifyInstruction(Opcode.STX_ZERO_PAGE, cycles, address);
 
-        MMU.writeAddress(address, x);
+        mmu.writeAddress(address, x);
         pc += 2;
 
         return cycles;
     }
 
-    static int staZeroPageX() {
+    int staZeroPageX() {
         final int cycles = 4;
-        int address = signedToUsignedByte(MMU.readAddress(pc + 1));
+        int address = signedToUsignedByte(operandLow());
 
         notifyInstruction(Opcode.STA_ZERO_PAGE_X, cycles, address);
 
-        MMU.writeAddress(address + CPU.x, CPU.a);
+        mmu.writeAddress(address + x, a);
         pc += 2;
 
         return cycles;
     }
 
-    static int jsr() {
+    int jsr() {
         final int cycles = 6;
 
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.JSR, cycles, operand1, operand2);
@@ -621,7 +836,7 @@ public class CPU {
         return cycles;
     }
 
-    static int rts() {
+    int rts() {
         final int cycles = 6;
 
         notifyInstruction(Opcode.RTS, cycles);
@@ -631,7 +846,19 @@ public class CPU {
         return cycles;
     }
 
-    static int dey() {
+    int rti() {
+        final int cycles = 6;
+
+        notifyInstruction(Opcode.RTI, cycles);
+
+        p = (byte) pullFromStack();
+        nz = NZ_SETTLED;
+        pc = pull2BytesFromStack();
+
+        return cycles;
+    }
+
+    int dey() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.DEY, cycles);
@@ -644,16 +871,16 @@ public class CPU {
         return cycles;
     }
 
-    static int decZeroPage() {
+    int decZeroPage() {
         final int cycles = 5;
 
-        int address = signedToUsignedByte(MMU.readAddress(pc + 1));
+        int address = signedToUsignedByte(operandLow());
 
         notifyInstruction(Opcode.DEC_ZERO_PAGE, cycles, address);
 
-        int value = MMU.readAddress(address);
+        int value = mmu.readAddress(address);
         int newValue = (value - 1) & 0xFF;
-        MMU.writeAddress(address, newValue);
+        mmu.writeAddress(address, newValue);
         setNonPositiveFlags((byte) newValue);
 
         pc += 2;
@@ -661,18 +888,18 @@ public class CPU {
         return cycles;
     }
 
-    static int incAbsolute() {
+    int incAbsolute() {
         final int cycles = 6;
 
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.INC_ABSOLUTE, cycles, operand1, operand2);
 
-        int value = MMU.readAddress(address);
+        int value = mmu.readAddress(address);
         int newValue = (value + 1) & 0xFF;
-        MMU.writeAddress(address, newValue);
+        mmu.writeAddress(address, newValue);
         setNonPositiveFlags((byte) newValue);
 
         pc += 3;
@@ -680,11 +907,11 @@ public class CPU {
         return cycles;
     }
 
-    static int bne() {
+    int bne() {
         // TODO: cycles +2 if to a new page
         var cycles = 2;
         var offset = 2;
-        final int value = MMU.readAddress(pc + 1);
+        final byte value = (byte) operandLow();
 
         if (!isStatusFlagSet(STATUS_FLAG_ZERO)) {
             cycles += 1;
@@ -698,12 +925,12 @@ public class CPU {
         return cycles;
     }
 
-    static int beq() {
+    int beq() {
         // TODO: cycles +2 if to a new page
         var cycles = 2;
         var offset = 2;
 
-        final int value = MMU.readAddress(pc + 1);
+        final byte value = (byte) operandLow();
         if (isStatusFlagSet(STATUS_FLAG_ZERO)) {
             cycles += 1;
             offset += value;
@@ -716,7 +943,7 @@ public class CPU {
         return cycles;
     }
 
-    static int clc() {
+    int clc() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.CLC, cycles);
@@ -727,7 +954,7 @@ public class CPU {
         return cycles;
     }
 
-    static int cld() {
+    int cld() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.CLD, cycles);
@@ -738,7 +965,7 @@ public class CPU {
         return cycles;
     }
 
-    static int txs() {
+    int txs() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.TXS, cycles);
@@ -749,7 +976,7 @@ public class CPU {
         return cycles;
     }
 
-    static int tay() {
+    int tay() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.TAY, cycles);
@@ -761,7 +988,7 @@ public class CPU {
         return cycles;
     }
 
-    static int inx() {
+    int inx() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.INX, cycles);
@@ -773,7 +1000,7 @@ public class CPU {
         return cycles;
     }
 
-    static int iny() {
+    int iny() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.INY, cycles);
@@ -785,7 +1012,7 @@ public class CPU {
         return cycles;
     }
 
-    static int dex() {
+    int dex() {
         final int cycles = 2;
 
         notifyInstruction(Opcode.DEX, cycles);
@@ -797,13 +1024,13 @@ public class CPU {
         return cycles;
     }
 
-    static int cpyImmediate() {
+    int cpyImmediate() {
         final int cycles = 2;
-        int value = MMU.readAddress(pc + 1);
+        int value = operandLow();
 
         notifyInstruction(Opcode.CPY_IMMEDIATE, cycles, value);
 
-        var result = CPU.y - value;
+        var result = y - value;
         setComparisonFlags(result);
 
         pc += 2;
@@ -811,34 +1038,34 @@ public class CPU {
         return cycles;
     }
 
-    static int nop() {
+    int nop() {
         pc += 1;
         return 2;
     }
 
-    static int nopAbsolute() {
+    int nopAbsolute() {
         pc += 3;
         return 4;
     }
 
-    static int nopAbsoluteX() {
+    int nopAbsoluteX() {
         // TODO: add +1 to cycle if page is crossed (it's in the spec, but WTF?!?)
         pc += 3;
         return 4;
     }
 
-    static int cmpAbsoluteX() {
+    int cmpAbsoluteX() {
         // TODO: add +1 to cycle if page is crossed
         int cycles = 4;
-        int operand1 = MMU.readAddress(pc + 1);
-        int operand2 = MMU.readAddress(pc + 2);
+        int operand1 = operandLow();
+        int operand2 = operandHigh();
         int address = littleEndianToInt(operand1, operand2);
 
         notifyInstruction(Opcode.CMP_ABSOLUTE_X, cycles, operand1, operand2);
 
-        var value = MMU.readAddress(address + x);
+        var value = mmu.readAddress(address + x);
 
-        var result = CPU.a - value;
+        var result = a - value;
         setComparisonFlags(result);
 
         pc += 3;
@@ -846,20 +1073,20 @@ public class CPU {
         return cycles;
     }
 
-    static int cmpImmediate() {
+    int cmpImmediate() {
         int cycles = 2;
-        int value = MMU.readAddress(pc + 1);
+        int value = operandLow();
 
         notifyInstruction(Opcode.CMP_IMMEDIATE, cycles, value);
 
-        var result = CPU.a - value;
+        var result = a - value;
         setComparisonFlags(result);
 
         pc += 2;
         return cycles;
     }
 
-    private static void setComparisonFlags(int result) {
+    private void setComparisonFlags(int result) {
         if (result > 0) {
             setStatusFlag(STATUS_FLAG_CARRY);
         } else if (result == 0) {
@@ -870,24 +1097,25 @@ public class CPU {
         }
     }
 
-    static int brk() {
+    int brk() {
         final int cycles = 7;
 
         notifyInstruction(Opcode.BRK, cycles);
 
         setStatusFlag(STATUS_FLAG_BREAK);
+        settleFlags();
 
         push2BytesToStack(pc);
         pushToStack(p);
 
-        pc = littleEndianToInt(MMU.readAddress(IRQ_ADDRESS_1), MMU.readAddress(IRQ_ADDRESS_2));
+        pc = littleEndianToInt(mmu.readAddress(IRQ_ADDRESS_1), mmu.readAddress(IRQ_ADDRESS_2));
 
         return cycles;
     }
 
-    static int oraImmediate() {
+    int oraImmediate() {
         final int cycles = 2;
-        int value = MMU.readAddress(pc + 1);
+        int value = operandLow();
 
         notifyInstruction(Opcode.ORA_IMMEDIATE, cycles, value);
 
@@ -908,26 +1136,16 @@ public class CPU {
         return (i2 << 8) | i1;
     }
 
-    private static void setNonPositiveFlags(byte value) {
-        if (value == 0) {
-            setStatusFlag(STATUS_FLAG_ZERO);
-        } else {
-            unsetStatusFlag(STATUS_FLAG_ZERO);
-        }
-
-        if (value < 0) {
-            setStatusFlag(STATUS_FLAG_NEGATIVE);
-        } else {
-            unsetStatusFlag(STATUS_FLAG_NEGATIVE);
-        }
+    private void setNonPositiveFlags(byte value) {
+        nz = value & 0xFF;
     }
 
-    static void pushToStack(int value) {
-        MMU.writeAddress(0x0100 + s, value);
+    void pushToStack(int value) {
+        mmu.writeAddress(0x0100 + s, value);
         s--;
     }
 
-    static void push2BytesToStack(int value) {
+    void push2BytesToStack(int value) {
         int high = ((value >> 8) & 0xFF);
         int low = (value & 0xFF);
 
@@ -935,12 +1153,12 @@ public class CPU {
         pushToStack(low);
     }
 
-    static int pullFromStack() {
+    int pullFromStack() {
         s++;
-        return MMU.readAddress(0x0100 + s);
+        return mmu.readAddress(0x0100 + s);
     }
 
-    static int pull2BytesFromStack() {
+    int pull2BytesFromStack() {
         int low = pullFromStack();
         int high = pullFromStack();
         return ((high << 8) & 0xFF00) | (low & 0xFF);
@@ -0,0 +1,324 @@
+package nesemulator.cpu;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Just enough of the class file format to emit a final class with a public no-argument
+// constructor and one public method, overriding its superclass's. Version 49 class files
+// are verified by type inference, so the method needs no stack map frames.
+final class ClassBuilder {
+
+    static final int ILOAD = 0x15;
+    static final int LLOAD = 0x16;
+    static final int ISTORE = 0x36;
+    static final int LSTORE = 0x37;
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int LDC2_W = 0x14;
+    static final int ALOAD = 0x19;
+    static final int ALOAD_0 = 0x2A;
+    static final int DUP = 0x59;
+    static final int IADD = 0x60;
+    static final int LADD = 0x61;
+    static final int ISUB = 0x64;
+    static final int IAND = 0x7E;
+    static final int IOR = 0x80;
+    static final int I2L = 0x85;
+    static final int I2B = 0x91;
+    static final int LCMP = 0x94;
+    static final int IFEQ = 0x99;
+    static final int IFNE = 0x9A;
+    static final int IFLT = 0x9B;
+    static final int IFLE = 0x9E;
+    static final int IF_ICMPEQ = 0x9F;
+    static final int GOTO = 0xA7;
+    static final int RETURN = 0xB1;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int VERSION = 49;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int MAX_CODE_LENGTH = 0xFFFF;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolBytes);
+    private final Map<String, Integer> poolIndexes = new HashMap<>();
+    private int poolCount = 1;
+
+    // A position in a method's code, which branches may refer to before it is bound
+    static final class Label {
+        private int position = -1;
+        private final List<Integer> branches = new ArrayList<>();
+    }
+
+    // The bytecode of one method
+    final class Code {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private byte[] patched;
+
+        void op(int opcode) {
+            bytes.write(opcode);
+        }
+
+        void iconst(int value) {
+            if (value >= -1 && value <= 5) {
+                op(ICONST_0 + value);
+            } else if (value == (byte) value) {
+                op(BIPUSH);
+                bytes.write(value);
+            } else if (value == (short) value) {
+                op(SIPUSH);
+                u2(value);
+            } else {
+                op(LDC_W);
+                u2(integer(value));
+            }
+        }
+
+        void lconst(long value) {
+            op(LDC2_W);
+            u2(longConstant(value));
+        }
+
+        void local(int opcode, int index) {
+            op(opcode);
+            bytes.write(index);
+        }
+
+        void invoke(int opcode, String owner, String name, String descriptor) {
+            op(opcode);
+            u2(member(CONSTANT_METHODREF, owner, name, descriptor));
+        }
+
+        void branch(int opcode, Label label) {
+            int position = bytes.size();
+            op(opcode);
+            if (label.position >= 0) {
+                u2(label.position - position);
+            } else {
+                label.branches.add(position);
+                u2(0);
+            }
+        }
+
+        void bind(Label label) {
+            label.position = bytes.size();
+        }
+
+        private void u2(int value) {
+            bytes.write(value >> 8);
+            bytes.write(value);
+        }
+
+        // The final code, with every forward branch pointed at its label
+        private byte[] toByteArray() {
+            if (patched == null) {
+                patched = bytes.toByteArray();
+            }
+            return patched;
+        }
+
+        private void patch(Label label) {
+            for (int position : label.branches) {
+                int offset = label.position - position;
+                if (offset != (short) offset) {
+                    throw new IllegalStateException(String.format("Branch at %d out of range", position));
+                }
+                patched[position + 1] = (byte) (offset >> 8);
+                patched[position + 2] = (byte) offset;
+            }
+        }
+    }
+
+    private final List<Label> labels = new ArrayList<>();
+
+    Label newLabel() {
+        var label = new Label();
+        labels.add(label);
+        return label;
+    }
+
+    // Names are internal ones (java/lang/Object); the superclass needs a no-argument constructor
+    // the class can call
+    byte[] build(String name, String superName, String methodName, String descriptor,
+                 Code code, int maxStack, int maxLocals) {
+        var body = code.toByteArray();
+        for (Label label : labels) {
+            if (label.position < 0 && !label.branches.isEmpty()) {
+                throw new IllegalStateException(String.format("Unbound label in %s", name));
+            }
+            code.patch(label);
+        }
+        if (body.length > MAX_CODE_LENGTH) {
+            throw new IllegalStateException(String.format("Method of %s too long (%d bytes)", name, body.length));
+        }
+
+        var constructor = new Code();
+        constructor.op(ALOAD_0);
+        constructor.invoke(INVOKESPECIAL, superName, "<init>", "()V");
+        constructor.op(RETURN);
+
+        int thisClass = classRef(name);
+        int superClass = classRef(superName);
+        int codeName = utf8("Code");
+        int constructorName = utf8("<init>");
+        int constructorDescriptor = utf8("()V");
+        int runName = utf8(methodName);
+        int runDescriptor = utf8(descriptor);
+
+        try {
+            var classBytes = new ByteArrayOutputStream();
+            var out = new DataOutputStream(classBytes);
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            pool.flush();
+            poolBytes.writeTo(out);
+            out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // Interfaces
+            out.writeShort(0); // Fields
+            out.writeShort(2);
+            writeMethod(out, constructorName, constructorDescriptor, codeName, constructor.toByteArray(), 1, 1);
+            writeMethod(out, runName, runDescriptor, codeName, body, maxStack, maxLocals);
+            out.writeShort(0); // Class attributes
+            return classBytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeName,
+                                    byte[] code, int maxStack, int maxLocals) throws IOException {
+        out.writeShort(ACC_PUBLIC);
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0); // Exception table
+        out.writeShort(0); // Code attributes
+    }
+
+    private int utf8(String value) {
+        var key = "U" + value;
+        var index = poolIndexes.get(key);
+        if (index == null) {
+            index = addEntry(key, 1, out -> {
+                out.writeByte(CONSTANT_UTF8);
+                out.writeUTF(value);
+            });
+        }
+        return index;
+    }
+
+    private int integer(int value) {
+        var key = "I" + value;
+        var index = poolIndexes.get(key);
+        if (index == null) {
+            index = addEntry(key, 1, out -> {
+                out.writeByte(CONSTANT_INTEGER);
+                out.writeInt(value);
+            });
+        }
+        return index;
+    }
+
+    private int longConstant(long value) {
+        var key = "J" + value;
+        var index = poolIndexes.get(key);
+        if (index == null) {
+            index = addEntry(key, 2, out -> {
+                out.writeByte(CONSTANT_LONG);
+                out.writeLong(value);
+            });
+        }
+        return index;
+    }
+
+    private int classRef(String name) {
+        var key = "C" + name;
+        var index = poolIndexes.get(key);
+        if (index == null) {
+            int nameIndex = utf8(name);
+            index = addEntry(key, 1, out -> {
+                out.writeByte(CONSTANT_CLASS);
+                out.writeShort(nameIndex);
+            });
+        }
+        return index;
+    }
+
+    private int member(int tag, String owner, String name, String descriptor) {
+        var key = tag + owner + "." + name + ":" + descriptor;
+        var index = poolIndexes.get(key);
+        if (index == null) {
+            int ownerIndex = classRef(owner);
+            int nameAndType = nameAndType(name, descriptor);
+            index = addEntry(key, 1, out -> {
+                out.writeByte(tag);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+        return index;
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        var key = "N" + name + ":" + descriptor;
+        var index = poolIndexes.get(key);
+        if (index == null) {
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            index = addEntry(key, 1, out -> {
+                out.writeByte(CONSTANT_NAME_AND_TYPE);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+        }
+        return index;
+    }
+
+    private interface EntryWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Longs take two pool slots
+    private int addEntry(String key, int slots, EntryWriter writer) {
+        try {
+            writer.write(pool);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int index = poolCount;
+        poolCount += slots;
+        poolIndexes.put(key, index);
+        return index;
+    }
+}
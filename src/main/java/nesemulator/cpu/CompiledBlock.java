@@ -0,0 +1,89 @@
+package nesemulator.cpu;
+
+import nesemulator.MMU;
+import nesemulator.Scheduler;
+
+// A basic block translated to a JVM class by BlockCompiler. Runs the block from its start,
+// stopping early wherever the interpreter would, and leaves the CPU as the interpreter would.
+//
+// Each generated class has a class loader of its own, which puts it in another runtime package
+// than the CPU, so it reaches the CPU's registers through the accessors here instead.
+public abstract class CompiledBlock {
+
+    protected CompiledBlock() {
+    }
+
+    public abstract void run(CPU cpu, MMU mmu, Scheduler scheduler);
+
+    protected static int a(CPU cpu) {
+        return cpu.a;
+    }
+
+    protected static void setA(CPU cpu, int a) {
+        cpu.a = a;
+    }
+
+    protected static int x(CPU cpu) {
+        return cpu.x;
+    }
+
+    protected static void setX(CPU cpu, int x) {
+        cpu.x = x;
+    }
+
+    protected static int y(CPU cpu) {
+        return cpu.y;
+    }
+
+    protected static void setY(CPU cpu, int y) {
+        cpu.y = y;
+    }
+
+    protected static byte p(CPU cpu) {
+        return cpu.p;
+    }
+
+    protected static void setP(CPU cpu, byte p) {
+        cpu.p = p;
+    }
+
+    protected static int nz(CPU cpu) {
+        return cpu.nz;
+    }
+
+    protected static void setNz(CPU cpu, int nz) {
+        cpu.nz = nz;
+    }
+
+    protected static void setPc(CPU cpu, int pc) {
+        cpu.pc = pc;
+    }
+
+    protected static int pc(CPU cpu) {
+        return cpu.pc;
+    }
+
+    protected static void setS(CPU cpu, int s) {
+        cpu.s = s;
+    }
+
+    protected static long cyclesCounter(CPU cpu) {
+        return cpu.cyclesCounter;
+    }
+
+    protected static void setCyclesCounter(CPU cpu, long cycles) {
+        cpu.cyclesCounter = cycles;
+    }
+
+    protected static long instructionsCounter(CPU cpu) {
+        return cpu.instructionsCounter;
+    }
+
+    protected static void setInstructionsCounter(CPU cpu, long instructions) {
+        cpu.instructionsCounter = instructions;
+    }
+
+    protected static int executeDecoded(CPU cpu, int opcode, int operand) {
+        return cpu.executeDecoded(opcode, operand);
+    }
+}
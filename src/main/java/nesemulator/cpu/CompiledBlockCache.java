@@ -0,0 +1,58 @@
+package nesemulator.cpu;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compiled blocks by the code they were generated from, so blocks decoded again after a bank
+// switch reuse a class rather than define another. Holds at most capacity classes, dropping
+// the least recently compiled or reused one; every class has a loader of its own, so a dropped
+// one is unloaded once no decoded block runs it any more. A forked CPU shares its parent's
+// cache, as the classes depend only on the code and a fork runs the same cart.
+final class CompiledBlockCache {
+
+    static final int DEFAULT_CAPACITY = 4096;
+
+    private final int capacity;
+    private final Map<String, CompiledBlock> blocks = new LinkedHashMap<>(16, 0.75f, true);
+
+    CompiledBlockCache(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // The class is built outside the lock, so forks running on other threads never wait for
+    // each other's compiles. Two threads may build the same block; the first one in is kept.
+    CompiledBlock compile(BasicBlock block) {
+        var key = keyOf(block);
+        synchronized (this) {
+            var compiled = blocks.get(key);
+            if (compiled != null) {
+                return compiled;
+            }
+        }
+        var built = BlockCompiler.compile(block);
+        synchronized (this) {
+            var compiled = blocks.putIfAbsent(key, built);
+            if (compiled != null) {
+                return compiled;
+            }
+            if (blocks.size() > capacity) {
+                var eldest = blocks.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return built;
+    }
+
+    synchronized int size() {
+        return blocks.size();
+    }
+
+    private static String keyOf(BasicBlock block) {
+        var key = new StringBuilder().append((char) block.address);
+        for (int i = 0; i < block.opcodes.length; i++) {
+            key.append((char) block.opcodes[i]).append((char) block.operands[i]);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,6 @@
+package nesemulator.cpu;
+
+@FunctionalInterface
+interface OpcodeHandler {
+    int execute(CPU cpu);
+}
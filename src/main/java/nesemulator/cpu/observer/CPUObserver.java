@@ -3,5 +3,6 @@ package nesemulator.cpu.observer;
 import nesemulator.cpu.Opcode;
 
 public interface CPUObserver {
-    void notifyCPUInstruction(int programCount, Opcode opcode, int cycles, int... operands);
+    // Operands beyond the opcode's addressing mode length are passed as 0
+    void notifyCPUInstruction(int programCount, Opcode opcode, int cycles, int operand1, int operand2);
 }
@@ -10,8 +10,8 @@ public class LogCPUObserver implements CPUObserver {
     static final Logger logger = LoggerFactory.getLogger(LogCPUObserver.class);
 
     @Override
-    public void notifyCPUInstruction(int programCount, Opcode opcode, int cycles, int... operands) {
-        String formattedOperands = CPUFormatter.getFormattedOperands(opcode.getAddressingMode(), operands);
+    public void notifyCPUInstruction(int programCount, Opcode opcode, int cycles, int operand1, int operand2) {
+        String formattedOperands = CPUFormatter.getFormattedOperands(opcode.getAddressingMode(), operand1, operand2);
         logger.info(String.format("%04X: %s%s (%d cycles)", programCount, opcode.getName(), formattedOperands, cycles));
     }
 }
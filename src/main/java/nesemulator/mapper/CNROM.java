@@ -0,0 +1,39 @@
+package nesemulator.mapper;
+
+import nesemulator.Cart;
+
+import java.nio.ByteBuffer;
+
+// Mapper 3: fixed PRG, switchable 8 KB CHR bank
+class CNROM extends Mapper {
+
+    private int chrBank;
+
+    CNROM(Cart cart) {
+        super(cart);
+    }
+
+    @Override
+    protected void reset() {
+        selectPRG(PRG_ROM_ADDRESS, 0x4000, 0);
+        selectPRG(0xC000, 0x4000, 1);
+        chrBank = 0;
+        selectCHR(0x0000, 0x2000, chrBank);
+    }
+
+    @Override
+    public void writeRegister(int address, int value) {
+        chrBank = value & 0x03;
+        selectCHR(0x0000, 0x2000, chrBank);
+    }
+
+    @Override
+    protected void saveRegisters(ByteBuffer buffer) {
+        buffer.put((byte) chrBank);
+    }
+
+    @Override
+    protected void loadRegisters(ByteBuffer buffer) {
+        writeRegister(PRG_ROM_ADDRESS, buffer.get());
+    }
+}
@@ -0,0 +1,124 @@
+package nesemulator.mapper;
+
+import nesemulator.Cart;
+import nesemulator.Mirroring;
+
+import java.nio.ByteBuffer;
+
+// Mapper 1: registers are loaded one bit at a time through a 5-bit serial shift register
+class MMC1 extends Mapper {
+
+    private static final int SHIFT_REGISTER_EMPTY = 0x10;
+    private static final int CONTROL_POWER_ON = 0x0C;
+
+    private int shiftRegister;
+    private int control;
+    private int chrBank0;
+    private int chrBank1;
+    private int prgBank;
+
+    MMC1(Cart cart) {
+        super(cart);
+    }
+
+    @Override
+    protected void reset() {
+        shiftRegister = SHIFT_REGISTER_EMPTY;
+        control = CONTROL_POWER_ON;
+        chrBank0 = 0;
+        chrBank1 = 0;
+        prgBank = 0;
+        updateBanks();
+    }
+
+    @Override
+    public void writeRegister(int address, int value) {
+        if ((value & 0x80) != 0) {
+            shiftRegister = SHIFT_REGISTER_EMPTY;
+            control |= CONTROL_POWER_ON;
+            updateBanks();
+            return;
+        }
+
+        boolean complete = (shiftRegister & 1) != 0;
+        shiftRegister = (shiftRegister >> 1) | ((value & 1) << 4);
+        if (!complete) {
+            return;
+        }
+
+        switch ((address >> 13) & 0b11) {
+            case 0:
+                control = shiftRegister;
+                break;
+            case 1:
+                chrBank0 = shiftRegister;
+                break;
+            case 2:
+                chrBank1 = shiftRegister;
+                break;
+            default:
+                prgBank = shiftRegister & 0x0F;
+                break;
+        }
+        shiftRegister = SHIFT_REGISTER_EMPTY;
+        updateBanks();
+    }
+
+    @Override
+    protected void saveRegisters(ByteBuffer buffer) {
+        buffer.put((byte) shiftRegister);
+        buffer.put((byte) control);
+        buffer.put((byte) chrBank0);
+        buffer.put((byte) chrBank1);
+        buffer.put((byte) prgBank);
+    }
+
+    @Override
+    protected void loadRegisters(ByteBuffer buffer) {
+        shiftRegister = buffer.get() & 0xFF;
+        control = buffer.get() & 0xFF;
+        chrBank0 = buffer.get() & 0xFF;
+        chrBank1 = buffer.get() & 0xFF;
+        prgBank = buffer.get() & 0xFF;
+        updateBanks();
+    }
+
+    private void updateBanks() {
+        switch (control & 0b11) {
+            case 0:
+                setMirroring(Mirroring.SINGLE_SCREEN_LOWER);
+                break;
+            case 1:
+                setMirroring(Mirroring.SINGLE_SCREEN_UPPER);
+                break;
+            case 2:
+                setMirroring(Mirroring.VERTICAL);
+                break;
+            default:
+                setMirroring(Mirroring.HORIZONTAL);
+                break;
+        }
+
+        switch ((control >> 2) & 0b11) {
+            case 0:
+            case 1:
+                selectPRG(PRG_ROM_ADDRESS, 0x8000, prgBank >> 1);
+                break;
+            case 2:
+                selectPRG(PRG_ROM_ADDRESS, 0x4000, 0);
+                selectPRG(0xC000, 0x4000, prgBank);
+                break;
+            default:
+                selectPRG(PRG_ROM_ADDRESS, 0x4000, prgBank);
+                selectPRG(0xC000, 0x4000, prgBankCount(0x4000) - 1);
+                break;
+        }
+
+        if ((control & 0x10) == 0) {
+            selectCHR(0x0000, 0x2000, chrBank0 >> 1);
+        } else {
+            selectCHR(0x0000, 0x1000, chrBank0);
+            selectCHR(0x1000, 0x1000, chrBank1);
+        }
+    }
+}
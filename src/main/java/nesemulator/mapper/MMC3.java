@@ -0,0 +1,157 @@
+package nesemulator.mapper;
+
+import nesemulator.Cart;
+import nesemulator.Mirroring;
+
+import java.nio.ByteBuffer;
+
+// Mapper 4: 8 KB PRG and 1/2 KB CHR banks plus a scanline counter that raises IRQs
+class MMC3 extends Mapper {
+
+    private final int[] bankRegisters = new int[8];
+    private int bankSelect;
+    private boolean horizontalMirroring;
+
+    private int irqLatch;
+    private int irqCounter;
+    private boolean irqReload;
+    private boolean irqEnabled;
+    private boolean irqPending;
+
+    MMC3(Cart cart) {
+        super(cart);
+    }
+
+    @Override
+    protected void reset() {
+        bankSelect = 0;
+        horizontalMirroring = cart.getMirroring() == Mirroring.HORIZONTAL;
+        bankRegisters[0] = 0;
+        bankRegisters[1] = 2;
+        bankRegisters[2] = 4;
+        bankRegisters[3] = 5;
+        bankRegisters[4] = 6;
+        bankRegisters[5] = 7;
+        bankRegisters[6] = 0;
+        bankRegisters[7] = 1;
+        irqLatch = irqCounter = 0;
+        irqReload = irqEnabled = irqPending = false;
+        updateBanks();
+    }
+
+    @Override
+    public void writeRegister(int address, int value) {
+        switch (address & 0xE001) {
+            case 0x8000:
+                bankSelect = value;
+                updateBanks();
+                break;
+            case 0x8001:
+                bankRegisters[bankSelect & 0b111] = value;
+                updateBanks();
+                break;
+            case 0xA000:
+                horizontalMirroring = (value & 1) != 0;
+                updateMirroring();
+                break;
+            case 0xC000:
+                irqLatch = value;
+                break;
+            case 0xC001:
+                irqCounter = 0;
+                irqReload = true;
+                break;
+            case 0xE000:
+                irqEnabled = false;
+                irqPending = false;
+                break;
+            case 0xE001:
+                irqEnabled = true;
+                break;
+            default:
+                break; // $A001: PRG RAM protect, RAM is always enabled here
+        }
+    }
+
+    @Override
+    public boolean countsScanlines() {
+        return true;
+    }
+
+    @Override
+    public void clockScanline() {
+        if (irqCounter == 0 || irqReload) {
+            irqCounter = irqLatch;
+            irqReload = false;
+        } else {
+            irqCounter--;
+        }
+        if (irqCounter == 0 && irqEnabled) {
+            irqPending = true;
+        }
+    }
+
+    @Override
+    public boolean isIRQPending() {
+        return irqPending;
+    }
+
+    @Override
+    protected void saveRegisters(ByteBuffer buffer) {
+        for (int register : bankRegisters) {
+            buffer.put((byte) register);
+        }
+        buffer.put((byte) bankSelect);
+        buffer.put((byte) (horizontalMirroring ? 1 : 0));
+        buffer.put((byte) irqLatch);
+        buffer.put((byte) irqCounter);
+        buffer.put((byte) ((irqReload ? 1 : 0) | (irqEnabled ? 2 : 0) | (irqPending ? 4 : 0)));
+    }
+
+    @Override
+    protected void loadRegisters(ByteBuffer buffer) {
+        for (int i = 0; i < bankRegisters.length; i++) {
+            bankRegisters[i] = buffer.get() & 0xFF;
+        }
+        bankSelect = buffer.get() & 0xFF;
+        horizontalMirroring = buffer.get() != 0;
+        irqLatch = buffer.get() & 0xFF;
+        irqCounter = buffer.get() & 0xFF;
+        int flags = buffer.get();
+        irqReload = (flags & 1) != 0;
+        irqEnabled = (flags & 2) != 0;
+        irqPending = (flags & 4) != 0;
+        updateBanks();
+        updateMirroring();
+    }
+
+    private void updateMirroring() {
+        if (cart.getMirroring() != Mirroring.FOUR_SCREEN) {
+            setMirroring(horizontalMirroring ? Mirroring.HORIZONTAL : Mirroring.VERTICAL);
+        }
+    }
+
+    private void updateBanks() {
+        int secondLastBank = prgBankCount(0x2000) - 2;
+        if ((bankSelect & 0x40) == 0) {
+            selectPRG(0x8000, 0x2000, bankRegisters[6]);
+            selectPRG(0xC000, 0x2000, secondLastBank);
+        } else {
+            selectPRG(0x8000, 0x2000, secondLastBank);
+            selectPRG(0xC000, 0x2000, bankRegisters[6]);
+        }
+        selectPRG(0xA000, 0x2000, bankRegisters[7]);
+        selectPRG(0xE000, 0x2000, secondLastBank + 1);
+
+        // With CHR inversion the 2 KB banks move to $1000 and the 1 KB banks to $0000
+        int inversion = (bankSelect & 0x80) == 0 ? 0x0000 : 0x1000;
+        selectCHR(inversion, 0x0400, bankRegisters[0] & 0xFE);
+        selectCHR(inversion + 0x0400, 0x0400, bankRegisters[0] | 1);
+        selectCHR(inversion + 0x0800, 0x0400, bankRegisters[1] & 0xFE);
+        selectCHR(inversion + 0x0C00, 0x0400, bankRegisters[1] | 1);
+        selectCHR((inversion ^ 0x1000), 0x0400, bankRegisters[2]);
+        selectCHR((inversion ^ 0x1000) + 0x0400, 0x0400, bankRegisters[3]);
+        selectCHR((inversion ^ 0x1000) + 0x0800, 0x0400, bankRegisters[4]);
+        selectCHR((inversion ^ 0x1000) + 0x0C00, 0x0400, bankRegisters[5]);
+    }
+}
@@ -0,0 +1,168 @@
+package nesemulator.mapper;
+
+import nesemulator.Cart;
+import nesemulator.MMU;
+import nesemulator.Mirroring;
+import nesemulator.PPU;
+
+import java.nio.ByteBuffer;
+
+// Owns cartridge address decoding for both buses. Bank switching only repoints
+// MMU and PPU page table entries at a different offset of the cart data; nothing is copied.
+public abstract class Mapper {
+
+    protected static final int PRG_ROM_ADDRESS = 0x8000;
+    private static final int CHR_RAM_SIZE = 0x2000;
+    private static final int MAX_REGISTER_BYTES = 64;
+
+    protected final Cart cart;
+    protected final byte[] prg;
+    // CHR ROM, or CHR RAM, which a fork shares until either side first writes it
+    private int[] chr;
+    private final boolean chrWritable;
+    private boolean chrShared;
+    // Carries registers over to forks, kept for the next one
+    private ByteBuffer forkRegisters;
+
+    private MMU mmu;
+    private PPU ppu;
+
+    protected Mapper(Cart cart) {
+        this.cart = cart;
+        this.prg = cart.getPRGROM();
+        byte[] chrROM = cart.getCHRROM();
+        chrWritable = chrROM == null || chrROM.length == 0;
+        if (!chrWritable) {
+            chr = cart.getCHRData();
+        }
+    }
+
+    public static Mapper forCart(Cart cart) {
+        switch (cart.getBoardModel()) {
+            case 0:
+                return new NROM(cart);
+            case 1:
+                return new MMC1(cart);
+            case 2:
+                return new UxROM(cart);
+            case 3:
+                return new CNROM(cart);
+            case 4:
+                return new MMC3(cart);
+            default:
+                throw new UnsupportedOperationException(String.format("Mapper %d is not supported", cart.getBoardModel()));
+        }
+    }
+
+    public void attach(MMU mmu, PPU ppu) {
+        this.mmu = mmu;
+        this.ppu = ppu;
+        if (chrWritable) {
+            chr = new int[CHR_RAM_SIZE];
+        }
+        ppu.setMapper(this);
+        ppu.setMirroring(cart.getMirroring());
+        reset();
+    }
+
+    // The mapper for a forked machine: same registers and banks, sharing CHR RAM until
+    // either side writes it
+    public Mapper fork(MMU mmu, PPU ppu) {
+        var child = forCart(cart);
+        child.mmu = mmu;
+        child.ppu = ppu;
+        ppu.setMapper(child);
+        if (chrWritable) {
+            child.chr = chr;
+            chrShared = true;
+            child.chrShared = true;
+        }
+        child.reset();
+        if (forkRegisters == null) {
+            forkRegisters = ByteBuffer.allocate(MAX_REGISTER_BYTES);
+        }
+        forkRegisters.clear();
+        saveRegisters(forkRegisters);
+        forkRegisters.flip();
+        child.loadRegisters(forkRegisters);
+        return child;
+    }
+
+    // Called by the PPU before every write to CHR RAM. Copies it if still shared with a fork,
+    // and points the PPU's pattern pages at the copy.
+    public void beforeCHRWrite() {
+        if (chrShared) {
+            var original = chr;
+            chr = original.clone();
+            chrShared = false;
+            ppu.repointCHR(original, chr);
+        }
+    }
+
+    // Selects the power-on banks
+    protected abstract void reset();
+
+    // CPU writes to $8000-$FFFF, which land on ROM and therefore on the mapper's registers
+    public void writeRegister(int address, int value) {
+    }
+
+    // Called by the PPU once per rendered scanline
+    public void clockScanline() {
+    }
+
+    // Whether clockScanline does anything; if not, the PPU does not need waking every line
+    public boolean countsScanlines() {
+        return false;
+    }
+
+    public boolean isIRQPending() {
+        return false;
+    }
+
+    // CHR RAM contents, then whatever registers the board keeps
+    public void saveState(ByteBuffer buffer) {
+        if (chrWritable) {
+            for (int value : chr) {
+                buffer.put((byte) value);
+            }
+        }
+        saveRegisters(buffer);
+    }
+
+    public void loadState(ByteBuffer buffer) {
+        if (chrWritable) {
+            beforeCHRWrite();
+            for (int i = 0; i < chr.length; i++) {
+                chr[i] = buffer.get() & 0xFF;
+            }
+        }
+        loadRegisters(buffer);
+    }
+
+    protected void saveRegisters(ByteBuffer buffer) {
+    }
+
+    // Must also switch the banks the restored registers select
+    protected void loadRegisters(ByteBuffer buffer) {
+    }
+
+    protected void selectPRG(int address, int size, int bank) {
+        mmu.mapPRG(address, size, prg, Math.floorMod(bank, bankCount(prg.length, size)) * size);
+    }
+
+    protected void selectCHR(int address, int size, int bank) {
+        ppu.mapCHR(address, size, chr, Math.floorMod(bank, bankCount(chr.length, size)) * size, chrWritable);
+    }
+
+    protected void setMirroring(Mirroring mirroring) {
+        ppu.setMirroring(mirroring);
+    }
+
+    protected int prgBankCount(int size) {
+        return bankCount(prg.length, size);
+    }
+
+    private static int bankCount(int length, int size) {
+        return Math.max(1, length / size);
+    }
+}
@@ -0,0 +1,18 @@
+package nesemulator.mapper;
+
+import nesemulator.Cart;
+
+// Mapper 0: no bank switching, 16 KB carts are mirrored into $C000
+class NROM extends Mapper {
+
+    NROM(Cart cart) {
+        super(cart);
+    }
+
+    @Override
+    protected void reset() {
+        selectPRG(PRG_ROM_ADDRESS, 0x4000, 0);
+        selectPRG(0xC000, 0x4000, 1);
+        selectCHR(0x0000, 0x2000, 0);
+    }
+}
@@ -0,0 +1,39 @@
+package nesemulator.mapper;
+
+import nesemulator.Cart;
+
+import java.nio.ByteBuffer;
+
+// Mapper 2: switchable 16 KB bank at $8000, last bank fixed at $C000
+class UxROM extends Mapper {
+
+    private int prgBank;
+
+    UxROM(Cart cart) {
+        super(cart);
+    }
+
+    @Override
+    protected void reset() {
+        prgBank = 0;
+        selectPRG(PRG_ROM_ADDRESS, 0x4000, prgBank);
+        selectPRG(0xC000, 0x4000, prgBankCount(0x4000) - 1);
+        selectCHR(0x0000, 0x2000, 0);
+    }
+
+    @Override
+    public void writeRegister(int address, int value) {
+        prgBank = value & 0x0F;
+        selectPRG(PRG_ROM_ADDRESS, 0x4000, prgBank);
+    }
+
+    @Override
+    protected void saveRegisters(ByteBuffer buffer) {
+        buffer.put((byte) prgBank);
+    }
+
+    @Override
+    protected void loadRegisters(ByteBuffer buffer) {
+        writeRegister(PRG_ROM_ADDRESS, buffer.get());
+    }
+}
@@ -2,7 +2,6 @@ package nesemulator.ui;
 
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.embed.swing.SwingFXUtils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
@@ -13,9 +12,11 @@ import javafx.scene.control.ListView;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
 import javafx.stage.Stage;
 import nesemulator.Cart;
-import nesemulator.MMU;
+import nesemulator.Machine;
 import nesemulator.PPU;
 import nesemulator.cpu.CPU;
 import nesemulator.cpu.Opcode;
@@ -30,6 +31,8 @@ public class InspectionUI extends Application implements CPUObserver, Initializa
 
     private static String romFileName;
 
+    private Machine machine;
+
     @FXML
     private ListView<Instruction> cpuInstructionsList;
     @FXML
@@ -40,6 +43,7 @@ public class InspectionUI extends Application implements CPUObserver, Initializa
     private TextField instructionCountField;
     @FXML
     private ImageView screenView;
+    private final WritableImage screenImage = new WritableImage(PPU.SCREEN_WIDTH, PPU.SCREEN_HEIGHT);
 
     @FXML
     private Label cyclesLabel;
@@ -92,17 +96,16 @@ public class InspectionUI extends Application implements CPUObserver, Initializa
     private void initStuff() {
         try {
             Cart cart = Cart.fromROMFile(romFileName);
-            MMU.loadCart(cart);
-            CPU.addObserver(this);
-            CPU.initialize();
-            PPU.initialize();
+            machine = new Machine();
+            machine.loadCart(cart);
+            machine.getCpu().addObserver(this);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
     private void dumpProgram() {
-        int[] prg = MMU.getPRGROMData();
+        int[] prg = machine.getMmu().getPRGROMData();
         for (int i = 0; i < prg.length; i++) {
             int memoryAddress = i + 0x8000;
             int opcodeNumber = prg[i] & 0xFF;
@@ -127,12 +130,12 @@ public class InspectionUI extends Application implements CPUObserver, Initializa
 
         int instructionsCount = Integer.parseInt(instructionCountField.getText().trim());
         for (int i = 0; i < instructionsCount; i++) {
-            int cpuCycles = CPU.executeStep();
-            PPU.executeStep(cpuCycles);
+            machine.step();
         }
 
-        if (PPU.screen != null)
-            screenView.setImage(SwingFXUtils.toFXImage(PPU.screen, null));
+        screenImage.getPixelWriter().setPixels(0, 0, PPU.SCREEN_WIDTH, PPU.SCREEN_HEIGHT,
+                PixelFormat.getIntArgbInstance(), machine.getPpu().getScreenPixels(), 0, PPU.SCREEN_WIDTH);
+        screenView.setImage(screenImage);
 
         updateAll();
     }
@@ -151,7 +154,7 @@ public class InspectionUI extends Application implements CPUObserver, Initializa
 
     private void updateDump() {
         Optional<Instruction> current = cpuInstructionsList.getItems().stream()
-                .filter(instruction -> instruction.getAddress() == CPU.getPC())
+                .filter(instruction -> instruction.getAddress() == machine.getCpu().getPC())
                 .findFirst();
 
         current.ifPresent(instruction -> {
@@ -164,16 +167,17 @@ public class InspectionUI extends Application implements CPUObserver, Initializa
 
     private void updateRegisters() {
         // CPU
-        cyclesLabel.setText(String.format("Cycles: %d", CPU.getCyclesCounter()));
-        pcLabel.setText(String.format("PC: 0x%04X", CPU.getPC()));
-        aLabel.setText(String.format("A:  0x%02X", CPU.getA() & 0xFF));
-        xLabel.setText(String.format("X:  0x%02X", CPU.getX()));
-        yLabel.setText(String.format("Y:  0x%02X", CPU.getY()));
-        sLabel.setText(String.format("S:  0x%02X", CPU.getS()));
-        pLabel.setText(String.format("P:  %s", intToByteBinary(CPU.getP())));
+        CPU cpu = machine.getCpu();
+        cyclesLabel.setText(String.format("Cycles: %d", cpu.getCyclesCounter()));
+        pcLabel.setText(String.format("PC: 0x%04X", cpu.getPC()));
+        aLabel.setText(String.format("A:  0x%02X", cpu.getA() & 0xFF));
+        xLabel.setText(String.format("X:  0x%02X", cpu.getX()));
+        yLabel.setText(String.format("Y:  0x%02X", cpu.getY()));
+        sLabel.setText(String.format("S:  0x%02X", cpu.getS()));
+        pLabel.setText(String.format("P:  %s", intToByteBinary(cpu.getP())));
 
         // PPU
-        ppuPane.update();
+        ppuPane.update(machine.getPpu());
     }
 
     private String intToByteBinary(int value) {
@@ -182,10 +186,10 @@ public class InspectionUI extends Application implements CPUObserver, Initializa
 
     private void updateStack() {
         var items = stackList.getItems();
-        var memoryAddress = 0x0100 + CPU.getS();
+        var memoryAddress = 0x0100 + machine.getCpu().getS();
         items.clear();
         for (int i = memoryAddress; i < 0x0200; i++) {
-            items.add(String.format("0x%02X", MMU.readAddress(i) & 0xFF));
+            items.add(String.format("0x%02X", machine.getMmu().readAddress(i) & 0xFF));
         }
     }
 
@@ -193,12 +197,12 @@ public class InspectionUI extends Application implements CPUObserver, Initializa
         var items = zeroPageList.getItems();
         items.clear();
         for (int i = 0; i < 0xFF; i++) {
-            items.add(String.format("[%02X] 0x%02X", i & 0xFF, MMU.readAddress(i) & 0xFF));
+            items.add(String.format("[%02X] 0x%02X", i & 0xFF, machine.getMmu().readAddress(i) & 0xFF));
         }
     }
 
     @Override
-    public void notifyCPUInstruction(int programCount, Opcode opcode, int cycles, int... operands) {
+    public void notifyCPUInstruction(int programCount, Opcode opcode, int cycles, int operand1, int operand2) {
 //        var formattedOperands = LogCPUObserver.getFormattedOperands(opcode.getAddressingMode(), operands);
 //        var labelText = String.format("%04X: %s%s", programCount, opcode.getName(), formattedOperands);
 //        cpuInstructionsList.getItems().add(labelText);
@@ -40,10 +40,10 @@ public class PPUPane extends VBox {
         );
     }
 
-    public void update() {
-        controlLabel.setText(String.format("Control: %s", toBin(PPU.inspect(PPU.ADDRESS_PPUCTRL))));
-        maskLabel.setText(String.format("Mask: %s", toBin(PPU.inspect(PPU.ADDRESS_PPUMASK))));
-        statusLabel.setText(String.format("Status: %s", toBin(PPU.inspect(PPU.ADDRESS_PPUSTATUS))));
+    public void update(PPU ppu) {
+        controlLabel.setText(String.format("Control: %s", toBin(ppu.inspect(PPU.ADDRESS_PPUCTRL))));
+        maskLabel.setText(String.format("Mask: %s", toBin(ppu.inspect(PPU.ADDRESS_PPUMASK))));
+        statusLabel.setText(String.format("Status: %s", toBin(ppu.inspect(PPU.ADDRESS_PPUSTATUS))));
     }
 
     private String toBin(int value) {
@@ -1,39 +1,62 @@
 package nesemulator.ui;
 
+import nesemulator.TripleBuffer;
+
 import javax.swing.*;
 import java.awt.*;
-import java.awt.image.BufferedImage;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
 
 public class ScreenUI extends JFrame {
     ImagePanel screenCanvas;
+    private volatile boolean rewindHeld;
 
-    public ScreenUI(String title) throws HeadlessException {
+    public ScreenUI(String title, TripleBuffer frames) throws HeadlessException {
         super(title);
-        this.screenCanvas = new ImagePanel();
+        this.screenCanvas = new ImagePanel(frames);
         this.screenCanvas.setPreferredSize(new Dimension(256, 240));
         this.setDefaultCloseOperation(EXIT_ON_CLOSE);
         this.getContentPane().add(this.screenCanvas);
+        this.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_BACK_SPACE) {
+                    rewindHeld = true;
+                }
+            }
+
+            @Override
+            public void keyReleased(KeyEvent e) {
+                if (e.getKeyCode() == KeyEvent.VK_BACK_SPACE) {
+                    rewindHeld = false;
+                }
+            }
+        });
+    }
+
+    // Whether the rewind key (backspace) is held down
+    public boolean isRewindHeld() {
+        return rewindHeld;
     }
 
-    public void updateScreen(BufferedImage img) {
-        screenCanvas.setImage(img);
-        this.repaint();
+    // Safe to call from the emulation thread: it only schedules a repaint, and the
+    // panel picks up whatever frame is newest once the EDT gets to it
+    public void frameReady() {
+        screenCanvas.repaint();
     }
 }
 
 class ImagePanel extends JPanel {
 
-    private BufferedImage image;
+    private final TripleBuffer frames;
+
+    ImagePanel(TripleBuffer frames) {
+        this.frames = frames;
+    }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        if (image != null)
-            g.drawImage(image, 0, 0, this);
-    }
-
-    public void setImage(BufferedImage image) {
-        this.image = image;
-        this.invalidate();
+        g.drawImage(frames.acquire(), 0, 0, this);
     }
 }
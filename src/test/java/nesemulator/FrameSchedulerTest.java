@@ -0,0 +1,93 @@
+package nesemulator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrameSchedulerTest {
+
+    // 100 Hz keeps the arithmetic readable: one frame every 10 ms
+    private static final long FRAME_NANOS = 10_000_000;
+
+    private long now;
+    private List<Long> parks;
+    private FrameScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        now = 1_000;
+        parks = new ArrayList<>();
+        scheduler = new FrameScheduler(100, () -> now, nanos -> {
+            parks.add(nanos);
+            now += nanos;
+        });
+    }
+
+    @Test
+    void awaitNextFrameMustParkUntilTheDeadline() {
+        now += 4_000_000;
+
+        scheduler.awaitNextFrame();
+
+        assertEquals(List.of(6_000_000L), parks);
+        assertEquals(1_000 + FRAME_NANOS, now);
+        assertEquals(0, scheduler.getLateFrames());
+    }
+
+    @Test
+    void deadlinesMustNotDriftWhenParkingOversleeps() {
+        scheduler = new FrameScheduler(100, () -> now, nanos -> now += nanos + 1_000_000);
+
+        scheduler.awaitNextFrame();
+        scheduler.awaitNextFrame();
+
+        assertEquals(1_000 + 2 * FRAME_NANOS + 1_000_000, now);
+        assertEquals(0, scheduler.getLateFrames());
+    }
+
+    @Test
+    void parkingMustResumeAfterAnEarlyWakeUp() {
+        scheduler = new FrameScheduler(100, () -> now, nanos -> {
+            parks.add(nanos);
+            now += nanos / 2 + 1;
+        });
+
+        scheduler.awaitNextFrame();
+
+        assertTrue(parks.size() > 1);
+        assertTrue(now >= 1_000 + FRAME_NANOS);
+    }
+
+    @Test
+    void framesFinishedAfterTheirDeadlineMustBeLateButNotWaitedFor() {
+        now += FRAME_NANOS + 2_000_000;
+
+        scheduler.awaitNextFrame();
+        assertEquals(1, scheduler.getLateFrames());
+        assertEquals(0, scheduler.getDroppedFrames());
+        assertTrue(parks.isEmpty());
+
+        // Only 8 ms remain until the second deadline
+        scheduler.awaitNextFrame();
+        assertEquals(List.of(8_000_000L), parks);
+    }
+
+    @Test
+    void fallingMoreThanAFrameBehindMustDropTheMissedDeadlines() {
+        now += 3 * FRAME_NANOS + 5_000_000;
+
+        scheduler.awaitNextFrame();
+
+        assertEquals(1, scheduler.getLateFrames());
+        assertEquals(2, scheduler.getDroppedFrames());
+
+        scheduler.awaitNextFrame();
+        assertEquals(List.of(5_000_000L), parks);
+        assertEquals(2, scheduler.getFrames());
+    }
+}
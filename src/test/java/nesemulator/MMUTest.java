@@ -4,22 +4,29 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MMUTest {
 
+    private PPU ppu;
+    private MMU mmu;
+
     @BeforeEach
     void setUp() {
-        MMU.initialize();
+        ppu = new PPU();
+        mmu = new MMU(ppu);
     }
 
     @Test
     void readAddressFromMirroredCPURAMMustPointToActualRAM() {
         int value = 0xAB;
-        MMU.writeAddress(0x0173, value);
+        mmu.writeAddress(0x0173, value);
 
-        assertEquals(value, MMU.readAddress(0x0973));
-        assertEquals(value, MMU.readAddress(0x1173));
-        assertEquals(value, MMU.readAddress(0x1973));
+        assertEquals(value, mmu.readAddress(0x0973));
+        assertEquals(value, mmu.readAddress(0x1173));
+        assertEquals(value, mmu.readAddress(0x1973));
     }
 
     @Test
@@ -27,19 +34,19 @@ class MMUTest {
         int value = 0x1A;
 
         // TODO change when we stop mocking PPU response
-        MMU.writeAddress(0x2004, value);
-
-        assertEquals(value, MMU.readAddress(0x2004));
-        assertEquals(value, MMU.readAddress(0x200C));
-        assertEquals(value, MMU.readAddress(0x2014));
-        assertEquals(value, MMU.readAddress(0x202C));
-        assertEquals(value, MMU.readAddress(0x2034));
-        assertEquals(value, MMU.readAddress(0x204C));
-        assertEquals(value, MMU.readAddress(0x2054));
-        assertEquals(value, MMU.readAddress(0x206C));
+        mmu.writeAddress(0x2004, value);
+
+        assertEquals(value, mmu.readAddress(0x2004));
+        assertEquals(value, mmu.readAddress(0x200C));
+        assertEquals(value, mmu.readAddress(0x2014));
+        assertEquals(value, mmu.readAddress(0x202C));
+        assertEquals(value, mmu.readAddress(0x2034));
+        assertEquals(value, mmu.readAddress(0x204C));
+        assertEquals(value, mmu.readAddress(0x2054));
+        assertEquals(value, mmu.readAddress(0x206C));
         //...
-        assertEquals(value, MMU.readAddress(0x3FE4));
-        assertEquals(value, MMU.readAddress(0x3FFC));
+        assertEquals(value, mmu.readAddress(0x3FE4));
+        assertEquals(value, mmu.readAddress(0x3FFC));
     }
 
     @Test
@@ -51,37 +58,129 @@ class MMUTest {
         }
         cart.boardModel = 0;
 
-        MMU.loadCart(cart);
+        mmu.loadCart(cart);
 
         // Default addresses
-        assertEquals(0x00, MMU.readAddress(0x8000));
-        assertEquals(0x01, MMU.readAddress(0x8001));
-        assertEquals(0x02, MMU.readAddress(0x8002));
-        assertEquals(0x03, MMU.readAddress(0x8003));
-        assertEquals(0x04, MMU.readAddress(0x8004));
-        assertEquals(0x05, MMU.readAddress(0x8005));
-        assertEquals(0x06, MMU.readAddress(0x8006));
-        assertEquals(0x07, MMU.readAddress(0x8007));
-        assertEquals(0x08, MMU.readAddress(0x8008));
-        assertEquals(0x09, MMU.readAddress(0x8009));
+        assertEquals(0x00, mmu.readAddress(0x8000));
+        assertEquals(0x01, mmu.readAddress(0x8001));
+        assertEquals(0x02, mmu.readAddress(0x8002));
+        assertEquals(0x03, mmu.readAddress(0x8003));
+        assertEquals(0x04, mmu.readAddress(0x8004));
+        assertEquals(0x05, mmu.readAddress(0x8005));
+        assertEquals(0x06, mmu.readAddress(0x8006));
+        assertEquals(0x07, mmu.readAddress(0x8007));
+        assertEquals(0x08, mmu.readAddress(0x8008));
+        assertEquals(0x09, mmu.readAddress(0x8009));
 
         // Mirrored adsresses
-        assertEquals(0x00, MMU.readAddress(0xC000));
-        assertEquals(0x01, MMU.readAddress(0xC001));
-        assertEquals(0x02, MMU.readAddress(0xC002));
-        assertEquals(0x03, MMU.readAddress(0xC003));
-        assertEquals(0x04, MMU.readAddress(0xC004));
-        assertEquals(0x05, MMU.readAddress(0xC005));
-        assertEquals(0x06, MMU.readAddress(0xC006));
-        assertEquals(0x07, MMU.readAddress(0xC007));
-        assertEquals(0x08, MMU.readAddress(0xC008));
-        assertEquals(0x09, MMU.readAddress(0xC009));
+        assertEquals(0x00, mmu.readAddress(0xC000));
+        assertEquals(0x01, mmu.readAddress(0xC001));
+        assertEquals(0x02, mmu.readAddress(0xC002));
+        assertEquals(0x03, mmu.readAddress(0xC003));
+        assertEquals(0x04, mmu.readAddress(0xC004));
+        assertEquals(0x05, mmu.readAddress(0xC005));
+        assertEquals(0x06, mmu.readAddress(0xC006));
+        assertEquals(0x07, mmu.readAddress(0xC007));
+        assertEquals(0x08, mmu.readAddress(0xC008));
+        assertEquals(0x09, mmu.readAddress(0xC009));
     }
 
     @Test
     void writeAddressShouldWriteToPPUIfAddressIsBetween0x2000And0x3FFF() {
-        PPU.initialize();
-        MMU.writeAddress(0x2000, 0xAB);
-        assertEquals((byte) 0xAB, PPU.control);
+        mmu.writeAddress(0x2000, 0xAB);
+        assertEquals((byte) 0xAB, ppu.control);
+    }
+
+    @Test
+    void readAddressMustWrapAroundTheEndOfTheAddressSpace() {
+        mmu.writeAddress(0x0002, 0xCD);
+
+        assertEquals(0xCD, mmu.readAddress(0x10002));
+    }
+
+    @Test
+    void cartSpaceAboveIORegistersMustBehaveAsPlainMemoryWithoutCart() {
+        mmu.writeAddress(0x4020, 0x11);
+        mmu.writeAddress(0x6000, 0x22);
+        mmu.writeAddress(0xFFFF, 0x33);
+
+        assertEquals(0x11, mmu.readAddress(0x4020));
+        assertEquals(0x22, mmu.readAddress(0x6000));
+        assertEquals(0x33, mmu.readAddress(0xFFFF));
+    }
+
+    @Test
+    void writeToOAMDMAMustCopyTheWholePageIntoOAM() {
+        for (int i = 0; i < 0x100; i++) {
+            mmu.writeAddress(0x0200 + i, i ^ 0x5A);
+        }
+
+        mmu.writeAddress(0x4014, 0x02);
+
+        for (int i = 0; i < 0x100; i++) {
+            assertEquals(i ^ 0x5A, ppu.oam[i]);
+        }
+        assertEquals(513, mmu.takeStallCycles());
+        assertEquals(0, mmu.takeStallCycles());
+    }
+
+    @Test
+    void writesToPRGROMMustBeIgnored() {
+        Cart cart = new Cart();
+        cart.prgROM = new byte[16 * 1024];
+        cart.prgROM[0x10] = (byte) 0xEA;
+        mmu.loadCart(cart);
+
+        mmu.writeAddress(0x8010, 0x00);
+        mmu.writeAddress(0xC010, 0x00);
+
+        assertEquals(0xEA, mmu.readAddress(0x8010));
+        assertEquals(0xEA, mmu.readAddress(0xC010));
+        assertEquals((byte) 0xEA, cart.prgROM[0x10]);
+    }
+
+    @Test
+    void readAddressMustReturnUnsignedBytes() {
+        mmu.writeAddress(0x0010, -1);
+
+        assertEquals(0xFF, mmu.readAddress(0x0010));
+    }
+
+    @Test
+    void mapPRGMustChangeTheCodeVersionOnlyOfPagesMappedDifferently() {
+        var bank0 = new byte[0x4000];
+        var bank1 = new byte[0x4000];
+        mmu.mapPRG(0x8000, 0x4000, bank0, 0);
+        int version = mmu.getCodeVersion(0x80);
+        int generation = mmu.getCodeGeneration();
+
+        mmu.mapPRG(0x8000, 0x4000, bank0, 0);
+        assertEquals(version, mmu.getCodeVersion(0x80));
+        assertEquals(generation, mmu.getCodeGeneration());
+
+        mmu.mapPRG(0x8000, 0x4000, bank1, 0);
+        assertNotEquals(version, mmu.getCodeVersion(0x80));
+        assertNotEquals(generation, mmu.getCodeGeneration());
+    }
+
+    @Test
+    void writesToProtectedCodeMustChangeTheCodeVersionOfEveryMirror() {
+        mmu.writeAddress(0x0310, 0x01);
+        assertTrue(mmu.protectCode(0x03));
+        int version = mmu.getCodeVersion(0x0B);
+
+        mmu.writeAddress(0x0310, 0x02);
+        int updated = mmu.getCodeVersion(0x0B);
+        mmu.writeAddress(0x0311, 0x03);
+
+        assertNotEquals(version, updated);
+        assertEquals(updated, mmu.getCodeVersion(0x0B));
+        assertEquals(0x02, mmu.readAddress(0x1B10));
+    }
+
+    @Test
+    void protectCodeMustRefuseIOPages() {
+        assertFalse(mmu.protectCode(0x20));
+        assertFalse(mmu.protectCode(0x40));
     }
-}
\ No newline at end of file
+}
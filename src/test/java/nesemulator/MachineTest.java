@@ -0,0 +1,228 @@
+package nesemulator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class MachineTest {
+
+    @Test
+    void machinesMustNotShareState() {
+        Machine first = new Machine();
+        Machine second = new Machine();
+
+        first.getMmu().writeAddress(0x0010, 0xAB);
+        first.getMmu().writeAddress(PPU.ADDRESS_PPUCTRL, 0x80);
+
+        assertNotSame(first.getCpu(), second.getCpu());
+        assertEquals(0xAB, first.getMmu().readAddress(0x0010));
+        assertEquals(0x00, second.getMmu().readAddress(0x0010));
+        assertEquals((byte) 0x80, first.getPpu().control);
+        assertEquals(0x00, second.getPpu().control);
+    }
+
+    @Test
+    void stepMustExecuteOneInstruction() {
+        Machine machine = new Machine();
+        machine.getMmu().writeAddress(0x8000, 0xEA); // NOP
+
+        int cycles = machine.step();
+
+        assertEquals(2, cycles);
+        assertEquals(0x8001, machine.getCpu().getPC());
+    }
+
+    @Test
+    void ppuMustOnlyBeAdvancedWhenARegisterIsAccessedOrVBlankStarts() {
+        Machine machine = new Machine();
+        for (int address = 0x8000; address < 0x8100; address++) {
+            machine.getMmu().writeAddress(address, 0xEA); // NOP
+        }
+        machine.getMmu().writeAddress(0x8080, 0xAD); // LDA $2002
+        machine.getMmu().writeAddress(0x8081, 0x02);
+        machine.getMmu().writeAddress(0x8082, 0x20);
+
+        for (int i = 0; i < 0x80; i++) {
+            machine.step();
+        }
+        assertEquals(0, machine.getPpu().cycle);
+        assertEquals(27394, machine.getScheduler().getNextEventCycle()); // 241 x 341 dots
+
+        machine.step();
+        assertEquals(256, machine.getPpu().cycle);
+        assertEquals(2, machine.getPpu().scanline);
+        assertEquals(86, machine.getPpu().dot);
+    }
+
+    @Test
+    void ppuMustBeAdvancedEveryScanlineForMappersCountingThem() {
+        Machine machine = new Machine();
+        machine.loadCart(new Cart(4, Mirroring.VERTICAL, new byte[0x8000], new byte[0x2000]));
+
+        assertEquals(114, machine.getScheduler().getNextEventCycle());
+    }
+
+    @Test
+    void runFrameMustStopWhenTheNextFrameIsComplete() {
+        Machine machine = new Machine();
+        machine.getMmu().writeAddress(0x8000, 0x4C); // JMP $8000
+        machine.getMmu().writeAddress(0x8001, 0x00);
+        machine.getMmu().writeAddress(0x8002, 0x80);
+
+        machine.runFrame();
+        assertEquals(1, machine.getPpu().getFrames());
+        assertEquals(241, machine.getPpu().scanline);
+
+        machine.runFrame();
+        assertEquals(2, machine.getPpu().getFrames());
+        assertEquals(29781 + 27394, machine.getCpu().getCyclesCounter(), 3);
+    }
+
+    @Test
+    void enablingNMIDuringVBlankMustBeServicedAfterTheWritingInstruction() {
+        Machine machine = new Machine();
+        machine.getMmu().writeAddress(0x8000, 0xA9); // LDA #$80
+        machine.getMmu().writeAddress(0x8001, 0x80);
+        machine.getMmu().writeAddress(0x8002, 0x8D); // STA $2000
+        machine.getMmu().writeAddress(0x8003, 0x00);
+        machine.getMmu().writeAddress(0x8004, 0x20);
+        machine.getMmu().writeAddress(0xFFFA, 0x00);
+        machine.getMmu().writeAddress(0xFFFB, 0x90);
+
+        machine.step();
+        machine.step();
+
+        assertEquals(0x9000, machine.getCpu().getPC());
+    }
+
+    @Test
+    void stepMustServiceTheNMIRaisedByVBlank() {
+        Machine machine = new Machine();
+        machine.getMmu().writeAddress(0x8000, 0x4C); // JMP $8000
+        machine.getMmu().writeAddress(0x8001, 0x00);
+        machine.getMmu().writeAddress(0x8002, 0x80);
+        machine.getMmu().writeAddress(0xFFFA, 0x00);
+        machine.getMmu().writeAddress(0xFFFB, 0x90);
+        machine.getPpu().status = 0;
+        machine.getPpu().control = (byte) 0b10000000;
+
+        while (machine.getPpu().getFrames() == 0) {
+            machine.step();
+        }
+
+        assertEquals(0x9000, machine.getCpu().getPC());
+    }
+
+    @Test
+    void forkMustRunExactlyLikeItsParent() {
+        Machine parent = busyMachine();
+        parent.runFrame();
+
+        Machine child = parent.fork();
+        parent.runFrame();
+        parent.runFrame();
+        child.runFrame();
+        child.runFrame();
+
+        assertEquals(parent.getCpu().getCyclesCounter(), child.getCpu().getCyclesCounter());
+        assertEquals(parent.getCpu().getPC(), child.getCpu().getPC());
+        assertEquals(parent.getMmu().readAddress(0x0010), child.getMmu().readAddress(0x0010));
+        assertEquals(parent.getPpu().getFrames(), child.getPpu().getFrames());
+        assertArrayEquals(parent.getPpu().getScreenPixels(), child.getPpu().getScreenPixels());
+    }
+
+    @Test
+    void writesAfterAForkMustOnlyBeSeenByTheSideMakingThem() {
+        Machine parent = new Machine();
+        parent.getMmu().writeAddress(0x0010, 0x11);
+        parent.getMmu().writeAddress(0x6000, 0x22);
+        parent.getPpu().writeVRAM(0x2000, 0x33);
+        parent.getPpu().writeVRAM(0x0010, 0x44);
+
+        Machine child = parent.fork();
+        child.getMmu().writeAddress(0x0810, 0xAA); // Mirror of $0010
+        child.getMmu().writeAddress(0x4020, 0xBB);
+        child.getPpu().writeVRAM(0x2000, 0xCC);
+        parent.getMmu().writeAddress(0x6000, 0xDD);
+        parent.getPpu().writeVRAM(0x0010, 0xEE);
+
+        assertEquals(0x11, parent.getMmu().readAddress(0x0010));
+        assertEquals(0xAA, child.getMmu().readAddress(0x1810));
+        assertEquals(0x00, parent.getMmu().readAddress(0x4020));
+        assertEquals(0xBB, child.getMmu().readAddress(0x4020));
+        assertEquals(0xDD, parent.getMmu().readAddress(0x6000));
+        assertEquals(0x22, child.getMmu().readAddress(0x6000));
+        assertEquals(0x33, parent.getPpu().inspectVRAM(0x2000));
+        assertEquals(0xCC, child.getPpu().inspectVRAM(0x2000));
+        assertEquals(0xEE, parent.getPpu().inspectVRAM(0x0010));
+        assertEquals(0x44, child.getPpu().inspectVRAM(0x0010));
+    }
+
+    @Test
+    void forkedMappersMustSwitchBanksAndWriteCHRRAMIndependently() {
+        var prg = new byte[0x20000];
+        for (int bank = 0; bank < prg.length / 0x2000; bank++) {
+            prg[bank * 0x2000] = (byte) bank;
+        }
+        Machine parent = new Machine();
+        parent.loadCart(new Cart(4, Mirroring.VERTICAL, prg, new byte[0]));
+        parent.getMmu().writeAddress(0x8000, 6);
+        parent.getMmu().writeAddress(0x8001, 3);
+        parent.getPpu().writeVRAM(0x0010, 0x55);
+
+        Machine child = parent.fork();
+        child.getMmu().writeAddress(0x8001, 9);
+        child.getPpu().writeVRAM(0x0010, 0x66);
+        parent.getPpu().writeVRAM(0x0020, 0x77);
+
+        assertEquals(3, parent.getMmu().readAddress(0x8000));
+        assertEquals(9, child.getMmu().readAddress(0x8000));
+        assertEquals(0x55, parent.getPpu().inspectVRAM(0x0010));
+        assertEquals(0x66, child.getPpu().inspectVRAM(0x0010));
+        assertEquals(0x77, parent.getPpu().inspectVRAM(0x0020));
+        assertEquals(0x00, child.getPpu().inspectVRAM(0x0020));
+    }
+
+    @Test
+    void patternsDrawnFromCHRRAMMustFollowItsCopy() {
+        Machine parent = new Machine();
+        parent.loadCart(new Cart(0, Mirroring.VERTICAL, new byte[0x4000], new byte[0]));
+        parent.getPpu().writeVRAM(0x3F00, 0x0F);
+        parent.getPpu().writeVRAM(0x3F01, 0x16);
+        parent.getPpu().mask = 0b00001010; // Background on, leftmost column included
+
+        Machine child = parent.fork();
+        child.getPpu().writeVRAM(0x0000, 0xFF); // Tile 0, top row: all color 1
+
+        assertEquals(Palette.toARGB(0x0F), parent.getPpu().render().getRGB(0, 0));
+        assertEquals(Palette.toARGB(0x16), child.getPpu().render().getRGB(0, 0));
+    }
+
+    // Keeps rendering on, scrolls and counts in zero page, over random tiles and palettes
+    private static Machine busyMachine() {
+        Machine machine = new Machine();
+        var random = new Random(5);
+        for (int address = 0x0000; address < 0x3000; address++) {
+            machine.getPpu().writeVRAM(address, random.nextInt(0x100));
+        }
+        for (int address = 0x3F00; address < 0x3F20; address++) {
+            machine.getPpu().writeVRAM(address, random.nextInt(0x40));
+        }
+        int[] program = {
+                0xA9, 0x1E, // LDA #$1E
+                0x8D, 0x01, 0x20, // STA $2001
+                0xE8, // INX
+                0x86, 0x10, // STX $10
+                0x8E, 0x05, 0x20, // STX $2005
+                0x4C, 0x05, 0x80, // JMP $8005
+        };
+        for (int i = 0; i < program.length; i++) {
+            machine.getMmu().writeAddress(0x8000 + i, program[i]);
+        }
+        return machine;
+    }
+}
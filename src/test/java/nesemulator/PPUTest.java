@@ -3,153 +3,158 @@ package nesemulator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class PPUTest {
 
+    private PPU ppu;
+
     @BeforeEach
     void setUp() {
-        PPU.initialize();
+        ppu = new PPU();
     }
 
     @Test
     void initializeMustResetAllData() {
-        assertEquals(0x00, PPU.control);
-        assertEquals(0x00, PPU.oamAddress);
-        assertEquals(0x00, PPU.mask);
-        assertEquals(0x00, PPU.oamData);
-        assertEquals((byte) 0b10000000, PPU.status);
-        assertEquals(0x00, PPU.scrollX);
-        assertEquals(0x00, PPU.scrollY);
-        assertEquals(0x00, PPU.address);
-
-        assertEquals(0x4000, PPU.ram.length);
-
-        assertTrue(PPU.addressClean);
-        assertTrue(PPU.scrollClean);
+        assertEquals(0x00, ppu.control);
+        assertEquals(0x00, ppu.oamAddress);
+        assertEquals(0x00, ppu.mask);
+        assertEquals(0x00, ppu.oamData);
+        assertEquals((byte) 0b10000000, ppu.status);
+        assertEquals(0x00, ppu.scrollX);
+        assertEquals(0x00, ppu.scrollY);
+        assertEquals(0x00, ppu.address);
+
+        assertEquals(0x4000, ppu.ram.length * ppu.ram[0].length);
+
+        assertTrue(ppu.addressClean);
+        assertTrue(ppu.scrollClean);
     }
 
     @Test
     void writeMustSetControlByteIfSentToAddress0x2000() {
-        PPU.write(0x2000, (byte) 0xAB);
+        ppu.write(0x2000, (byte) 0xAB);
 
-        assertEquals((byte) 0xAB, PPU.control);
+        assertEquals((byte) 0xAB, ppu.control);
     }
 
     @Test
     void writeMustShouldSetMaskByteIfSentToAddress0x2001() {
-        PPU.write(0x2001, (byte) 0xBC);
+        ppu.write(0x2001, (byte) 0xBC);
 
-        assertEquals((byte) 0xBC, PPU.mask);
+        assertEquals((byte) 0xBC, ppu.mask);
     }
 
     @Test
     void writeMustSetOAMAddressByteIfSentToAddress0x2003() {
-        PPU.write(0x2003, (byte) 0xDE);
+        ppu.write(0x2003, (byte) 0xDE);
 
-        assertEquals((byte) 0xDE, PPU.oamAddress);
+        assertEquals((byte) 0xDE, ppu.oamAddress);
     }
 
     @Test
     void writeMustSetOAMDataByteAndIncreaseOAMAddressIfAddressIs0x2004() {
-        PPU.oamAddress = 0x12;
-        PPU.write(0x2004, (byte) 0xAB);
+        ppu.oamAddress = 0x12;
+        ppu.write(0x2004, (byte) 0xAB);
 
-        assertEquals((byte) 0xAB, PPU.read(0x2004));
-        assertEquals((byte) 0x13, PPU.oamAddress);
+        assertEquals((byte) 0xAB, ppu.read(0x2004));
+        assertEquals((byte) 0x13, ppu.oamAddress);
     }
 
     @Test
     void readMustReturnTheStatusByteIfRequiredAddressIs0x2002() {
-        PPU.status = (byte) 0xCC;
+        ppu.status = (byte) 0xCC;
 
-        assertEquals((byte) 0xCC, PPU.read(0x2002));
+        assertEquals((byte) 0xCC, ppu.read(0x2002));
     }
 
     @Test
     void readMustReturnTheOAMDataByteIfRequiredAddressIs0x2004() {
-        assertEquals(0x00, PPU.mask);
+        assertEquals(0x00, ppu.mask);
 
-        PPU.oamData = (byte) 0xBB;
+        ppu.oamData = (byte) 0xBB;
 
-        assertEquals((byte) 0xBB, PPU.read(0x2004));
+        assertEquals((byte) 0xBB, ppu.read(0x2004));
     }
 
     @Test
     void writeMustSetScrollXValueAndUnclearScrollIfScrollIsClearAndAddressIs0x2005() {
-        assertEquals(0x00, PPU.scrollX);
-        assertEquals(0x00, PPU.scrollY);
+        assertEquals(0x00, ppu.scrollX);
+        assertEquals(0x00, ppu.scrollY);
 
-        PPU.scrollClean = true;
-        PPU.write(PPU.ADDRESS_PPUSCROLL, (byte) 0xAB);
+        ppu.scrollClean = true;
+        ppu.write(PPU.ADDRESS_PPUSCROLL, (byte) 0xAB);
 
-        assertEquals((byte) 0xAB, PPU.scrollX);
-        assertEquals((byte) 0x00, PPU.scrollY);
-        assertFalse(PPU.scrollClean);
+        assertEquals((byte) 0xAB, ppu.scrollX);
+        assertEquals((byte) 0x00, ppu.scrollY);
+        assertFalse(ppu.scrollClean);
     }
 
     @Test
     void writeMustSetScrollYValueAndClearScrollFlagIfScrollIsNotClearAndAddressIs0x2005() {
-        assertEquals(0x00, PPU.scrollX);
-        assertEquals(0x00, PPU.scrollY);
+        assertEquals(0x00, ppu.scrollX);
+        assertEquals(0x00, ppu.scrollY);
 
-        PPU.scrollClean = false;
-        PPU.write(PPU.ADDRESS_PPUSCROLL, (byte) 0xAB);
+        ppu.scrollClean = false;
+        ppu.write(PPU.ADDRESS_PPUSCROLL, (byte) 0xAB);
 
-        assertEquals((byte) 0x00, PPU.scrollX);
-        assertEquals((byte) 0xAB, PPU.scrollY);
-        assertTrue(PPU.scrollClean);
+        assertEquals((byte) 0x00, ppu.scrollX);
+        assertEquals((byte) 0xAB, ppu.scrollY);
+        assertTrue(ppu.scrollClean);
     }
 
     @Test
     void writeMustSetUpperByteOnAddressAndUncleanAddressFlagIfAddressFlagIsCleanAndWriteAddressIs0x2006() {
-        assertEquals(0x0000, PPU.address);
+        assertEquals(0x0000, ppu.address);
 
-        PPU.write(PPU.ADDRESS_PPUADDR, (byte) 0xAB);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0xAB);
 
-        assertEquals(0xAB00, PPU.address);
-        assertFalse(PPU.addressClean);
+        assertEquals(0xAB00, ppu.address);
+        assertFalse(ppu.addressClean);
     }
 
     @Test
     void writeMustSetLowerByteOnAddressAndCleanAddressFlagIfAddressFlagIsUncleanAndWriteAddressIs0x2006() {
-        assertEquals(0x0000, PPU.address);
+        assertEquals(0x0000, ppu.address);
 
-        PPU.write(PPU.ADDRESS_PPUADDR, (byte) 0xAB);
-        PPU.write(PPU.ADDRESS_PPUADDR, (byte) 0xCD);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0xAB);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0xCD);
 
-        assertEquals(0xABCD, PPU.address);
-        assertTrue(PPU.addressClean);
+        assertEquals(0xABCD, ppu.address);
+        assertTrue(ppu.addressClean);
     }
 
     @Test
     void writeMustSetDataToCurrentVRAMAddressAndIncrementAddressPointerBy1IfIncrementFlagIsNotSetAndWriteAddressIs0x2007() {
-        assertEquals(0x0000, PPU.address);
-        PPU.write(PPU.ADDRESS_PPUADDR, (byte) 0x12);
-        PPU.write(PPU.ADDRESS_PPUADDR, (byte) 0x34);
-        assertEquals(0x1234, PPU.address);
+        assertEquals(0x0000, ppu.address);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x12);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x34);
+        assertEquals(0x1234, ppu.address);
 
-        PPU.write(PPU.ADDRESS_PPUCTRL, (byte) 0b00000000);
+        ppu.write(PPU.ADDRESS_PPUCTRL, (byte) 0b00000000);
 
-        assertEquals(0x00, PPU.ram[0x1234]);
-        PPU.write(PPU.ADDRESS_PPUDATA, (byte) 0xAA);
-        assertEquals(0xAA, PPU.ram[0x1234]);
-        assertEquals(0x1235, PPU.address);
+        assertEquals(0x00, ppu.inspectVRAM(0x1234));
+        ppu.write(PPU.ADDRESS_PPUDATA, (byte) 0xAA);
+        assertEquals(0xAA, ppu.inspectVRAM(0x1234));
+        assertEquals(0x1235, ppu.address);
     }
 
     @Test
     void writeMustSetDataToCurrentVRAMAddressAndIncrementAddressPointerBy32IfIncrementFlagIsSetAndWriteAddressIs0x2007() {
-        assertEquals(0x0000, PPU.address);
-        PPU.write(PPU.ADDRESS_PPUADDR, (byte) 0x12);
-        PPU.write(PPU.ADDRESS_PPUADDR, (byte) 0x34);
-        assertEquals(0x1234, PPU.address);
+        assertEquals(0x0000, ppu.address);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x12);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x34);
+        assertEquals(0x1234, ppu.address);
 
-        PPU.write(PPU.ADDRESS_PPUCTRL, (byte) 0b00000100);
+        ppu.write(PPU.ADDRESS_PPUCTRL, (byte) 0b00000100);
 
-        assertEquals(0x00, PPU.ram[0x1234]);
-        PPU.write(PPU.ADDRESS_PPUDATA, (byte) 0xAA);
-        assertEquals(0xAA, PPU.ram[0x1234]);
-        assertEquals(0x1254, PPU.address);
+        assertEquals(0x00, ppu.inspectVRAM(0x1234));
+        ppu.write(PPU.ADDRESS_PPUDATA, (byte) 0xAA);
+        assertEquals(0xAA, ppu.inspectVRAM(0x1234));
+        assertEquals(0x1254, ppu.address);
     }
 
     @Test
@@ -184,25 +189,356 @@ class PPUTest {
 
     @Test
     void getBaseNameTableAddressShouldReturn$2000IfNameTableIs0() {
-        PPU.control = (byte) 0b10000000;
-        assertEquals(0x2000, PPU.getBaseNameTableAddress());
+        ppu.control = (byte) 0b10000000;
+        assertEquals(0x2000, ppu.getBaseNameTableAddress());
     }
 
     @Test
     void getBaseNameTableAddressShouldReturn$2400IfNameTableIs1() {
-        PPU.control = (byte) 0b10000001;
-        assertEquals(0x2400, PPU.getBaseNameTableAddress());
+        ppu.control = (byte) 0b10000001;
+        assertEquals(0x2400, ppu.getBaseNameTableAddress());
     }
 
     @Test
     void getBaseNameTableAddressShouldReturn$2800IfNameTableIs2() {
-        PPU.control = (byte) 0b10000010;
-        assertEquals(0x2800, PPU.getBaseNameTableAddress());
+        ppu.control = (byte) 0b10000010;
+        assertEquals(0x2800, ppu.getBaseNameTableAddress());
     }
 
     @Test
     void getBaseNameTableAddressShouldReturn$2C00IfNameTableIs3() {
-        PPU.control = (byte) 0b10000011;
-        assertEquals(0x2C00, PPU.getBaseNameTableAddress());
+        ppu.control = (byte) 0b10000011;
+        assertEquals(0x2C00, ppu.getBaseNameTableAddress());
+    }
+
+    @Test
+    void executeStepMustCountCompletedFrames() {
+        assertEquals(0, ppu.getFrames());
+
+        // A frame is 341 x 262 dots, 3 dots per CPU cycle
+        for (int i = 0; i < 15000; i++) {
+            ppu.executeStep(2);
+        }
+
+        assertEquals(1, ppu.getFrames());
+    }
+
+    @Test
+    void executeStepMustSetVBlankAndRaiseNMIWhenScanline241Starts() {
+        ppu.status = 0;
+        ppu.control = (byte) 0b10000000;
+
+        ppu.executeStep(27393); // 82179 dots, still on scanline 240
+        assertFalse(PPU.isBitSet(ppu.status, 7));
+        assertFalse(ppu.pollNMI());
+
+        ppu.executeStep(1);
+        assertEquals(241, ppu.scanline);
+        assertTrue(PPU.isBitSet(ppu.status, 7));
+        assertTrue(ppu.pollNMI());
+        assertFalse(ppu.pollNMI());
+    }
+
+    @Test
+    void nextEventCycleMustBeTheStartOfTheNextVBlank() {
+        assertEquals(27394, ppu.getNextEventCycle());
+
+        ppu.executeStep(27394);
+        // Exactly one frame of 341 x 262 dots later
+        assertEquals(27394 + 29781, ppu.getNextEventCycle());
+    }
+
+    @Test
+    void executeStepMustNotRaiseNMIIfItIsDisabled() {
+        ppu.executeStep(27394);
+
+        assertTrue(PPU.isBitSet(ppu.status, 7));
+        assertFalse(ppu.pollNMI());
+    }
+
+    @Test
+    void enablingNMIDuringVBlankMustRaiseItImmediately() {
+        ppu.write(PPU.ADDRESS_PPUCTRL, (byte) 0b10000000);
+
+        assertTrue(ppu.pollNMI());
+    }
+
+    @Test
+    void executeStepMustClearStatusFlagsOnThePreRenderScanline() {
+        ppu.status = (byte) 0b11100000;
+        ppu.scanline = 260;
+
+        ppu.executeStep(114); // 342 dots
+
+        assertEquals(261, ppu.scanline);
+        assertEquals(0, ppu.status);
+    }
+
+    @Test
+    void readingStatusMustResetTheAddressLatch() {
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x3F);
+        ppu.read(PPU.ADDRESS_PPUSTATUS);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x21);
+
+        assertEquals(0x2100, ppu.address);
+    }
+
+    @Test
+    void writeToOAMDataMustStoreTheByteInOAM() {
+        ppu.oamAddress = (byte) 0xFF;
+        ppu.write(PPU.ADDRESS_OAMDATA, (byte) 0xAB);
+        ppu.write(PPU.ADDRESS_OAMDATA, (byte) 0xCD);
+
+        assertEquals(0xAB, ppu.oam[0xFF]);
+        assertEquals(0xCD, ppu.oam[0x00]);
+    }
+
+    @Test
+    void renderMustPublishFramesWithoutAllocating() {
+        var initial = ppu.screen;
+
+        var first = ppu.render();
+        var firstPixels = ppu.getScreenPixels();
+        var second = ppu.render();
+
+        assertNotSame(initial, first);
+        assertNotSame(first, second);
+        assertSame(second, ppu.screen);
+        // Nobody is presenting, so the same two buffers keep trading places
+        assertSame(first, ppu.render());
+        assertSame(firstPixels, ppu.getScreenPixels());
+    }
+
+    @Test
+    void renderedFramesMustBeHandedToTheOutput() {
+        ppu.writeVRAM(0x3F00, 0x21);
+
+        var rendered = ppu.render();
+
+        assertTrue(ppu.getOutput().hasFreshFrame());
+        assertSame(rendered, ppu.getOutput().acquire());
+        assertFalse(ppu.getOutput().hasFreshFrame());
+    }
+
+    @Test
+    void screenPixelsMustBeBackedByTheScreenImage() {
+        ppu.writeVRAM(0x3F00, 0x21);
+
+        ppu.render();
+
+        assertEquals(Palette.toARGB(0x21), ppu.getScreenPixels()[0]);
+        ppu.getScreenPixels()[0] = 0xFF123456;
+        assertEquals(0xFF123456, ppu.screen.getRGB(0, 0));
+    }
+
+    @Test
+    void renderMustFillTheScreenWithTheBackdropColorWhileRenderingIsDisabled() {
+        ppu.writeVRAM(0x3F00, 0x21);
+
+        ppu.render();
+
+        assertEquals(Palette.toARGB(0x21), ppu.screen.getRGB(0, 0));
+        assertEquals(Palette.toARGB(0x21), ppu.screen.getRGB(255, 239));
+    }
+
+    @Test
+    void renderMustApplyGreyscaleAndEmphasisFromTheMask() {
+        ppu.writeVRAM(0x3F00, 0x16);
+
+        ppu.mask = (byte) 0b00000001;
+        ppu.render();
+        assertEquals(Palette.toARGB(0x10), ppu.screen.getRGB(0, 0));
+
+        ppu.mask = (byte) 0b01000000;
+        ppu.render();
+        assertEquals(Palette.forMask(0b01000000)[0x16], ppu.screen.getRGB(0, 0));
+        assertNotEquals(Palette.toARGB(0x16), ppu.screen.getRGB(0, 0));
+    }
+
+    @Test
+    void renderMustDrawBackgroundTilesWithTheirAttributePalette() {
+        ppu.writeVRAM(0x0010, 0b10000000); // Tile 1, row 0, low plane
+        ppu.writeVRAM(0x0018, 0b10000000); // Tile 1, row 0, high plane
+        ppu.writeVRAM(0x2000 + 0x21, 0x01); // Second row of tiles, column 1
+        ppu.writeVRAM(0x23C0, 0b00000011); // Top-left quadrant uses palette 3
+        ppu.writeVRAM(0x3F0F, 0x16);
+        ppu.mask = (byte) 0b00001010;
+
+        ppu.render();
+
+        assertEquals(Palette.toARGB(0x16), ppu.screen.getRGB(8, 8));
+        assertEquals(Palette.toARGB(0x00), ppu.screen.getRGB(9, 8));
+    }
+
+    @Test
+    void renderMustFollowCHRBankSwitches() {
+        int[] chr = new int[0x2000 * 2];
+        chr[0x2000 + 0x10] = 0b10000000; // Tile 1 of the second 8 KB bank
+        ppu.mapCHR(0x0000, 0x2000, chr, 0x0000, false);
+        ppu.writeVRAM(0x2000, 0x01);
+        ppu.writeVRAM(0x3F01, 0x16);
+        ppu.mask = (byte) 0b00001010;
+
+        ppu.render();
+        assertEquals(Palette.toARGB(0x00), ppu.screen.getRGB(0, 0));
+
+        ppu.mapCHR(0x0000, 0x2000, chr, 0x2000, false);
+        ppu.render();
+        assertEquals(Palette.toARGB(0x16), ppu.screen.getRGB(0, 0));
+    }
+
+    @Test
+    void renderMustPickUpPatternsWrittenThroughPPUData() {
+        ppu.writeVRAM(0x2000, 0x01);
+        ppu.writeVRAM(0x3F02, 0x16);
+        ppu.mask = (byte) 0b00001010;
+        ppu.render();
+
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x00);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x18); // Tile 1, row 0, high plane
+        ppu.write(PPU.ADDRESS_PPUDATA, (byte) 0b01000000);
+        ppu.render();
+
+        assertEquals(Palette.toARGB(0x00), ppu.screen.getRGB(0, 0));
+        assertEquals(Palette.toARGB(0x16), ppu.screen.getRGB(1, 0));
+    }
+
+    @Test
+    void renderMustApplyScrolling() {
+        ppu.writeVRAM(0x0010, 0b10000000);
+        ppu.writeVRAM(0x0018, 0b10000000);
+        ppu.writeVRAM(0x2000 + 0x21, 0x01);
+        ppu.writeVRAM(0x3F03, 0x16);
+        ppu.mask = (byte) 0b00001010;
+        ppu.write(PPU.ADDRESS_PPUSCROLL, (byte) 3);
+        ppu.write(PPU.ADDRESS_PPUSCROLL, (byte) 8);
+
+        ppu.render();
+
+        assertEquals(Palette.toARGB(0x16), ppu.screen.getRGB(5, 0));
+    }
+
+    @Test
+    void renderMustDrawSpritesAndDetectSprite0Hit() {
+        ppu.writeVRAM(0x0010, 0b11000000);
+        ppu.writeVRAM(0x0018, 0b00000000);
+        ppu.writeVRAM(0x0011, 0b11000000);
+        ppu.writeVRAM(0x2000, 0x01);
+        ppu.writeVRAM(0x3F01, 0x16);
+        ppu.writeVRAM(0x3F11, 0x2A);
+        ppu.oam[0] = 0; // Drawn from scanline 1
+        ppu.oam[1] = 0x01;
+        ppu.oam[2] = 0x00;
+        ppu.oam[3] = 1;
+        ppu.mask = (byte) 0b00011110;
+
+        ppu.render();
+
+        assertEquals(Palette.toARGB(0x16), ppu.screen.getRGB(0, 1));
+        assertEquals(Palette.toARGB(0x2A), ppu.screen.getRGB(1, 1));
+        assertEquals(Palette.toARGB(0x2A), ppu.screen.getRGB(2, 1));
+        assertEquals(Palette.toARGB(0x16), ppu.screen.getRGB(1, 0));
+        assertTrue(PPU.isBitSet(ppu.status, 6));
+    }
+
+    @Test
+    void spritesBehindTheBackgroundMustOnlyShowOverTransparentPixels() {
+        ppu.writeVRAM(0x0011, 0b10000000); // Tile 1, row 1
+        ppu.writeVRAM(0x0020, 0b11000000); // Tile 2, row 0
+        ppu.writeVRAM(0x2000, 0x01);
+        ppu.writeVRAM(0x3F01, 0x16);
+        ppu.writeVRAM(0x3F11, 0x2A);
+        ppu.oam[0] = 0xF0; // Sprite 0 is below the screen
+        ppu.oam[4] = 0;
+        ppu.oam[5] = 0x02;
+        ppu.oam[6] = 0b00100000;
+        ppu.oam[7] = 0;
+        ppu.mask = (byte) 0b00011110;
+
+        ppu.render();
+
+        assertEquals(Palette.toARGB(0x16), ppu.screen.getRGB(0, 1));
+        assertEquals(Palette.toARGB(0x2A), ppu.screen.getRGB(1, 1));
+        assertFalse(PPU.isBitSet(ppu.status, 6));
+    }
+
+    @Test
+    void parallelRenderingMustMatchSerialRenderingAcrossMidFrameChanges() {
+        var parallel = new PPU();
+        parallel.setParallelRendering(new ForkJoinPool(4));
+        fillBusyFrame(ppu);
+        fillBusyFrame(parallel);
+
+        runFrameWithScrollSplit(ppu);
+        runFrameWithScrollSplit(parallel);
+
+        assertArrayEquals(ppu.getScreenPixels(), parallel.getScreenPixels());
+        assertEquals(ppu.status, parallel.status);
+    }
+
+    @Test
+    void parallelRenderingMustStillDetectSprite0HitDuringTheFrame() {
+        ppu.setParallelRendering(new ForkJoinPool(2));
+        ppu.writeVRAM(0x0010, 0b11000000);
+        ppu.writeVRAM(0x2000 + 4 * 32, 0x01);
+        ppu.oam[0] = 31; // Drawn from scanline 32
+        ppu.oam[1] = 0x01;
+        ppu.oam[3] = 0;
+        ppu.mask = (byte) 0b00011110;
+
+        while (ppu.scanline <= 32) {
+            ppu.executeStep(1);
+        }
+
+        assertTrue(PPU.isBitSet(ppu.status, 6));
+    }
+
+    private static void fillBusyFrame(PPU ppu) {
+        var random = new Random(7);
+        for (int address = 0x0000; address < 0x3000; address++) {
+            ppu.writeVRAM(address, random.nextInt(0x100));
+        }
+        for (int address = 0x3F00; address < 0x3F20; address++) {
+            ppu.writeVRAM(address, random.nextInt(0x40));
+        }
+        for (int i = 0; i < ppu.oam.length; i++) {
+            ppu.oam[i] = random.nextInt(0xF0);
+        }
+        ppu.mask = (byte) 0b00011110;
+    }
+
+    // Changes scroll, pattern table and emphasis halfway down the screen, as a status bar split would
+    private static void runFrameWithScrollSplit(PPU ppu) {
+        while (ppu.scanline < 120) {
+            ppu.executeStep(1);
+        }
+        ppu.write(PPU.ADDRESS_PPUSCROLL, (byte) 37);
+        ppu.write(PPU.ADDRESS_PPUSCROLL, (byte) 90);
+        ppu.write(PPU.ADDRESS_PPUCTRL, (byte) 0b00011001);
+        ppu.write(PPU.ADDRESS_PPUMASK, (byte) 0b01011110);
+        while (ppu.getFrames() == 0) {
+            ppu.executeStep(1);
+        }
+    }
+
+    @Test
+    void writeToPPUDataMustMirrorSpriteBackdropPaletteEntries() {
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x3F);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x10);
+        ppu.write(PPU.ADDRESS_PPUDATA, (byte) 0x2A);
+
+        assertEquals(0x2A, ppu.inspectVRAM(0x3F00));
+        assertEquals(0x2A, ppu.inspectVRAM(0x3F10));
+    }
+
+    @Test
+    void setMirroringMustMapNameTablesToInternalBanks() {
+        ppu.setMirroring(Mirroring.HORIZONTAL);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x24);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x10);
+        ppu.write(PPU.ADDRESS_PPUDATA, (byte) 0x99);
+
+        assertEquals(0x99, ppu.inspectVRAM(0x2010));
+        assertEquals(0x00, ppu.inspectVRAM(0x2810));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package nesemulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PPUTraceTest {
+
+    @Test
+    void recordMustPackAndUnpackAllFields() {
+        PPUTrace trace = new PPUTrace(4);
+
+        trace.record(PPUTrace.VRAM_WRITE, 1234, 261, 340, 0x3F1F, 0xAB);
+
+        long record = trace.get(0);
+        assertEquals(PPUTrace.VRAM_WRITE, PPUTrace.typeOf(record));
+        assertEquals(1234, PPUTrace.frameOf(record));
+        assertEquals(261, PPUTrace.scanlineOf(record));
+        assertEquals(340, PPUTrace.dotOf(record));
+        assertEquals(0x3F1F, PPUTrace.addressOf(record));
+        assertEquals(0xAB, PPUTrace.valueOf(record));
+        assertEquals(" 1234 261:340 VRAM  $3F1F = $AB", PPUTrace.format(record));
+    }
+
+    @Test
+    void traceMustKeepOnlyTheMostRecentRecords() {
+        PPUTrace trace = new PPUTrace(4);
+
+        for (int i = 0; i < 6; i++) {
+            trace.record(PPUTrace.REGISTER_WRITE, 0, 0, 0, 0x2006, i);
+        }
+
+        assertEquals(4, trace.size());
+        assertEquals(6, trace.getTotalRecorded());
+        assertEquals(2, PPUTrace.valueOf(trace.get(0)));
+        assertEquals(5, PPUTrace.valueOf(trace.get(3)));
+        assertThrows(IndexOutOfBoundsException.class, () -> trace.get(4));
+    }
+
+    @Test
+    void capacityMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new PPUTrace(100));
+    }
+
+    @Test
+    void ppuMustRecordRegisterAndVRAMAccessesWhileTracing() {
+        PPU ppu = new PPU();
+        PPUTrace trace = new PPUTrace(8);
+        ppu.setTrace(trace);
+
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x21);
+        ppu.write(PPU.ADDRESS_PPUADDR, (byte) 0x08);
+        ppu.write(PPU.ADDRESS_PPUDATA, (byte) 0x7F);
+        ppu.read(PPU.ADDRESS_PPUSTATUS);
+
+        assertEquals(5, trace.size());
+        assertEquals(PPUTrace.REGISTER_WRITE, PPUTrace.typeOf(trace.get(2)));
+        assertEquals(PPU.ADDRESS_PPUDATA, PPUTrace.addressOf(trace.get(2)));
+        assertEquals(PPUTrace.VRAM_WRITE, PPUTrace.typeOf(trace.get(3)));
+        assertEquals(0x2108, PPUTrace.addressOf(trace.get(3)));
+        assertEquals(0x7F, PPUTrace.valueOf(trace.get(3)));
+        assertEquals(PPUTrace.REGISTER_READ, PPUTrace.typeOf(trace.get(4)));
+        assertEquals(0x80, PPUTrace.valueOf(trace.get(4)));
+
+        ppu.setTrace(null);
+        ppu.write(PPU.ADDRESS_PPUDATA, (byte) 0x01);
+        assertEquals(5, trace.size());
+    }
+}
@@ -0,0 +1,49 @@
+package nesemulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaletteTest {
+
+    @Test
+    void colorsMustBeOpaque() {
+        for (int index = 0; index < Palette.SIZE; index++) {
+            assertEquals(0xFF000000, Palette.toARGB(index) & 0xFF000000);
+        }
+    }
+
+    @Test
+    void plainMaskMustUseTheMasterPalette() {
+        assertArrayEquals(Palette.forMask(0b00011110), Palette.forMask(0b00000000));
+        assertEquals(Palette.toARGB(0x16), Palette.forMask(0b00011000)[0x16]);
+    }
+
+    @Test
+    void greyscaleMustKeepOnlyTheLuminanceColumn() {
+        int[] greyscale = Palette.forMask(0b00000001);
+
+        assertEquals(Palette.toARGB(0x00), greyscale[0x0C]);
+        assertEquals(Palette.toARGB(0x10), greyscale[0x16]);
+        assertEquals(Palette.toARGB(0x30), greyscale[0x3A]);
+    }
+
+    @Test
+    void emphasisMustDimTheOtherChannels() {
+        int white = Palette.toARGB(0x30); // 0xFFFEFF
+        int redEmphasis = Palette.forMask(0b00100000)[0x30];
+        int allEmphasis = Palette.forMask(0b11100000)[0x30];
+
+        assertEquals(0xFF, (redEmphasis >> 16) & 0xFF);
+        assertEquals(Math.round(0xFE * 0.816328), (redEmphasis >> 8) & 0xFF);
+        assertEquals(Math.round(0xFF * 0.816328), redEmphasis & 0xFF);
+        assertEquals(white, allEmphasis);
+    }
+
+    @Test
+    void everyMaskCombinationMustHaveItsOwnTable() {
+        assertNotSame(Palette.forMask(0b00100000), Palette.forMask(0b01000000));
+        assertNotSame(Palette.forMask(0b00100000), Palette.forMask(0b00100001));
+        assertNotSame(Palette.forMask(0b11100000), Palette.forMask(0b11100001));
+    }
+}
@@ -0,0 +1,55 @@
+package nesemulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatternCacheTest {
+
+    @Test
+    void decodeRowMustCombineBothBitPlanesLeftmostPixelFirst() {
+        int row = PatternCache.decodeRow(0b10100000, 0b11000001);
+
+        assertEquals(3, PatternCache.pixel(row, 0));
+        assertEquals(2, PatternCache.pixel(row, 1));
+        assertEquals(1, PatternCache.pixel(row, 2));
+        assertEquals(0, PatternCache.pixel(row, 3));
+        assertEquals(2, PatternCache.pixel(row, 7));
+    }
+
+    @Test
+    void decodedRowsMustCarryAMirroredCopyForFlippedSprites() {
+        int flipped = PatternCache.decodeRow(0b10100000, 0b11000001) >>> PatternCache.FLIPPED_SHIFT;
+
+        assertEquals(2, PatternCache.pixel(flipped, 0));
+        assertEquals(1, PatternCache.pixel(flipped, 5));
+        assertEquals(2, PatternCache.pixel(flipped, 6));
+        assertEquals(3, PatternCache.pixel(flipped, 7));
+    }
+
+    @Test
+    void decodedForMustDecodeEachArrayOnce() {
+        PatternCache cache = new PatternCache();
+        int[] chr = new int[32];
+        chr[16 + 3] = 0xFF; // Tile 1, row 3, low plane
+
+        int[] rows = cache.decodedFor(chr);
+
+        assertEquals(16, rows.length);
+        assertSame(rows, cache.decodedFor(chr));
+        assertEquals(1, PatternCache.pixel(rows[PatternCache.rowIndex(16 + 3)], 4));
+        assertEquals(PatternCache.rowIndex(16 + 3), PatternCache.rowIndex(16 + 8 + 3));
+    }
+
+    @Test
+    void updateMustRedecodeTheRowTouchedByEitherPlane() {
+        PatternCache cache = new PatternCache();
+        int[] chr = new int[16];
+        int[] rows = cache.decodedFor(chr);
+
+        chr[8 + 5] = 0b00000001; // High plane of row 5
+        PatternCache.update(rows, chr, 8 + 5);
+
+        assertEquals(2, PatternCache.pixel(rows[5], 7));
+    }
+}
@@ -0,0 +1,134 @@
+package nesemulator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RewindBufferTest {
+
+    @Test
+    void rewindMustStepBackThroughSnapshotsNewestFirst() {
+        var machine = countingMachine();
+        var rewind = new RewindBuffer(1 << 20, 1);
+        var cycles = new long[5];
+        var counters = new int[5];
+        for (int i = 0; i < cycles.length; i++) {
+            machine.runFrame();
+            rewind.frameCompleted(machine);
+            cycles[i] = machine.getCpu().getCyclesCounter();
+            counters[i] = machine.getMmu().readAddress(0x0010);
+        }
+        machine.runFrame();
+
+        for (int i = cycles.length - 1; i >= 0; i--) {
+            assertTrue(rewind.rewind(machine));
+            assertEquals(cycles[i], machine.getCpu().getCyclesCounter());
+            assertEquals(counters[i], machine.getMmu().readAddress(0x0010));
+            assertEquals(i + 1, machine.getPpu().getFrames());
+        }
+        assertFalse(rewind.rewind(machine));
+    }
+
+    @Test
+    void snapshotsMustOnlyBeCapturedEveryInterval() {
+        var machine = countingMachine();
+        var rewind = new RewindBuffer(1 << 20, 4);
+
+        for (int i = 0; i < 10; i++) {
+            machine.runFrame();
+            rewind.frameCompleted(machine);
+        }
+
+        assertEquals(2, rewind.getSnapshotCount());
+        assertTrue(rewind.rewind(machine));
+        assertEquals(8, machine.getPpu().getFrames());
+    }
+
+    @Test
+    void deltasMustBeAFractionOfAFullSnapshot() {
+        var machine = countingMachine();
+        var rewind = new RewindBuffer(1 << 20, 1);
+
+        for (int i = 0; i < 101; i++) {
+            machine.runFrame();
+            rewind.frameCompleted(machine);
+        }
+
+        assertEquals(101, rewind.getSnapshotCount());
+        assertTrue(rewind.getUsedBytes() / 100 < 100, "Average delta of " + rewind.getUsedBytes() / 100 + " bytes");
+    }
+
+    @Test
+    void oldestSnapshotsMustBeDroppedWhenTheBufferIsFull() {
+        var machine = countingMachine();
+        var rewind = new RewindBuffer(512, 1);
+
+        for (int i = 0; i < 200; i++) {
+            machine.runFrame();
+            rewind.frameCompleted(machine);
+        }
+
+        assertTrue(rewind.getUsedBytes() <= 512);
+        assertTrue(rewind.getSnapshotCount() < 200);
+        var snapshots = rewind.getSnapshotCount();
+        for (int i = 0; i < snapshots; i++) {
+            assertTrue(rewind.rewind(machine));
+            assertEquals(200 - i, machine.getPpu().getFrames());
+        }
+        assertFalse(rewind.rewind(machine));
+    }
+
+    @Test
+    void everySnapshotMustSurviveTheHistoryGrowing() {
+        var machine = countingMachine();
+        var rewind = new RewindBuffer(1 << 20, 1);
+
+        for (int i = 0; i < 300; i++) {
+            machine.runFrame();
+            rewind.frameCompleted(machine);
+        }
+
+        assertEquals(300, rewind.getSnapshotCount());
+        for (int i = 0; i < 300; i++) {
+            assertTrue(rewind.rewind(machine));
+            assertEquals(300 - i, machine.getPpu().getFrames());
+        }
+        assertFalse(rewind.rewind(machine));
+    }
+
+    @Test
+    void capturingAfterARewindMustContinueFromTheRestoredState() {
+        var machine = countingMachine();
+        var rewind = new RewindBuffer(1 << 20, 1);
+        for (int i = 0; i < 3; i++) {
+            machine.runFrame();
+            rewind.frameCompleted(machine);
+        }
+        rewind.rewind(machine);
+        rewind.rewind(machine);
+        machine.runFrame();
+        rewind.frameCompleted(machine);
+
+        assertTrue(rewind.rewind(machine));
+        assertEquals(3, machine.getPpu().getFrames());
+        assertTrue(rewind.rewind(machine));
+        assertEquals(1, machine.getPpu().getFrames());
+        assertFalse(rewind.rewind(machine));
+    }
+
+    // Counts in zero page and keeps rendering on, so every frame changes a little
+    private static Machine countingMachine() {
+        var machine = new Machine();
+        int[] program = {
+                0xA9, 0x1E, // LDA #$1E
+                0x8D, 0x01, 0x20, // STA $2001
+                0xE8, // INX
+                0x86, 0x10, // STX $10
+                0x4C, 0x05, 0x80, // JMP $8005
+        };
+        for (int i = 0; i < program.length; i++) {
+            machine.getMmu().writeAddress(0x8000 + i, program[i]);
+        }
+        return machine;
+    }
+}
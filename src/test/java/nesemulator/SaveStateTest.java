@@ -0,0 +1,136 @@
+package nesemulator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SaveStateTest {
+
+    @Test
+    void loadingAStateMustResumeExactlyWhereItWasSaved() {
+        var original = busyMachine();
+        original.runFrame();
+        var buffer = ByteBuffer.allocate(SaveState.MAX_SIZE);
+        SaveState.write(original, buffer);
+        original.runFrame();
+        original.runFrame();
+
+        var restored = new Machine();
+        buffer.flip();
+        SaveState.read(restored, buffer);
+        restored.runFrame();
+        restored.runFrame();
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals(original.getCpu().getCyclesCounter(), restored.getCpu().getCyclesCounter());
+        assertEquals(original.getCpu().getX(), restored.getCpu().getX());
+        assertEquals(original.getCpu().getPC(), restored.getCpu().getPC());
+        assertEquals(original.getMmu().readAddress(0x0010), restored.getMmu().readAddress(0x0010));
+        assertEquals(original.getPpu().scrollX, restored.getPpu().scrollX);
+        assertEquals(original.getPpu().getFrames(), restored.getPpu().getFrames());
+        assertEquals(original.getScheduler().getNextEventCycle(), restored.getScheduler().getNextEventCycle());
+        assertArrayEquals(original.getPpu().getScreenPixels(), restored.getPpu().getScreenPixels());
+    }
+
+    @Test
+    void loadingAStateMustRestoreMapperBanksAndCHRRAM() {
+        var prg = new byte[0x20000];
+        for (int bank = 0; bank < prg.length / 0x2000; bank++) {
+            prg[bank * 0x2000] = (byte) bank;
+        }
+        var cart = new Cart(4, Mirroring.VERTICAL, prg, new byte[0]);
+        var original = new Machine();
+        original.loadCart(cart);
+        original.getMmu().writeAddress(0x8000, 6);
+        original.getMmu().writeAddress(0x8001, 5);
+        original.getMmu().writeAddress(0xA000, 1);
+        original.getPpu().writeVRAM(0x0010, 0b10000000);
+        var buffer = ByteBuffer.allocate(SaveState.MAX_SIZE);
+        SaveState.write(original, buffer);
+
+        var restored = new Machine();
+        restored.loadCart(cart);
+        buffer.flip();
+        SaveState.read(restored, buffer);
+
+        assertEquals(5, restored.getMmu().readAddress(0x8000));
+        assertEquals(0b10000000, restored.getPpu().inspectVRAM(0x0010));
+        restored.getPpu().writeVRAM(0x2000, 0x42);
+        assertEquals(0x42, restored.getPpu().inspectVRAM(0x2400)); // Horizontal mirroring
+        restored.getPpu().writeVRAM(0x2000 + 0x21, 0x01);
+        restored.getPpu().writeVRAM(0x3F01, 0x16);
+        restored.getPpu().mask = (byte) 0b00001010;
+        restored.getPpu().render();
+        assertEquals(Palette.toARGB(0x16), restored.getPpu().screen.getRGB(8, 8));
+    }
+
+    @Test
+    void savedFilesMustLoadBack(@TempDir Path directory) throws IOException {
+        var original = busyMachine();
+        original.runFrame();
+        var path = directory.resolve("run.state");
+        var saveState = new SaveState();
+        saveState.save(original, path);
+
+        var restored = new Machine();
+        saveState.load(restored, path);
+
+        assertTrue(Files.size(path) < SaveState.MAX_SIZE);
+        assertFalse(Files.exists(directory.resolve("run.state.tmp")));
+        assertEquals(original.getCpu().getCyclesCounter(), restored.getCpu().getCyclesCounter());
+        assertEquals(original.getPpu().scanline, restored.getPpu().scanline);
+    }
+
+    @Test
+    void statesFromAnotherVersionMustBeRejected() {
+        var buffer = ByteBuffer.allocate(SaveState.MAX_SIZE);
+        SaveState.write(new Machine(), buffer);
+        buffer.putShort(4, (short) (SaveState.VERSION + 1));
+        buffer.flip();
+
+        var e = assertThrows(RuntimeException.class, () -> SaveState.read(new Machine(), buffer));
+        assertTrue(e.getMessage().contains("version"));
+    }
+
+    @Test
+    void statesForAnotherCartMustBeRejected() {
+        var buffer = ByteBuffer.allocate(SaveState.MAX_SIZE);
+        SaveState.write(new Machine(), buffer);
+        buffer.flip();
+        var machine = new Machine();
+        machine.loadCart(new Cart(0, Mirroring.VERTICAL, new byte[0x8000], new byte[0x2000]));
+
+        assertThrows(RuntimeException.class, () -> SaveState.read(machine, buffer));
+    }
+
+    // Keeps rendering on and changes RAM and scrolling every few instructions
+    private static Machine busyMachine() {
+        var machine = new Machine();
+        var random = new Random(3);
+        for (int address = 0x0000; address < 0x3000; address++) {
+            machine.getPpu().writeVRAM(address, random.nextInt(0x100));
+        }
+        for (int address = 0x3F00; address < 0x3F20; address++) {
+            machine.getPpu().writeVRAM(address, random.nextInt(0x40));
+        }
+        int[] program = {
+                0xA9, 0x1E, // LDA #$1E
+                0x8D, 0x01, 0x20, // STA $2001
+                0xE8, // INX
+                0x86, 0x10, // STX $10
+                0x8E, 0x05, 0x20, // STX $2005
+                0x4C, 0x05, 0x80, // JMP $8005
+        };
+        for (int i = 0; i < program.length; i++) {
+            machine.getMmu().writeAddress(0x8000 + i, program[i]);
+        }
+        return machine;
+    }
+}
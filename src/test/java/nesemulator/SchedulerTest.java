@@ -0,0 +1,81 @@
+package nesemulator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SchedulerTest {
+
+    private Scheduler scheduler;
+    private List<String> fired;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new Scheduler();
+        fired = new ArrayList<>();
+    }
+
+    @Test
+    void nextEventCycleMustBeTheEarliestDeadline() {
+        int first = scheduler.register(cycle -> { });
+        int second = scheduler.register(cycle -> { });
+
+        assertEquals(Scheduler.NEVER, scheduler.getNextEventCycle());
+        scheduler.schedule(first, 300);
+        scheduler.schedule(second, 100);
+        assertEquals(100, scheduler.getNextEventCycle());
+
+        scheduler.schedule(second, 500);
+        assertEquals(300, scheduler.getNextEventCycle());
+
+        scheduler.cancel(first);
+        assertEquals(500, scheduler.getNextEventCycle());
+    }
+
+    @Test
+    void runDueEventsMustFireDueEventsInTimestampOrder() {
+        int a = scheduler.register(cycle -> fired.add("a@" + cycle));
+        int b = scheduler.register(cycle -> fired.add("b@" + cycle));
+        int c = scheduler.register(cycle -> fired.add("c@" + cycle));
+        scheduler.schedule(a, 20);
+        scheduler.schedule(b, 10);
+        scheduler.schedule(c, 40);
+
+        scheduler.runDueEvents(30);
+
+        assertEquals(List.of("b@10", "a@20"), fired);
+        assertEquals(40, scheduler.getNextEventCycle());
+        assertEquals(Scheduler.NEVER, scheduler.getDeadline(a));
+    }
+
+    @Test
+    void eventsScheduledByHandlersMustFireInTheSameRunIfDue() {
+        int[] repeating = new int[1];
+        repeating[0] = scheduler.register(cycle -> {
+            fired.add("tick@" + cycle);
+            scheduler.schedule(repeating[0], cycle + 10);
+        });
+        scheduler.schedule(repeating[0], 0);
+
+        scheduler.runDueEvents(25);
+
+        assertEquals(List.of("tick@0", "tick@10", "tick@20"), fired);
+        assertEquals(30, scheduler.getNextEventCycle());
+    }
+
+    @Test
+    void resetMustCancelEverything() {
+        int event = scheduler.register(cycle -> fired.add("fired"));
+        scheduler.schedule(event, 5);
+
+        scheduler.reset();
+        scheduler.runDueEvents(100);
+
+        assertEquals(Scheduler.NEVER, scheduler.getNextEventCycle());
+        assertEquals(List.of(), fired);
+    }
+}
@@ -0,0 +1,87 @@
+package nesemulator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TripleBufferTest {
+
+    private TripleBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new TripleBuffer(4, 2);
+    }
+
+    @Test
+    void acquireMustReturnTheSameFrameUntilAnotherIsPublished() {
+        var initial = buffer.acquire();
+
+        assertFalse(buffer.hasFreshFrame());
+        assertSame(initial, buffer.acquire());
+    }
+
+    @Test
+    void acquireMustReturnTheNewestPublishedFrame() {
+        buffer.getBackPixels()[0] = 1;
+        buffer.publish();
+        buffer.getBackPixels()[0] = 2;
+        buffer.publish();
+
+        assertTrue(buffer.hasFreshFrame());
+        var acquired = buffer.acquire();
+        assertEquals(2, acquired.getRGB(0, 0) & 0xFFFFFF);
+        assertSame(buffer.getPublished(), acquired);
+    }
+
+    @Test
+    void writerMustNeverDrawIntoTheFrameBeingPresented() {
+        buffer.publish();
+        var presented = buffer.acquire();
+
+        for (int i = 0; i < 10; i++) {
+            assertNotSame(pixelsOf(presented), buffer.getBackPixels());
+            buffer.publish();
+        }
+    }
+
+    @Test
+    void framesMustNeverTearAcrossThreads() throws InterruptedException {
+        buffer = new TripleBuffer(64, 64);
+        var done = new AtomicBoolean();
+        var failure = new AtomicReference<String>();
+
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                BufferedImage frame = buffer.acquire();
+                int[] pixels = pixelsOf(frame);
+                for (int pixel : pixels) {
+                    if (pixel != pixels[0]) {
+                        failure.set(String.format("Torn frame: %d and %d", pixels[0], pixel));
+                        return;
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int frame = 0; frame < 20_000; frame++) {
+            Arrays.fill(buffer.getBackPixels(), frame);
+            buffer.publish();
+        }
+        done.set(true);
+        reader.join();
+
+        assertNull(failure.get());
+    }
+
+    private static int[] pixelsOf(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+}
@@ -0,0 +1,217 @@
+package nesemulator.cpu;
+
+import nesemulator.MMU;
+import nesemulator.PPU;
+import nesemulator.Scheduler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockCompilerTest {
+
+    private static final int ROM_ADDRESS = 0x8000;
+    // Only code in ROM is compiled
+    private static final int PROGRAM_ADDRESS = 0x8300;
+    private static final int RAM_PROGRAM_ADDRESS = 0x0300;
+
+    // Runs the program on an interpreting CPU and a recompiling one, in batches of batchCycles,
+    // and checks they agree after every batch
+    private static CPU runBoth(int address, int[] program, int batchCycles, int batches) {
+        var interpreted = new Harness(address, program, false);
+        var compiled = new Harness(address, program, true);
+        for (int i = 0; i < batches; i++) {
+            interpreted.run(batchCycles);
+            compiled.run(batchCycles);
+            interpreted.assertSameAs(compiled);
+        }
+        return compiled.cpu;
+    }
+
+    @Test
+    void compiledLoopMustMatchTheInterpreter() {
+        int[] program = {
+                0xA2, 0x00,       // 8300: LDX #$00
+                0xBD, 0x00, 0x02, // 8302: LDA $0200,X
+                0x9D, 0x00, 0x04, // 8305: STA $0400,X
+                0xE8,             // 8308: INX
+                0xA0, 0x10,       // 8309: LDY #$10
+                0x88,             // 830B: DEY
+                0xD0, 0xFD,       // 830C: BNE $830B
+                0xC0, 0x80,       // 830E: CPY #$80
+                0x8A,             // 8310: TXA
+                0xC9, 0x40,       // 8311: CMP #$40
+                0xD0, 0xED,       // 8313: BNE $8302
+                0x4C, 0x00, 0x83  // 8315: JMP $8300
+        };
+
+        var cpu = runBoth(PROGRAM_ADDRESS, program, 7, 2000);
+
+        assertNotNull(cpu.blockAt(0x830B).compiled);
+    }
+
+    @Test
+    void instructionsWithoutTranslationMustRunThroughTheirHandlers() {
+        int[] program = {
+                0xA2, 0xFF,       // 8300: LDX #$FF
+                0x9A,             // 8302: TXS
+                0x20, 0x10, 0x83, // 8303: JSR $8310
+                0xEE, 0x20, 0x02, // 8306: INC $0220
+                0x48,             // 8309: PHA
+                0x09, 0x81,       // 830A: ORA #$81
+                0x30, 0xF2,       // 830C: BMI $8300
+                0xEA, 0xEA,       // 830E: NOP, NOP
+                0xC6, 0x21,       // 8310: DEC $21
+                0x60              // 8312: RTS
+        };
+
+        var cpu = runBoth(PROGRAM_ADDRESS, program, 11, 2000);
+
+        assertNotNull(cpu.blockAt(0x8306).compiled);
+    }
+
+    @Test
+    void blocksMustStopOnceTheyOverwriteTheirOwnCode() {
+        int[] program = {
+                0xAD, 0x09, 0x03, // 0300: LDA $0309
+                0x18,             // 0303: CLC
+                0x8D, 0x09, 0x03, // 0304: STA $0309
+                0xE8,             // 0307: INX
+                0xC8,             // 0308: INY
+                0xE8,             // 0309: INX, rewritten with itself
+                0x4C, 0x00, 0x03  // 030A: JMP $0300
+        };
+
+        runBoth(RAM_PROGRAM_ADDRESS, program, 5, 2000);
+    }
+
+    @Test
+    void codeInRAMMustOnlyBeInterpreted() {
+        var harness = new Harness(RAM_PROGRAM_ADDRESS, new int[]{0xE8, 0x4C, 0x00, 0x03}, true);
+
+        harness.run(5 * 1000);
+
+        assertNull(harness.cpu.blockAt(RAM_PROGRAM_ADDRESS).compiled);
+    }
+
+    @Test
+    void resultsLeftPendingMustCarryIntoTheNextBlock() {
+        int[] program = {
+                0xA2, 0x05,       // 8300: LDX #$05
+                0xCA,             // 8302: DEX
+                0x4C, 0x06, 0x83, // 8303: JMP $8306
+                0xD0, 0xFA,       // 8306: BNE $8302
+                0xA0, 0x80,       // 8308: LDY #$80
+                0x4C, 0x0D, 0x83, // 830A: JMP $830D
+                0xC0, 0x40,       // 830D: CPY #$40
+                0x30, 0xEF,       // 830F: BMI $8300
+                0x4C, 0x00, 0x83  // 8311: JMP $8300
+        };
+
+        var cpu = runBoth(PROGRAM_ADDRESS, program, 101, 300);
+
+        assertNotNull(cpu.blockAt(0x8306).compiled);
+        assertNotNull(cpu.blockAt(0x830D).compiled);
+    }
+
+    @Test
+    void oamDMAStallsMustBeCounted() {
+        int[] program = {
+                0xA9, 0x02,       // 8300: LDA #$02
+                0x8D, 0x14, 0x40, // 8302: STA $4014
+                0xE8,             // 8305: INX
+                0x4C, 0x00, 0x83  // 8306: JMP $8300
+        };
+
+        runBoth(PROGRAM_ADDRESS, program, 600, 200);
+    }
+
+    @Test
+    void blocksMustNotBeCompiledBeforeTheyAreHot() {
+        var harness = new Harness(PROGRAM_ADDRESS, new int[]{0xE8, 0x4C, 0x00, 0x83}, true);
+
+        harness.run(5 * 10);
+
+        assertNull(harness.cpu.blockAt(PROGRAM_ADDRESS).compiled);
+    }
+
+    @Test
+    void leastRecentlyUsedBlocksMustBeDroppedFromAFullCache() {
+        var cache = new CompiledBlockCache(2);
+        var first = inxBlock(0x8000);
+        var second = inxBlock(0x8001);
+        var firstCompiled = cache.compile(first);
+        var secondCompiled = cache.compile(second);
+
+        assertSame(firstCompiled, cache.compile(first));
+        cache.compile(inxBlock(0x8002));
+
+        assertEquals(2, cache.size());
+        assertSame(firstCompiled, cache.compile(first));
+        assertNotSame(secondCompiled, cache.compile(second));
+    }
+
+    @Test
+    void threadsCompilingTheSameBlockMustAllGetTheFirstClassIn() throws InterruptedException {
+        var cache = new CompiledBlockCache(CompiledBlockCache.DEFAULT_CAPACITY);
+        var results = new CompiledBlock[8];
+        var threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> results[index] = cache.compile(inxBlock(0x8000)));
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, cache.size());
+        for (CompiledBlock result : results) {
+            assertSame(cache.compile(inxBlock(0x8000)), result);
+        }
+    }
+
+    private static BasicBlock inxBlock(int address) {
+        return new BasicBlock(address, new int[]{0xE8}, new OpcodeHandler[1], new int[1], 0, true);
+    }
+
+    private static final class Harness {
+
+        private final MMU mmu = new MMU(new PPU());
+        private final CPU cpu = new CPU(mmu);
+        private final Scheduler scheduler = new Scheduler();
+        private final int event = scheduler.register(cycle -> { });
+
+        Harness(int address, int[] program, boolean dynarec) {
+            var rom = new byte[0x10000 - ROM_ADDRESS];
+            for (int i = 0; i < program.length; i++) {
+                if (address >= ROM_ADDRESS) {
+                    rom[address - ROM_ADDRESS + i] = (byte) program[i];
+                } else {
+                    mmu.writeAddress(address + i, program[i]);
+                }
+            }
+            mmu.mapPRG(ROM_ADDRESS, rom.length, rom, 0);
+            cpu.pc = address;
+            cpu.setDynarec(dynarec);
+        }
+
+        void run(int cycles) {
+            scheduler.schedule(event, cpu.getCyclesCounter() + cycles);
+            cpu.runUntilNextEvent(scheduler);
+        }
+
+        void assertSameAs(Harness other) {
+            assertEquals(cpu.getCyclesCounter(), other.cpu.getCyclesCounter());
+            assertEquals(cpu.getInstructionsCounter(), other.cpu.getInstructionsCounter());
+            assertEquals(cpu.pc, other.cpu.pc);
+            assertEquals(cpu.a, other.cpu.a);
+            assertEquals(cpu.x, other.cpu.x);
+            assertEquals(cpu.y, other.cpu.y);
+            assertEquals(cpu.getP(), other.cpu.getP());
+            assertEquals(cpu.s, other.cpu.s);
+            for (int address = 0; address < 0x0800; address++) {
+                assertEquals(mmu.readAddress(address), other.mmu.readAddress(address), String.format("$%04X", address));
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package nesemulator.cpu;
 
 import nesemulator.MMU;
+import nesemulator.PPU;
+import nesemulator.Scheduler;
+import nesemulator.cpu.observer.CPUObserver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -8,1323 +11,1563 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class CPUTest {
 
+    private MMU mmu;
+    private CPU cpu;
+
     @BeforeEach
     void setUp() {
-        CPU.initialize();
+        mmu = new MMU(new PPU());
+        cpu = new CPU(mmu);
     }
 
     @Test
     void initializeMustClearRegisters() {
-        assertEquals(0x00, CPU.a);
-        assertEquals(0x00, CPU.x);
-        assertEquals(0x00, CPU.y);
-        assertEquals((byte) 0x34, CPU.p);
+        assertEquals(0x00, cpu.a);
+        assertEquals(0x00, cpu.x);
+        assertEquals(0x00, cpu.y);
+        assertEquals((byte) 0x34, cpu.p);
     }
 
     @Test
     void initializeMustSetStackPointerToHigherAddress() {
-        assertEquals(0xFF, CPU.s);
+        assertEquals(0xFF, cpu.s);
     }
 
     @Test
     void initializeMustResetSoundAndJoypadPorts() {
-        assertEquals(0x00, MMU.readAddress(0x4000));
-        assertEquals(0x00, MMU.readAddress(0x4001));
-        assertEquals(0x00, MMU.readAddress(0x4002));
-        assertEquals(0x00, MMU.readAddress(0x4003));
-        assertEquals(0x00, MMU.readAddress(0x4004));
-        assertEquals(0x00, MMU.readAddress(0x4005));
-        assertEquals(0x00, MMU.readAddress(0x4006));
-        assertEquals(0x00, MMU.readAddress(0x4007));
-        assertEquals(0x00, MMU.readAddress(0x4008));
-        assertEquals(0x00, MMU.readAddress(0x4009));
-        assertEquals(0x00, MMU.readAddress(0x400A));
-        assertEquals(0x00, MMU.readAddress(0x400B));
-        assertEquals(0x00, MMU.readAddress(0x400C));
-        assertEquals(0x00, MMU.readAddress(0x400D));
-        assertEquals(0x00, MMU.readAddress(0x400E));
-        assertEquals(0x00, MMU.readAddress(0x400F));
+        assertEquals(0x00, mmu.readAddress(0x4000));
+        assertEquals(0x00, mmu.readAddress(0x4001));
+        assertEquals(0x00, mmu.readAddress(0x4002));
+        assertEquals(0x00, mmu.readAddress(0x4003));
+        assertEquals(0x00, mmu.readAddress(0x4004));
+        assertEquals(0x00, mmu.readAddress(0x4005));
+        assertEquals(0x00, mmu.readAddress(0x4006));
+        assertEquals(0x00, mmu.readAddress(0x4007));
+        assertEquals(0x00, mmu.readAddress(0x4008));
+        assertEquals(0x00, mmu.readAddress(0x4009));
+        assertEquals(0x00, mmu.readAddress(0x400A));
+        assertEquals(0x00, mmu.readAddress(0x400B));
+        assertEquals(0x00, mmu.readAddress(0x400C));
+        assertEquals(0x00, mmu.readAddress(0x400D));
+        assertEquals(0x00, mmu.readAddress(0x400E));
+        assertEquals(0x00, mmu.readAddress(0x400F));
 
         // Boat duel
-        assertEquals(0x00, MMU.readAddress(0x4010));
-        assertEquals(0x00, MMU.readAddress(0x4011));
-        assertEquals(0x00, MMU.readAddress(0x4012));
-        assertEquals(0x00, MMU.readAddress(0x4013));
+        assertEquals(0x00, mmu.readAddress(0x4010));
+        assertEquals(0x00, mmu.readAddress(0x4011));
+        assertEquals(0x00, mmu.readAddress(0x4012));
+        assertEquals(0x00, mmu.readAddress(0x4013));
 
-        assertEquals(0x00, MMU.readAddress(0x4015));
-        assertEquals(0x00, MMU.readAddress(0x4017));
+        assertEquals(0x00, mmu.readAddress(0x4015));
+        assertEquals(0x00, mmu.readAddress(0x4017));
     }
 
     @Test
     void ldaImmediateMustLoadUnsignedValueToRegisterA() {
         var value = 0x0D;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
 
-        int cycles = CPU.ldaImmediate();
+        int cycles = cpu.ldaImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x02, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x02, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaImmediateMustSetNegativeFlagIfAIsNegative() {
         var value = 0xFF;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
 
-        int cycles = CPU.ldaImmediate();
+        int cycles = cpu.ldaImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x02, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(value, cpu.a);
+        assertEquals(0x02, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
     }
 
     @Test
     void ldaImmediateMustSetZeroFlagIfAIsZero() {
         var value = 0x00;
-        CPU.a = 0x01;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
+        cpu.a = 0x01;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
 
-        int cycles = CPU.ldaImmediate();
+        int cycles = cpu.ldaImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x02, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(value, cpu.a);
+        assertEquals(0x02, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
     }
 
     @Test
     void staAbsoluteMustStoreTheAccumulatorContentIntoMemory() {
-        CPU.a = 0x99;
-        CPU.pc = 0x00;
+        cpu.a = 0x99;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABCD, 0x00);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABCD, 0x00);
 
-        int cycles = CPU.staAbsolute();
+        int cycles = cpu.staAbsolute();
 
         assertEquals(4, cycles);
-        assertEquals(0x99, MMU.readAddress(0xABCD));
-        assertEquals(0x03, CPU.pc);
+        assertEquals(0x99, mmu.readAddress(0xABCD));
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void staAbsoluteXMustStoreTheAccumulatorContentIntoMemoryOffsetByX() {
-        CPU.a = 0x99;
-        CPU.x = 0x03;
-        CPU.pc = 0x00;
+        cpu.a = 0x99;
+        cpu.x = 0x03;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABCD, 0x00);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABCD, 0x00);
 
-        int cycles = CPU.staAbsoluteX();
+        int cycles = cpu.staAbsoluteX();
 
         assertEquals(5, cycles);
-        assertEquals(0x99, MMU.readAddress(0xABD0));
-        assertEquals(0x03, CPU.pc);
+        assertEquals(0x99, mmu.readAddress(0xABD0));
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void staAbsoluteYMustStoreTheAccumulatorContentIntoMemoryOffsetByY() {
-        CPU.a = 0x99;
-        CPU.y = 0x03;
-        CPU.pc = 0x00;
+        cpu.a = 0x99;
+        cpu.y = 0x03;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABCD, 0x00);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABCD, 0x00);
 
-        int cycles = CPU.staAbsoluteY();
+        int cycles = cpu.staAbsoluteY();
 
         assertEquals(5, cycles);
-        assertEquals(0x99, MMU.readAddress(0xABD0));
-        assertEquals(0x03, CPU.pc);
+        assertEquals(0x99, mmu.readAddress(0xABD0));
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void styAbsoluteMustStoreTheAccumulatorContentIntoMemory() {
-        CPU.y = 0x99;
-        CPU.pc = 0x00;
+        cpu.y = 0x99;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABCD, 0x00);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABCD, 0x00);
 
-        int cycles = CPU.styAbsolute();
+        int cycles = cpu.styAbsolute();
 
         assertEquals(4, cycles);
-        assertEquals(0x99, MMU.readAddress(0xABCD));
-        assertEquals(0x03, CPU.pc);
+        assertEquals(0x99, mmu.readAddress(0xABCD));
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void ldaAbsoluteMustLoadUnsignedValueFromMemoryPositionToRegisterA() {
         var value = 0x0D;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABCD, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABCD, value);
 
-        int cycles = CPU.ldaAbsolute();
+        int cycles = cpu.ldaAbsolute();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaAbsoluteMustSetZeroFlagIfValueLoadedToRegisterAIsZero() {
         var value = 0x00;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABCD, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABCD, value);
 
-        int cycles = CPU.ldaAbsolute();
+        int cycles = cpu.ldaAbsolute();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaAbsoluteMustSetNegativeFlagIfValueLoadedToRegisterAIsNegative() {
         var value = 0xC4;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABCD, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABCD, value);
 
-        int cycles = CPU.ldaAbsolute();
+        int cycles = cpu.ldaAbsolute();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void bplMustMoveProgramCountByGivenOffsetIfNegativeFlagIsUnset() {
-        CPU.pc = 0x00;
-        CPU.unsetStatusFlag(CPU.STATUS_FLAG_NEGATIVE);
+        cpu.pc = 0x00;
+        cpu.unsetStatusFlag(CPU.STATUS_FLAG_NEGATIVE);
 
-        MMU.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x01, 0x30);
 
-        int cycles = CPU.bpl();
+        int cycles = cpu.bpl();
 
         assertEquals(3, cycles);
-        assertEquals(0x32, CPU.pc);
+        assertEquals(0x32, cpu.pc);
     }
 
     @Test
     void bplMustMoveProgramCountBy2IfNegativeFlagIsSet() {
-        CPU.pc = 0x00;
-        CPU.setStatusFlag(CPU.STATUS_FLAG_NEGATIVE);
+        cpu.pc = 0x00;
+        cpu.setStatusFlag(CPU.STATUS_FLAG_NEGATIVE);
 
-        MMU.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x01, 0x30);
 
-        int cycles = CPU.bpl();
+        int cycles = cpu.bpl();
 
         assertEquals(2, cycles);
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void bmiMustMoveProgramCountByGivenOffsetIfNegativeFlagIsSet() {
-        CPU.pc = 0x00;
-        CPU.setStatusFlag(CPU.STATUS_FLAG_NEGATIVE);
+        cpu.pc = 0x00;
+        cpu.setStatusFlag(CPU.STATUS_FLAG_NEGATIVE);
 
-        MMU.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x01, 0x30);
 
-        int cycles = CPU.bmi();
+        int cycles = cpu.bmi();
 
         assertEquals(3, cycles);
-        assertEquals(0x32, CPU.pc);
+        assertEquals(0x32, cpu.pc);
     }
 
     @Test
     void bmiMustMoveProgramCountBy2IfNegativeFlagIsUnset() {
-        CPU.pc = 0x00;
-        CPU.unsetStatusFlag(CPU.STATUS_FLAG_NEGATIVE);
+        cpu.pc = 0x00;
+        cpu.unsetStatusFlag(CPU.STATUS_FLAG_NEGATIVE);
 
-        MMU.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x01, 0x30);
 
-        int cycles = CPU.bmi();
+        int cycles = cpu.bmi();
 
         assertEquals(2, cycles);
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void seiMustSetInterruptFlag() {
-        CPU.pc = 0x00;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.sei();
+        int cycles = cpu.sei();
         assertEquals(2, cycles);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_INTERRUPT));
-        assertEquals(0x01, CPU.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_INTERRUPT));
+        assertEquals(0x01, cpu.pc);
 
         // make sure is idempotent
-        cycles = CPU.sei();
+        cycles = cpu.sei();
         assertEquals(2, cycles);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_INTERRUPT));
-        assertEquals(0x02, CPU.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_INTERRUPT));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void cldMustClearDecimalFlag() {
-        CPU.pc = 0x00;
-        CPU.setStatusFlag(CPU.STATUS_FLAG_DECIMAL);
+        cpu.pc = 0x00;
+        cpu.setStatusFlag(CPU.STATUS_FLAG_DECIMAL);
 
-        int cycles = CPU.cld();
+        int cycles = cpu.cld();
         assertEquals(2, cycles);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_DECIMAL));
-        assertEquals(0x01, CPU.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_DECIMAL));
+        assertEquals(0x01, cpu.pc);
 
         // make sure is idempotent
-        cycles = CPU.cld();
+        cycles = cpu.cld();
         assertEquals(2, cycles);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_DECIMAL));
-        assertEquals(0x02, CPU.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_DECIMAL));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void clcMustClearCarryFlag() {
-        CPU.pc = 0x00;
-        CPU.setStatusFlag(CPU.STATUS_FLAG_CARRY);
+        cpu.pc = 0x00;
+        cpu.setStatusFlag(CPU.STATUS_FLAG_CARRY);
 
-        int cycles = CPU.clc();
+        int cycles = cpu.clc();
         assertEquals(2, cycles);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertEquals(0x01, CPU.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertEquals(0x01, cpu.pc);
 
         // make sure is idempotent
-        cycles = CPU.clc();
+        cycles = cpu.clc();
         assertEquals(2, cycles);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertEquals(0x02, CPU.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void ldxImmediateMustLoadUnsignedValueToRegisterX() {
         var value = 0x0D;
-        CPU.x = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
-        int cycles = CPU.ldxImmediate();
+        cpu.x = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
+        int cycles = cpu.ldxImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.x);
-        assertEquals(0x02, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.x);
+        assertEquals(0x02, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldxImmediateMustSetNegativeFlagIfXIsNegative() {
         var value = 0xFF;
-        CPU.x = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
-        int cycles = CPU.ldxImmediate();
+        cpu.x = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
+        int cycles = cpu.ldxImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.x);
-        assertEquals(0x02, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(value, cpu.x);
+        assertEquals(0x02, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
     }
 
     @Test
     void ldxImmediateMustSetZeroFlagIfXIsZero() {
         var value = 0x00;
-        CPU.x = 0x01;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
-        int cycles = CPU.ldxImmediate();
+        cpu.x = 0x01;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
+        int cycles = cpu.ldxImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.x);
-        assertEquals(0x02, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(value, cpu.x);
+        assertEquals(0x02, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
     }
 
     @Test
     void txsMustSetXValueToStackPointer() {
-        CPU.x = 0x00AA;
-        CPU.s = 0x0200;
-        CPU.pc = 0x00;
+        cpu.x = 0x00AA;
+        cpu.s = 0x0200;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.txs();
+        int cycles = cpu.txs();
 
         assertEquals(2, cycles);
-        assertEquals(0x00AA, CPU.x);
-        assertEquals(0x00AA, CPU.s);
-        assertEquals(0x01, CPU.pc);
+        assertEquals(0x00AA, cpu.x);
+        assertEquals(0x00AA, cpu.s);
+        assertEquals(0x01, cpu.pc);
     }
 
     @Test
     void tayMustSetAccumulatorValueToYRegister() {
-        CPU.a = 0xAA;
-        CPU.y = 0x00;
-        CPU.pc = 0x00;
+        cpu.a = 0xAA;
+        cpu.y = 0x00;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.tay();
+        int cycles = cpu.tay();
 
         assertEquals(2, cycles);
-        assertEquals(0x00AA, CPU.a);
-        assertEquals(0x00AA, CPU.y);
-        assertEquals(0x01, CPU.pc);
+        assertEquals(0x00AA, cpu.a);
+        assertEquals(0x00AA, cpu.y);
+        assertEquals(0x01, cpu.pc);
     }
 
     @Test
     void txaMustSetXRegisterValueToAccumulator() {
-        CPU.x = 0xAA;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
+        cpu.x = 0xAA;
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.txa();
+        int cycles = cpu.txa();
 
         assertEquals(2, cycles);
-        assertEquals(0x00AA, CPU.x);
-        assertEquals(0x00AA, CPU.a);
-        assertEquals(0x01, CPU.pc);
+        assertEquals(0x00AA, cpu.x);
+        assertEquals(0x00AA, cpu.a);
+        assertEquals(0x01, cpu.pc);
     }
 
     @Test
     void tyaMustSetYRegisterValueToAccumulator() {
-        CPU.y = 0xAA;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
+        cpu.y = 0xAA;
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.tya();
+        int cycles = cpu.tya();
 
         assertEquals(2, cycles);
-        assertEquals(0x00AA, CPU.y);
-        assertEquals(0x00AA, CPU.a);
-        assertEquals(0x01, CPU.pc);
+        assertEquals(0x00AA, cpu.y);
+        assertEquals(0x00AA, cpu.a);
+        assertEquals(0x01, cpu.pc);
     }
 
     @Test
     void staZeroPageXMustStoreRegisterAContentIntoMemoryAddressOffsetByX() {
-        CPU.x = 0x03;
-        CPU.a = 0xAB;
+        cpu.x = 0x03;
+        cpu.a = 0xAB;
 
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, 0x30);
-        MMU.writeAddress(0x33, 0);
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x33, 0);
 
-        int cycles = CPU.staZeroPageX();
+        int cycles = cpu.staZeroPageX();
 
         assertEquals(4, cycles);
-        assertEquals(0xAB, MMU.readAddress(0x33));
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0xAB, mmu.readAddress(0x33));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void staZeroPageMustStoreRegisterAContentIntoMemoryAddress() {
         int address = 0x99;
-        CPU.a = 0xAB;
+        cpu.a = 0xAB;
 
-        CPU.pc = 0x00;
-        MMU.writeAddress(address, 0);
-        MMU.writeAddress(0x01, address);
+        cpu.pc = 0x00;
+        mmu.writeAddress(address, 0);
+        mmu.writeAddress(0x01, address);
 
-        int cycles = CPU.staZeroPage();
+        int cycles = cpu.staZeroPage();
 
         assertEquals(3, cycles);
-        assertEquals(0xAB, MMU.readAddress(address));
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0xAB, mmu.readAddress(address));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void styZeroPageMustStoreRegisterYContentIntoMemoryAddress() {
         int address = 0x99;
-        CPU.y = 0xAB;
+        cpu.y = 0xAB;
 
-        CPU.pc = 0x00;
-        MMU.writeAddress(address, 0);
-        MMU.writeAddress(0x01, address);
+        cpu.pc = 0x00;
+        mmu.writeAddress(address, 0);
+        mmu.writeAddress(0x01, address);
 
-        int cycles = CPU.styZeroPage();
+        int cycles = cpu.styZeroPage();
 
         assertEquals(3, cycles);
-        assertEquals(0xAB, MMU.readAddress(address));
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0xAB, mmu.readAddress(address));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void stxAbsoluteMustStoreRegisterXContentIntoMemory() {
-        CPU.x = 0x99;
-        CPU.pc = 0x00;
+        cpu.x = 0x99;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABCD, 0x00);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABCD, 0x00);
 
-        int cycles = CPU.stxAbsolute();
+        int cycles = cpu.stxAbsolute();
 
         assertEquals(4, cycles);
-        assertEquals(0x99, MMU.readAddress(0xABCD));
-        assertEquals(0x03, CPU.pc);
+        assertEquals(0x99, mmu.readAddress(0xABCD));
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void stxZeroPageMustStoreRegisterXContentIntoMemoryAddress() {
         int address = 0x99;
-        CPU.x = 0xAB;
+        cpu.x = 0xAB;
 
-        CPU.pc = 0x00;
-        MMU.writeAddress(address, 0);
-        MMU.writeAddress(0x01, address);
+        cpu.pc = 0x00;
+        mmu.writeAddress(address, 0);
+        mmu.writeAddress(0x01, address);
 
-        int cycles = CPU.stxZeroPage();
+        int cycles = cpu.stxZeroPage();
 
         assertEquals(3, cycles);
-        assertEquals(0xAB, MMU.readAddress(address));
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0xAB, mmu.readAddress(address));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void inxMustIncrementRegisterXBy1() {
-        CPU.x = 0x09;
-        CPU.pc = 0x00;
+        cpu.x = 0x09;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.inx();
+        int cycles = cpu.inx();
 
         assertEquals(2, cycles);
-        assertEquals(0x0A, CPU.x);
-        assertEquals(0x01, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x0A, cpu.x);
+        assertEquals(0x01, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void inxMustIncrementRegisterXBy1AndSetZeroFlagIfNewXIsZero() {
-        CPU.x = 0xFF;
-        CPU.pc = 0x00;
+        cpu.x = 0xFF;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.inx();
+        int cycles = cpu.inx();
 
         assertEquals(2, cycles);
-        assertEquals(0x00, CPU.x);
-        assertEquals(0x01, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x00, cpu.x);
+        assertEquals(0x01, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void inxMustIncrementRegisterXBy1AndSetNegativeFlagIfNewXIsNegative() {
-        CPU.x = 0xFE;
-        CPU.pc = 0x00;
+        cpu.x = 0xFE;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.inx();
+        int cycles = cpu.inx();
 
         assertEquals(2, cycles);
-        assertEquals(0xFF, CPU.x);
-        assertEquals(0x01, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0xFF, cpu.x);
+        assertEquals(0x01, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void inyMustIncrementRegisterYBy1() {
-        CPU.y = 0x09;
-        CPU.pc = 0x00;
+        cpu.y = 0x09;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.iny();
+        int cycles = cpu.iny();
 
         assertEquals(2, cycles);
-        assertEquals(0x0A, CPU.y);
-        assertEquals(0x01, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x0A, cpu.y);
+        assertEquals(0x01, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void inyMustIncrementRegisterYBy1AndSetZeroFlagIfNewYIsZero() {
-        CPU.y = 0xFF;
-        CPU.pc = 0x00;
+        cpu.y = 0xFF;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.iny();
+        int cycles = cpu.iny();
 
         assertEquals(2, cycles);
-        assertEquals(0x00, CPU.y);
-        assertEquals(0x01, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x00, cpu.y);
+        assertEquals(0x01, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void inyMustIncrementRegisterYBy1AndSetNegativeFlagIfNewYIsNegative() {
-        CPU.y = 0xFE;
-        CPU.pc = 0x00;
+        cpu.y = 0xFE;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.iny();
+        int cycles = cpu.iny();
 
         assertEquals(2, cycles);
-        assertEquals(0xFF, CPU.y);
-        assertEquals(0x01, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0xFF, cpu.y);
+        assertEquals(0x01, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void bneMustMoveProgramCountByGivenOffsetIfZeroFlagIsUnset() {
-        CPU.pc = 0x00;
-        CPU.unsetStatusFlag(CPU.STATUS_FLAG_ZERO);
+        cpu.pc = 0x00;
+        cpu.unsetStatusFlag(CPU.STATUS_FLAG_ZERO);
 
 
-        MMU.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x01, 0x30);
 
-        int cycles = CPU.bne();
+        int cycles = cpu.bne();
 
         assertEquals(3, cycles);
-        assertEquals(0x32, CPU.pc);
+        assertEquals(0x32, cpu.pc);
     }
 
     @Test
     void bneMustMoveProgramCountBy2IfZeroFlagIsSet() {
-        CPU.pc = 0x00;
-        CPU.setStatusFlag(CPU.STATUS_FLAG_ZERO);
+        cpu.pc = 0x00;
+        cpu.setStatusFlag(CPU.STATUS_FLAG_ZERO);
 
-        MMU.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x01, 0x30);
 
-        int cycles = CPU.bne();
+        int cycles = cpu.bne();
 
         assertEquals(2, cycles);
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void ldaAbsoluteXMustLoadUnsignedValueFromMemoryPositionOffsetByXToRegisterA() {
         var value = 0x0D;
-        CPU.a = 0x00;
-        CPU.x = 0x03;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.x = 0x03;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABD0, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABD0, value);
 
-        int cycles = CPU.ldaAbsoluteX();
+        int cycles = cpu.ldaAbsoluteX();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaAbsoluteXMustSetZeroFlagIfValueLoadedToRegisterAIsZero() {
         var value = 0x00;
-        CPU.a = 0x00;
-        CPU.x = 0x03;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.x = 0x03;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABD0, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABD0, value);
 
-        int cycles = CPU.ldaAbsoluteX();
+        int cycles = cpu.ldaAbsoluteX();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaAbsoluteXMustSetNegativeFlagIfValueLoadedToRegisterAIsNegative() {
         var value = 0xC4;
-        CPU.a = 0x00;
-        CPU.x = 0x03;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.x = 0x03;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABD0, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABD0, value);
 
-        int cycles = CPU.ldaAbsoluteX();
+        int cycles = cpu.ldaAbsoluteX();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaAbsoluteYMustLoadUnsignedValueFromMemoryPositionOffsetByYToRegisterA() {
         var value = 0x0D;
-        CPU.a = 0x00;
-        CPU.y = 0x03;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.y = 0x03;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABD0, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABD0, value);
 
-        int cycles = CPU.ldaAbsoluteY();
+        int cycles = cpu.ldaAbsoluteY();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaAbsoluteYMustSetZeroFlagIfValueLoadedToRegisterAIsZero() {
         var value = 0x00;
-        CPU.a = 0x00;
-        CPU.y = 0x03;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.y = 0x03;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABD0, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABD0, value);
 
-        int cycles = CPU.ldaAbsoluteY();
+        int cycles = cpu.ldaAbsoluteY();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaAbsoluteYMustSetNegativeFlagIfValueLoadedToRegisterAIsNegative() {
         var value = 0xC4;
-        CPU.a = 0x00;
-        CPU.y = 0x03;
-        CPU.pc = 0x00;
+        cpu.a = 0x00;
+        cpu.y = 0x03;
+        cpu.pc = 0x00;
 
-        MMU.writeAddress(0x01, 0xCD);
-        MMU.writeAddress(0x02, 0xAB);
-        MMU.writeAddress(0xABD0, value);
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+        mmu.writeAddress(0xABD0, value);
 
-        int cycles = CPU.ldaAbsoluteY();
+        int cycles = cpu.ldaAbsoluteY();
 
         assertEquals(4, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x03, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x03, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void cpyImmediateMustSetCarryFlagWhenImmediateValueIsSmallerThanY() {
-        CPU.pc = 0x00;
-        CPU.y = 0x09;
-        MMU.writeAddress(0x01, 0x08);
+        cpu.pc = 0x00;
+        cpu.y = 0x09;
+        mmu.writeAddress(0x01, 0x08);
 
-        int cycles = CPU.cpyImmediate();
+        int cycles = cpu.cpyImmediate();
 
         assertEquals(2, cycles);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x02, CPU.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void cpyImmediateMustSetZeroAndCarryFlagsWhenImmediateValueIsEqualToY() {
-        CPU.pc = 0x00;
-        CPU.y = 0x09;
-        MMU.writeAddress(0x01, 0x09);
+        cpu.pc = 0x00;
+        cpu.y = 0x09;
+        mmu.writeAddress(0x01, 0x09);
 
-        int cycles = CPU.cpyImmediate();
+        int cycles = cpu.cpyImmediate();
 
         assertEquals(2, cycles);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x02, CPU.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void cpyImmediateMustSetNegativeFlagWhenImmediateValueIsBiggerThanY() {
-        CPU.pc = 0x00;
-        CPU.y = 0x09;
-        MMU.writeAddress(0x01, 0x0F);
+        cpu.pc = 0x00;
+        cpu.y = 0x09;
+        mmu.writeAddress(0x01, 0x0F);
 
-        int cycles = CPU.cpyImmediate();
+        int cycles = cpu.cpyImmediate();
 
         assertEquals(2, cycles);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x02, CPU.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void cmpAbsoluteXSetCarryFlagWhenAbsoluteOffsetValueIsSmallerThanA() {
-        CPU.pc = 0x00;
-        CPU.a = 0x09;
+        cpu.pc = 0x00;
+        cpu.a = 0x09;
 
         // offset
-        CPU.x = 0x03;
+        cpu.x = 0x03;
         // address without offset
-        MMU.writeAddress(0x01, 0x03);
-        MMU.writeAddress(0x02, 0x00);
+        mmu.writeAddress(0x01, 0x03);
+        mmu.writeAddress(0x02, 0x00);
         // actual value
-        MMU.writeAddress(0x06, 0x08);
+        mmu.writeAddress(0x06, 0x08);
 
-        int cycles = CPU.cmpAbsoluteX();
+        int cycles = cpu.cmpAbsoluteX();
 
         assertEquals(4, cycles);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x03, CPU.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void cmpAbsoluteXMustSetZeroAndCarryFlagsWhenAbsoluteOffsetValueIsEqualToA() {
-        CPU.pc = 0x00;
-        CPU.a = 0x09;
+        cpu.pc = 0x00;
+        cpu.a = 0x09;
 
         // offset
-        CPU.x = 0x03;
+        cpu.x = 0x03;
         // address without offset
-        MMU.writeAddress(0x01, 0x03);
-        MMU.writeAddress(0x02, 0x00);
+        mmu.writeAddress(0x01, 0x03);
+        mmu.writeAddress(0x02, 0x00);
         // actual value
-        MMU.writeAddress(0x06, 0x09);
+        mmu.writeAddress(0x06, 0x09);
 
-        int cycles = CPU.cmpAbsoluteX();
+        int cycles = cpu.cmpAbsoluteX();
 
         assertEquals(4, cycles);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x03, CPU.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void cmpAbsoluteXMustSetNegativeFlagWhenAbsoluteOffsetValueIsBiggerThanA() {
-        CPU.pc = 0x00;
-        CPU.a = 0x09;
+        cpu.pc = 0x00;
+        cpu.a = 0x09;
 
         // offset
-        CPU.x = 0x03;
+        cpu.x = 0x03;
         // address without offset
-        MMU.writeAddress(0x01, 0x03);
-        MMU.writeAddress(0x02, 0x00);
+        mmu.writeAddress(0x01, 0x03);
+        mmu.writeAddress(0x02, 0x00);
         // actual value
-        MMU.writeAddress(0x06, 0x0F);
+        mmu.writeAddress(0x06, 0x0F);
 
-        int cycles = CPU.cmpAbsoluteX();
+        int cycles = cpu.cmpAbsoluteX();
 
         assertEquals(4, cycles);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x03, CPU.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void dexMustDecrementRegisterXBy1() {
-        CPU.x = 0x09;
-        CPU.pc = 0x00;
+        cpu.x = 0x09;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.dex();
+        int cycles = cpu.dex();
 
         assertEquals(2, cycles);
-        assertEquals(0x08, CPU.x);
-        assertEquals(0x01, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x08, cpu.x);
+        assertEquals(0x01, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void dexMustDecrementRegisterXBy1AndSetZeroFlagIfNewXIsZero() {
-        CPU.x = 0x01;
-        CPU.pc = 0x00;
+        cpu.x = 0x01;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.dex();
+        int cycles = cpu.dex();
 
         assertEquals(2, cycles);
-        assertEquals(0x00, CPU.x);
-        assertEquals(0x01, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x00, cpu.x);
+        assertEquals(0x01, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void dexMustDecrementRegisterXBy1AndSetNegativeFlagIfNewXIsNegative() {
-        CPU.x = 0x00;
-        CPU.pc = 0x00;
+        cpu.x = 0x00;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.dex();
+        int cycles = cpu.dex();
 
         assertEquals(2, cycles);
-        assertEquals(0xFF, CPU.x);
-        assertEquals(0x01, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0xFF, cpu.x);
+        assertEquals(0x01, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void deyMustDecrementRegisterYBy1() {
-        CPU.y = 0x09;
-        CPU.pc = 0x00;
+        cpu.y = 0x09;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.dey();
+        int cycles = cpu.dey();
 
         assertEquals(2, cycles);
-        assertEquals(0x08, CPU.y);
-        assertEquals(0x01, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x08, cpu.y);
+        assertEquals(0x01, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void deyMustDecrementRegisterXBy1AndSetZeroFlagIfNewYIsZero() {
-        CPU.y = 0x01;
-        CPU.pc = 0x00;
+        cpu.y = 0x01;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.dey();
+        int cycles = cpu.dey();
 
         assertEquals(2, cycles);
-        assertEquals(0x00, CPU.y);
-        assertEquals(0x01, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x00, cpu.y);
+        assertEquals(0x01, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void deyMustDecrementRegisterXBy1AndSetNegativeFlagIfNewYIsNegative() {
-        CPU.y = 0x00;
-        CPU.pc = 0x00;
+        cpu.y = 0x00;
+        cpu.pc = 0x00;
 
-        int cycles = CPU.dey();
+        int cycles = cpu.dey();
 
         assertEquals(2, cycles);
-        assertEquals(0xFF, CPU.y);
-        assertEquals(0x01, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0xFF, cpu.y);
+        assertEquals(0x01, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void brkMustSetBreakFlagAndPushProgramCounterToStack() {
-        CPU.pc = 0x1234;
-        CPU.setStatusFlag(CPU.STATUS_FLAG_CARRY);
+        cpu.pc = 0x1234;
+        cpu.setStatusFlag(CPU.STATUS_FLAG_CARRY);
 
         // Post-interrupt Program Counter
-        MMU.writeAddress(0xFFFE, 0xCD);
-        MMU.writeAddress(0xFFFF, 0xAB);
+        mmu.writeAddress(0xFFFE, 0xCD);
+        mmu.writeAddress(0xFFFF, 0xAB);
 
-        var oldStackPointer = CPU.s;
-        var oldProcessorStatus = CPU.p;
+        var oldStackPointer = cpu.s;
+        var oldProcessorStatus = cpu.p;
         oldProcessorStatus |= 1 << 4; // Old status with break flag set
-        int oldPCByte1 = (CPU.pc & 0xFF);
-        int oldPCByte2 = ((CPU.pc >> 8) & 0xFF);
+        int oldPCByte1 = (cpu.pc & 0xFF);
+        int oldPCByte2 = ((cpu.pc >> 8) & 0xFF);
 
-        int cycles = CPU.brk();
+        int cycles = cpu.brk();
 
         assertEquals(7, cycles);
-        assertEquals(oldStackPointer - 3, CPU.s);
-        assertEquals(oldProcessorStatus, MMU.readAddress(0x0100 + CPU.s + 1));
-        assertEquals(oldPCByte1, MMU.readAddress(0x0100 + CPU.s + 2));
-        assertEquals(oldPCByte2, MMU.readAddress(0x0100 + CPU.s + 3));
-        assertEquals(0xABCD, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_BREAK));
+        assertEquals(oldStackPointer - 3, cpu.s);
+        assertEquals(oldProcessorStatus, mmu.readAddress(0x0100 + cpu.s + 1));
+        assertEquals(oldPCByte1, mmu.readAddress(0x0100 + cpu.s + 2));
+        assertEquals(oldPCByte2, mmu.readAddress(0x0100 + cpu.s + 3));
+        assertEquals(0xABCD, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_BREAK));
     }
 
     @Test
     void jmpAbsoluteMustMoveProgramCounterToGivenAddress() {
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, 0xAD);
-        MMU.writeAddress(0x02, 0xDE);
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, 0xAD);
+        mmu.writeAddress(0x02, 0xDE);
 
-        int cycles = CPU.jmpAbsolute();
+        int cycles = cpu.jmpAbsolute();
 
         assertEquals(3, cycles);
-        assertEquals(0xDEAD, CPU.pc);
+        assertEquals(0xDEAD, cpu.pc);
     }
 
     @Test
     void bccMustDisplaceProgramCounterByGivenOffsetIfCarryFlagIsClear() {
         var offset = -3;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, offset);
-        CPU.unsetStatusFlag(CPU.STATUS_FLAG_CARRY);
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, offset);
+        cpu.unsetStatusFlag(CPU.STATUS_FLAG_CARRY);
 
-        int cycles = CPU.bcc();
+        int cycles = cpu.bcc();
 
         assertEquals(3, cycles);
-        assertEquals(offset + 2, CPU.pc);
+        assertEquals(offset + 2, cpu.pc);
     }
 
     @Test
     void bccMustDisplaceProgramCounterBy2IfCarryFlagIsSet() {
         var offset = -3;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, offset);
-        CPU.setStatusFlag(CPU.STATUS_FLAG_CARRY);
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, offset);
+        cpu.setStatusFlag(CPU.STATUS_FLAG_CARRY);
 
-        int cycles = CPU.bcc();
+        int cycles = cpu.bcc();
 
         assertEquals(2, cycles);
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void jsrMustPushNextOperationCounterToStashAndAssingOperandToProgramCounter() {
         int destination1 = 0xDE;
         int destination2 = 0xAD;
-        CPU.pc = 0x03;
-        MMU.writeAddress(0x04, destination2);
-        MMU.writeAddress(0x05, destination1);
+        cpu.pc = 0x03;
+        mmu.writeAddress(0x04, destination2);
+        mmu.writeAddress(0x05, destination1);
 
-        int cycles = CPU.jsr();
+        int cycles = cpu.jsr();
 
         assertEquals(6, cycles);
-        assertEquals(0xDEAD, CPU.pc);
-        assertEquals(0x06, MMU.readAddress(0x0100 + CPU.s + 1));
-        assertEquals(0x00, MMU.readAddress(0x0100 + CPU.s + 2));
+        assertEquals(0xDEAD, cpu.pc);
+        assertEquals(0x06, mmu.readAddress(0x0100 + cpu.s + 1));
+        assertEquals(0x00, mmu.readAddress(0x0100 + cpu.s + 2));
     }
 
     @Test
     void ldaZeroPageMustLoadUnsignedValueInGivenAddressIntoRegisterA() {
         var address = 0xFD;
         var value = 0x6E;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, address);
-        MMU.writeAddress(0xFD, value);
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, address);
+        mmu.writeAddress(0xFD, value);
 
-        int cycles = CPU.ldaZeroPage();
+        int cycles = cpu.ldaZeroPage();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x02, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.a);
+        assertEquals(0x02, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldaZeroPageMustSetNegativeFlagIsAIsNegative() {
         var address = 0xFD;
         var value = 0xFF;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, address);
-        MMU.writeAddress(0xFD, value);
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, address);
+        mmu.writeAddress(0xFD, value);
 
-        int cycles = CPU.ldaZeroPage();
+        int cycles = cpu.ldaZeroPage();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x02, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(value, cpu.a);
+        assertEquals(0x02, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
     }
 
     @Test
     void ldaZeroPageMustSetZeroFlagIsAIsZero() {
         var value = 0x00;
-        CPU.a = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
+        cpu.a = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
 
-        int cycles = CPU.ldaZeroPage();
+        int cycles = cpu.ldaZeroPage();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.a);
-        assertEquals(0x02, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(value, cpu.a);
+        assertEquals(0x02, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
     }
 
     @Test
     void oraMustPerformLogicalORonOperandAndAccumulatorAndStoreResultInAccumulator() {
         var value = (byte) 0b01010101;
-        CPU.a = (byte) 0b10101111;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
+        cpu.a = (byte) 0b10101111;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
 
-        int cycles = CPU.oraImmediate();
+        int cycles = cpu.oraImmediate();
 
         assertEquals(2, cycles);
-        assertEquals((byte) 0b11111111, CPU.a);
-        assertEquals(0x02, CPU.pc);
+        assertEquals((byte) 0b11111111, cpu.a);
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void ldyImmediateMustLoadSpecifiedValueToRegisterY() {
         var value = 0x0B;
-        CPU.y = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
-        int cycles = CPU.ldyImmediate();
+        cpu.y = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
+        int cycles = cpu.ldyImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.y);
-        assertEquals(0x02, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(value, cpu.y);
+        assertEquals(0x02, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void ldyImmediateMustSetNegativeFlagIfYIsNegative() {
         var value = 0xFF;
-        CPU.y = 0x00;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
-        int cycles = CPU.ldyImmediate();
+        cpu.y = 0x00;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
+        int cycles = cpu.ldyImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.y);
-        assertEquals(0x02, CPU.pc);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(value, cpu.y);
+        assertEquals(0x02, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
     }
 
     @Test
     void ldyImmediateMustSetZeroFlagIfYIsZero() {
         var value = 0x00;
-        CPU.y = 0x01;
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, value);
-        int cycles = CPU.ldyImmediate();
+        cpu.y = 0x01;
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, value);
+        int cycles = cpu.ldyImmediate();
 
         assertEquals(2, cycles);
-        assertEquals(value, CPU.y);
-        assertEquals(0x02, CPU.pc);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(value, cpu.y);
+        assertEquals(0x02, cpu.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
     }
 
     @Test
     void rtsMustPullProgramCounterFromStackAndSetIt() {
-        CPU.pc = 0x0000;
-        CPU.push2BytesToStack(0xABCD);
+        cpu.pc = 0x0000;
+        cpu.push2BytesToStack(0xABCD);
 
-        int cycles = CPU.rts();
+        int cycles = cpu.rts();
 
         assertEquals(6, cycles);
-        assertEquals(0xABCD, CPU.pc);
+        assertEquals(0xABCD, cpu.pc);
+    }
+
+    @Test
+    void rtiMustPullProcessorStatusAndProgramCounterFromStack() {
+        cpu.push2BytesToStack(0xABCD);
+        cpu.pushToStack(0b11000011);
+
+        int cycles = cpu.rti();
+
+        assertEquals(6, cycles);
+        assertEquals((byte) 0b11000011, cpu.p);
+        assertEquals(0xABCD, cpu.pc);
+    }
+
+    @Test
+    void runUntilNextEventMustExecuteInstructionsUntilTheDeadlineIsReached() {
+        var scheduler = new Scheduler();
+        scheduler.schedule(scheduler.register(cycle -> { }), 5);
+        cpu.pc = 0x0300;
+        mmu.writeAddress(0x0300, 0xE8); // INX
+        mmu.writeAddress(0x0301, 0xE8);
+        mmu.writeAddress(0x0302, 0xE8);
+        mmu.writeAddress(0x0303, 0xE8);
+
+        cpu.runUntilNextEvent(scheduler);
+
+        assertEquals(3, cpu.x);
+        assertEquals(6, cpu.getCyclesCounter());
+    }
+
+    @Test
+    void runUntilNextEventMustCacheBlocksUpToTheFirstBranch() {
+        mmu.writeAddress(0x0300, 0xA9); // LDA #$05
+        mmu.writeAddress(0x0301, 0x05);
+        mmu.writeAddress(0x0302, 0x8D); // STA $0210
+        mmu.writeAddress(0x0303, 0x10);
+        mmu.writeAddress(0x0304, 0x02);
+        mmu.writeAddress(0x0305, 0xE8); // INX
+        mmu.writeAddress(0x0306, 0xD0); // BNE $0305
+        mmu.writeAddress(0x0307, 0xFD);
+        mmu.writeAddress(0x0308, 0xE8); // INX
+
+        var block = cpu.blockAt(0x0300);
+
+        assertEquals(4, block.handlers.length);
+        assertArrayEquals(new int[]{0x05, 0x0210, 0x00, 0xFD}, block.operands);
+        assertSame(block, cpu.blockAt(0x0300));
+    }
+
+    @Test
+    void runUntilNextEventMustMatchSteppingOneInstructionAtATime() {
+        int[] program = {
+                0xA2, 0x00,       // 0300: LDX #$00
+                0xA9, 0x07,       // 0302: LDA #$07
+                0x9D, 0x00, 0x02, // 0304: STA $0200,X
+                0xE8,             // 0307: INX
+                0xD0, 0xF8,       // 0308: BNE $0302
+                0x4C, 0x00, 0x03  // 030A: JMP $0300
+        };
+        var steppedMMU = new MMU(new PPU());
+        var stepped = new CPU(steppedMMU);
+        for (int i = 0; i < program.length; i++) {
+            mmu.writeAddress(0x0300 + i, program[i]);
+            steppedMMU.writeAddress(0x0300 + i, program[i]);
+        }
+        cpu.pc = stepped.pc = 0x0300;
+        var scheduler = new Scheduler();
+        scheduler.schedule(scheduler.register(cycle -> { }), 3000);
+
+        cpu.runUntilNextEvent(scheduler);
+        while (stepped.getCyclesCounter() < 3000) {
+            stepped.executeStep();
+        }
+
+        assertEquals(stepped.getCyclesCounter(), cpu.getCyclesCounter());
+        assertEquals(stepped.getInstructionsCounter(), cpu.getInstructionsCounter());
+        assertEquals(stepped.pc, cpu.pc);
+        assertEquals(stepped.x, cpu.x);
+        assertEquals(0x07, mmu.readAddress(0x0200 + cpu.x - 1));
+    }
+
+    @Test
+    void runUntilNextEventMustDecodeAgainAfterCodeInRAMIsOverwritten() {
+        mmu.writeAddress(0x0300, 0xE8); // INX
+        mmu.writeAddress(0x0301, 0x4C); // JMP $0300
+        mmu.writeAddress(0x0302, 0x00);
+        mmu.writeAddress(0x0303, 0x03);
+        cpu.pc = 0x0300;
+        var scheduler = new Scheduler();
+        var event = scheduler.register(cycle -> { });
+        scheduler.schedule(event, 5);
+        cpu.runUntilNextEvent(scheduler);
+
+        mmu.writeAddress(0x0B00, 0xC8); // INY, through a mirror
+        scheduler.schedule(event, 10);
+        cpu.runUntilNextEvent(scheduler);
+
+        assertEquals(1, cpu.x);
+        assertEquals(1, cpu.y);
+    }
+
+    @Test
+    void runUntilNextEventMustStopABlockThatOverwritesItsOwnCode() {
+        mmu.writeAddress(0x0300, 0xA9); // LDA #$C8
+        mmu.writeAddress(0x0301, 0xC8);
+        mmu.writeAddress(0x0302, 0x8D); // STA $0305
+        mmu.writeAddress(0x0303, 0x05);
+        mmu.writeAddress(0x0304, 0x03);
+        mmu.writeAddress(0x0305, 0xE8); // INX, replaced by INY before it runs
+        cpu.pc = 0x0300;
+        var scheduler = new Scheduler();
+        scheduler.schedule(scheduler.register(cycle -> { }), 8);
+
+        cpu.runUntilNextEvent(scheduler);
+
+        assertEquals(0, cpu.x);
+        assertEquals(1, cpu.y);
+    }
+
+    @Test
+    void executeStepMustIncludeCyclesStalledByOAMDMA() {
+        cpu.pc = 0x0300;
+        mmu.writeAddress(0x0300, 0x8D); // STA $4014
+        mmu.writeAddress(0x0301, 0x14);
+        mmu.writeAddress(0x0302, 0x40);
+
+        int cycles = cpu.executeStep();
+
+        assertEquals(4 + 513, cycles);
+    }
+
+    @Test
+    void flagsSetByAResultMustOnlyBeWorkedIntoTheStatusWhenRead() {
+        cpu.pc = 0x0300;
+        mmu.writeAddress(0x0301, 0x80);
+
+        cpu.ldaImmediate();
+
+        assertEquals(0x80, cpu.nz);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertEquals(0x34 | 0x80, cpu.getP() & 0xFF);
+        assertEquals(-1, cpu.nz);
+    }
+
+    @Test
+    void interruptsMustPushFlagsOfThePendingResult() {
+        cpu.pc = 0x0300;
+        cpu.p = (byte) 0x80; // Negative, from an older result
+        mmu.writeAddress(0x0301, 0x00);
+        cpu.ldaImmediate();
+
+        cpu.nmi();
+
+        assertEquals(0b00100010, mmu.readAddress(0x0100 + cpu.s + 1));
+    }
+
+    @Test
+    void nmiMustPushStateAndJumpToTheNMIVector() {
+        cpu.pc = 0x1234;
+        cpu.p = (byte) 0b00010001; // Carry and break
+        mmu.writeAddress(0xFFFA, 0xCD);
+        mmu.writeAddress(0xFFFB, 0xAB);
+        var oldStackPointer = cpu.s;
+
+        int cycles = cpu.nmi();
+
+        assertEquals(7, cycles);
+        assertEquals(oldStackPointer - 3, cpu.s);
+        assertEquals(0b00100001, mmu.readAddress(0x0100 + cpu.s + 1));
+        assertEquals(0x34, mmu.readAddress(0x0100 + cpu.s + 2));
+        assertEquals(0x12, mmu.readAddress(0x0100 + cpu.s + 3));
+        assertEquals(0xABCD, cpu.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_INTERRUPT));
+    }
+
+    @Test
+    void irqMustBeIgnoredWhileInterruptsAreDisabled() {
+        cpu.pc = 0x1234;
+        cpu.setStatusFlag(CPU.STATUS_FLAG_INTERRUPT);
+
+        assertEquals(0, cpu.irq());
+        assertEquals(0x1234, cpu.pc);
+
+        mmu.writeAddress(0xFFFE, 0x00);
+        mmu.writeAddress(0xFFFF, 0xC0);
+        cpu.unsetStatusFlag(CPU.STATUS_FLAG_INTERRUPT);
+
+        assertEquals(7, cpu.irq());
+        assertEquals(0xC000, cpu.pc);
     }
 
     @Test
     void phaMustPushAToStack() {
-        CPU.pc = 0x00;
-        CPU.a = 0xAB;
+        cpu.pc = 0x00;
+        cpu.a = 0xAB;
 
-        int cycles = CPU.pha();
+        int cycles = cpu.pha();
 
         assertEquals(3, cycles);
-        assertEquals(0xAB, CPU.pullFromStack());
+        assertEquals(0xAB, cpu.pullFromStack());
     }
 
     @Test
     void beqMustMoveProgramCountByGivenOffsetIfZeroFlagIsSet() {
-        CPU.pc = 0x00;
-        CPU.setStatusFlag(CPU.STATUS_FLAG_ZERO);
+        cpu.pc = 0x00;
+        cpu.setStatusFlag(CPU.STATUS_FLAG_ZERO);
 
 
-        MMU.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x01, 0x30);
 
-        int cycles = CPU.beq();
+        int cycles = cpu.beq();
 
         assertEquals(3, cycles);
-        assertEquals(0x32, CPU.pc);
+        assertEquals(0x32, cpu.pc);
     }
 
     @Test
     void beqMustMoveProgramCountBy2IfZeroFlagIsUnset() {
-        CPU.pc = 0x00;
-        CPU.unsetStatusFlag(CPU.STATUS_FLAG_ZERO);
+        cpu.pc = 0x00;
+        cpu.unsetStatusFlag(CPU.STATUS_FLAG_ZERO);
 
-        MMU.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x01, 0x30);
 
-        int cycles = CPU.beq();
+        int cycles = cpu.beq();
 
         assertEquals(2, cycles);
-        assertEquals(0x02, CPU.pc);
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void decZeroPageMustDecrementZeroPageMemoryAddressValueBy1AndSetFlagsAccordingly() {
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, 0x30);
-        MMU.writeAddress(0x30, 0x02);
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x30, 0x02);
 
-        int cycles = CPU.decZeroPage();
-        assertEquals(0x02, CPU.pc);
+        int cycles = cpu.decZeroPage();
+        assertEquals(0x02, cpu.pc);
         assertEquals(5, cycles);
-        assertEquals(0x01, MMU.readAddress(0x30));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x01, mmu.readAddress(0x30));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
 
-        CPU.pc = 0x00;
-        cycles = CPU.decZeroPage();
+        cpu.pc = 0x00;
+        cycles = cpu.decZeroPage();
         assertEquals(5, cycles);
-        assertEquals(0x00, MMU.readAddress(0x30));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x00, mmu.readAddress(0x30));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
 
-        CPU.pc = 0x00;
-        cycles = CPU.decZeroPage();
+        cpu.pc = 0x00;
+        cycles = cpu.decZeroPage();
         assertEquals(5, cycles);
-        assertEquals(0xFF, MMU.readAddress(0x30));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0xFF, mmu.readAddress(0x30));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void incAbsoluteMustIncrementMemoryAddressValueBy1AndSetFlagsAccordingly() {
-        CPU.pc = 0x00;
-        MMU.writeAddress(0x01, 0x30);
-        MMU.writeAddress(0x02, 0x00);
-        MMU.writeAddress(0x30, 0xFE);
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, 0x30);
+        mmu.writeAddress(0x02, 0x00);
+        mmu.writeAddress(0x30, 0xFE);
 
-        int cycles = CPU.incAbsolute();
-        assertEquals(0x03, CPU.pc);
+        int cycles = cpu.incAbsolute();
+        assertEquals(0x03, cpu.pc);
         assertEquals(6, cycles);
-        assertEquals(0xFF, MMU.readAddress(0x30));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0xFF, mmu.readAddress(0x30));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
 
-        CPU.pc = 0x00;
-        cycles = CPU.incAbsolute();
+        cpu.pc = 0x00;
+        cycles = cpu.incAbsolute();
         assertEquals(6, cycles);
-        assertEquals(0x03, CPU.pc);
-        assertEquals(0x00, MMU.readAddress(0x30));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x03, cpu.pc);
+        assertEquals(0x00, mmu.readAddress(0x30));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
 
-        CPU.pc = 0x00;
-        cycles = CPU.incAbsolute();
+        cpu.pc = 0x00;
+        cycles = cpu.incAbsolute();
         assertEquals(6, cycles);
-        assertEquals(0x03, CPU.pc);
-        assertEquals(0x01, MMU.readAddress(0x30));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x03, cpu.pc);
+        assertEquals(0x01, mmu.readAddress(0x30));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
     }
 
     @Test
     void cmpImmediateSetCarryFlagWhenAbsoluteOffsetValueIsSmallerThanA() {
-        CPU.pc = 0x00;
-        CPU.a = 0x09;
-        MMU.writeAddress(0x01, 0x08);
+        cpu.pc = 0x00;
+        cpu.a = 0x09;
+        mmu.writeAddress(0x01, 0x08);
 
-        int cycles = CPU.cmpImmediate();
+        int cycles = cpu.cmpImmediate();
 
         assertEquals(2, cycles);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x02, CPU.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void cmpImmediateMustSetZeroAndCarryFlagsWhenAbsoluteOffsetValueIsEqualToA() {
-        CPU.pc = 0x00;
-        CPU.a = 0x09;
-        MMU.writeAddress(0x01, 0x09);
+        cpu.pc = 0x00;
+        cpu.a = 0x09;
+        mmu.writeAddress(0x01, 0x09);
 
-        int cycles = CPU.cmpImmediate();
+        int cycles = cpu.cmpImmediate();
 
         assertEquals(2, cycles);
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x02, CPU.pc);
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void cmpImmediateMustSetNegativeFlagWhenAbsoluteOffsetValueIsBiggerThanA() {
-        CPU.pc = 0x00;
-        CPU.a = 0x09;
-        MMU.writeAddress(0x01, 0x0F);
+        cpu.pc = 0x00;
+        cpu.a = 0x09;
+        mmu.writeAddress(0x01, 0x0F);
 
-        int cycles = CPU.cmpImmediate();
+        int cycles = cpu.cmpImmediate();
 
         assertEquals(2, cycles);
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
-        assertFalse(CPU.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
-        assertTrue(CPU.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
-        assertEquals(0x02, CPU.pc);
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_CARRY));
+        assertFalse(cpu.isStatusFlagSet(CPU.STATUS_FLAG_ZERO));
+        assertTrue(cpu.isStatusFlagSet(CPU.STATUS_FLAG_NEGATIVE));
+        assertEquals(0x02, cpu.pc);
     }
 
     @Test
     void staIndirectYMustStoreAccumulatorIntoGivenIndirectAddressOffsetByY() {
-        CPU.pc = 0x00;
-        CPU.a = 0xAB;
-        CPU.y = 0x03;
-        MMU.writeAddress(0x01, 0x12);
-        MMU.writeAddress(0x12, 0xAA);
-        MMU.writeAddress(0x13, 0xDE);
+        cpu.pc = 0x00;
+        cpu.a = 0xAB;
+        cpu.y = 0x03;
+        mmu.writeAddress(0x01, 0x12);
+        mmu.writeAddress(0x12, 0xAA);
+        mmu.writeAddress(0x13, 0xDE);
 
-        MMU.writeAddress(0xDEAD, 0x00);
+        mmu.writeAddress(0xDEAD, 0x00);
 
-        int cycles = CPU.staIndirectY();
+        int cycles = cpu.staIndirectY();
 
         assertEquals(6, cycles);
-        assertEquals(0x02, CPU.pc);
-        assertEquals(0xAB, MMU.readAddress(0xDEAD));
+        assertEquals(0x02, cpu.pc);
+        assertEquals(0xAB, mmu.readAddress(0xDEAD));
     }
 
     @Test
     void nopMustConsumeTwoCyclesAndIncreaseProgramCountByOne() {
-        CPU.pc = 0x00;
+        cpu.pc = 0x00;
 
-        var cycles = CPU.nop();
+        var cycles = cpu.nop();
 
         assertEquals(2, cycles);
-        assertEquals(0x01, CPU.pc);
+        assertEquals(0x01, cpu.pc);
     }
 
     @Test
     void nopAbsoluteShouldConsumeFourCyclesAndIncreaseProgramCountByThree() {
-        CPU.pc = 0x00;
+        cpu.pc = 0x00;
 
-        var cycles = CPU.nopAbsolute();
+        var cycles = cpu.nopAbsolute();
 
         assertEquals(4, cycles);
-        assertEquals(0x03, CPU.pc);
+        assertEquals(0x03, cpu.pc);
     }
 
     @Test
     void nopAbosluteXConsumeFourCyclesAndIncreaseProgramCountByThree() {
-        CPU.x = 0xa9;
-        CPU.pc = 0x00;
+        cpu.x = 0xa9;
+        cpu.pc = 0x00;
 
-        var cycles = CPU.nopAbsoluteX();
+        var cycles = cpu.nopAbsoluteX();
 
         assertEquals(4, cycles);
-        assertEquals(0x03, CPU.pc);
+        assertEquals(0x03, cpu.pc);
+    }
+
+    @Test
+    void executeStepMustDispatchOpcodeAtProgramCounterAndAccumulateCycles() {
+        cpu.pc = 0x0300;
+        mmu.writeAddress(0x0300, Opcode.LDA_IMMEDIATE.getValue());
+        mmu.writeAddress(0x0301, 0x42);
+
+        int cycles = cpu.executeStep();
+
+        assertEquals(2, cycles);
+        assertEquals(2, cpu.getCyclesCounter());
+        assertEquals(1, cpu.getInstructionsCounter());
+        assertEquals(0x42, cpu.a);
+        assertEquals(0x0302, cpu.pc);
+    }
+
+    @Test
+    void executeStepMustFailOnNotImplementedOpcode() {
+        cpu.pc = 0x0310;
+        mmu.writeAddress(0x0310, Opcode.STP_02.getValue());
+
+        var exception = assertThrows(RuntimeException.class, cpu::executeStep);
+
+        assertEquals("0310: OpCode $02 not implemented", exception.getMessage());
+    }
+
+    @Test
+    void observersMustBeNotifiedWithInstructionOperands() {
+        int[] notified = new int[4];
+        CPUObserver observer = (programCount, opcode, cycles, operand1, operand2) -> {
+            notified[0] = programCount;
+            notified[1] = opcode.getValue();
+            notified[2] = operand1;
+            notified[3] = operand2;
+        };
+        cpu.addObserver(observer);
+        cpu.pc = 0x00;
+        mmu.writeAddress(0x01, 0xCD);
+        mmu.writeAddress(0x02, 0xAB);
+
+        cpu.jmpAbsolute();
+        cpu.removeObserver(observer);
+
+        assertArrayEquals(new int[]{0x00, Opcode.JMP_ABSOLUTE.getValue(), 0xCD, 0xAB}, notified);
+        assertEquals(0, cpu.observers.length);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package nesemulator.cpu;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class OpcodeTest {
+
+    @Test
+    void fromCodeMustResolveEveryOpcodeByte() {
+        for (int code = 0x00; code <= 0xFF; code++) {
+            assertEquals(code, Opcode.fromCode(code).getValue());
+        }
+    }
+
+    @Test
+    void fromCodeMustIgnoreSignExtensionOfOpcodeByte() {
+        assertSame(Opcode.INC_ABSOLUTE, Opcode.fromCode((byte) 0xEE));
+    }
+
+    @Test
+    void metadataTablesMustMatchOpcodeDefinitions() {
+        assertEquals(1, Opcode.lengthOf(0xEA));
+        assertEquals(2, Opcode.lengthOf(0xA9));
+        assertEquals(3, Opcode.lengthOf(0x4C));
+
+        assertEquals(7, Opcode.baseCyclesOf(0x00));
+        assertEquals(2, Opcode.baseCyclesOf(0xA9));
+        assertEquals(6, Opcode.baseCyclesOf(0x20));
+
+        assertEquals(AddressingMode.INDIRECT_Y, Opcode.addressingModeOf(0x91));
+        assertEquals(Opcode.STA_INDIRECT_Y.getLength(), Opcode.lengthOf(0x91));
+        assertEquals(Opcode.STA_INDIRECT_Y.getBaseCycles(), Opcode.baseCyclesOf(0x91));
+    }
+}
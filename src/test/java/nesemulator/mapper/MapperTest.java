@@ -0,0 +1,157 @@
+package nesemulator.mapper;
+
+import nesemulator.Cart;
+import nesemulator.MMU;
+import nesemulator.Mirroring;
+import nesemulator.PPU;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MapperTest {
+
+    private PPU ppu;
+    private MMU mmu;
+
+    @BeforeEach
+    void setUp() {
+        ppu = new PPU();
+        mmu = new MMU(ppu);
+    }
+
+    // Every bank starts with its own bank number, so reads tell which bank is mapped
+    private static byte[] banks(int count, int size) {
+        byte[] data = new byte[count * size];
+        for (int bank = 0; bank < count; bank++) {
+            data[bank * size] = (byte) bank;
+        }
+        return data;
+    }
+
+    @Test
+    void forCartMustRejectUnsupportedMappers() {
+        Cart cart = new Cart(99, Mirroring.HORIZONTAL, banks(1, 0x4000), null);
+
+        assertThrows(UnsupportedOperationException.class, () -> Mapper.forCart(cart));
+    }
+
+    @Test
+    void nromMustMapCHRROMAndApplyHeaderMirroring() {
+        byte[] chr = banks(1, 0x2000);
+        chr[0x1000] = (byte) 0xAB;
+        mmu.loadCart(new Cart(0, Mirroring.VERTICAL, banks(2, 0x4000), chr));
+
+        assertEquals(0, mmu.readAddress(0x8000));
+        assertEquals(1, mmu.readAddress(0xC000));
+        assertEquals(0xAB, ppu.inspectVRAM(0x1000));
+
+        // Vertical mirroring: $2800 shows $2000
+        mmu.writeAddress(PPU.ADDRESS_PPUADDR, 0x20);
+        mmu.writeAddress(PPU.ADDRESS_PPUADDR, 0x05);
+        mmu.writeAddress(PPU.ADDRESS_PPUDATA, 0x77);
+        assertEquals(0x77, ppu.inspectVRAM(0x2805));
+        assertEquals(0x00, ppu.inspectVRAM(0x2405));
+    }
+
+    @Test
+    void chrROMMustNotBeWritable() {
+        mmu.loadCart(new Cart(0, Mirroring.HORIZONTAL, banks(1, 0x4000), banks(1, 0x2000)));
+
+        mmu.writeAddress(PPU.ADDRESS_PPUADDR, 0x00);
+        mmu.writeAddress(PPU.ADDRESS_PPUADDR, 0x00);
+        mmu.writeAddress(PPU.ADDRESS_PPUDATA, 0x55);
+
+        assertEquals(0x00, ppu.inspectVRAM(0x0000));
+    }
+
+    @Test
+    void uxromMustSwitchLowerBankAndKeepLastBankFixed() {
+        mmu.loadCart(new Cart(2, Mirroring.HORIZONTAL, banks(8, 0x4000), null));
+        assertEquals(0, mmu.readAddress(0x8000));
+        assertEquals(7, mmu.readAddress(0xC000));
+
+        mmu.writeAddress(0x8000, 5);
+
+        assertEquals(5, mmu.readAddress(0x8000));
+        assertEquals(7, mmu.readAddress(0xC000));
+    }
+
+    @Test
+    void cnromMustSwitchCHRBanks() {
+        mmu.loadCart(new Cart(3, Mirroring.HORIZONTAL, banks(2, 0x4000), banks(4, 0x2000)));
+        assertEquals(0, ppu.inspectVRAM(0x0000));
+
+        mmu.writeAddress(0x8000, 2);
+
+        assertEquals(2, ppu.inspectVRAM(0x0000));
+    }
+
+    private void writeMMC1Register(int address, int value) {
+        for (int bit = 0; bit < 5; bit++) {
+            mmu.writeAddress(address, (value >> bit) & 1);
+        }
+    }
+
+    @Test
+    void mmc1MustLoadRegistersSeriallyAndSwitchBanks() {
+        mmu.loadCart(new Cart(1, Mirroring.HORIZONTAL, banks(8, 0x4000), banks(4, 0x1000)));
+        assertEquals(0, mmu.readAddress(0x8000));
+        assertEquals(7, mmu.readAddress(0xC000));
+
+        writeMMC1Register(0xE000, 3);
+        assertEquals(3, mmu.readAddress(0x8000));
+        assertEquals(7, mmu.readAddress(0xC000));
+
+        // 4 KB CHR mode, then bank 2 at $0000 and bank 1 at $1000
+        writeMMC1Register(0x8000, 0b11100);
+        writeMMC1Register(0xA000, 2);
+        writeMMC1Register(0xC000, 1);
+        assertEquals(2, ppu.inspectVRAM(0x0000));
+        assertEquals(1, ppu.inspectVRAM(0x1000));
+    }
+
+    @Test
+    void mmc1MustResetShiftRegisterWhenBit7IsSet() {
+        mmu.loadCart(new Cart(1, Mirroring.HORIZONTAL, banks(8, 0x4000), null));
+
+        mmu.writeAddress(0xE000, 1);
+        mmu.writeAddress(0xE000, 0x80);
+        writeMMC1Register(0xE000, 2);
+
+        assertEquals(2, mmu.readAddress(0x8000));
+    }
+
+    @Test
+    void mmc3MustSwitchPRGBanksAccordingToPRGMode() {
+        mmu.loadCart(new Cart(4, Mirroring.HORIZONTAL, banks(16, 0x2000), banks(8, 0x0400)));
+        assertEquals(14, mmu.readAddress(0xC000));
+        assertEquals(15, mmu.readAddress(0xE000));
+
+        mmu.writeAddress(0x8000, 6);
+        mmu.writeAddress(0x8001, 3);
+        assertEquals(3, mmu.readAddress(0x8000));
+
+        mmu.writeAddress(0x8000, 0x40 | 6);
+        assertEquals(14, mmu.readAddress(0x8000));
+        assertEquals(3, mmu.readAddress(0xC000));
+    }
+
+    @Test
+    void mmc3MustRaiseIRQWhenScanlineCounterReachesZero() {
+        mmu.loadCart(new Cart(4, Mirroring.HORIZONTAL, banks(4, 0x2000), null));
+        Mapper mapper = mmu.getMapper();
+        mmu.writeAddress(0xC000, 2);
+        mmu.writeAddress(0xC001, 0);
+        mmu.writeAddress(0xE001, 0);
+
+        mapper.clockScanline();
+        mapper.clockScanline();
+        assertFalse(mapper.isIRQPending());
+        mapper.clockScanline();
+        assertTrue(mapper.isIRQPending());
+
+        mmu.writeAddress(0xE000, 0);
+        assertFalse(mapper.isIRQPending());
+    }
+}